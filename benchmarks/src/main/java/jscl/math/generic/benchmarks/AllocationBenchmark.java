@@ -0,0 +1,99 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.ExpressionComparator;
+import jscl.math.generic.expression.literal.Literal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merge kernels: sum and comparison of expressions, multiplication, gcd and lcm of literals.
+ * Allocation is the interesting metric here, run with GC profiler and look at gc.alloc.rate.norm (bytes per operation):
+ * <pre>
+ *     java -jar target/benchmarks.jar AllocationBenchmark -prof gc
+ * </pre>
+ * With 40 variables literals cannot be packed (see VariableIndex) and productands are merged one by one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    private static final int LITERALS = 256;
+
+    @Param({"4", "40"})
+    public int variables;
+
+    @Param({"100"})
+    public int terms;
+
+    private Expression l;
+
+    private Expression r;
+
+    private Expression lCopy;
+
+    private Literal[] literals;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        final BenchmarkVariable[] vars = Polynomials.newVariables(context, variables);
+
+        Random random = new Random(42L);
+        l = Polynomials.newExpression(context, vars, terms, 3, 31, random);
+        r = Polynomials.newExpression(context, vars, terms, 3, 31, random);
+
+        // equal to l but different instance => comparison goes through all summands
+        random = new Random(42L);
+        lCopy = Polynomials.newExpression(context, vars, terms, 3, 31, random);
+
+        literals = new Literal[LITERALS];
+        for (int i = 0; i < LITERALS; i++) {
+            literals[i] = Polynomials.newLiteral(vars, 3, random);
+        }
+    }
+
+    @Benchmark
+    public Expression sum() {
+        return l.add(r);
+    }
+
+    @Benchmark
+    public int compare() {
+        return ExpressionComparator.instance.compare(l, lCopy);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LITERALS)
+    public void literalMultiply(Blackhole bh) {
+        for (int i = 1; i < LITERALS; i++) {
+            bh.consume(literals[i - 1].multiply(literals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LITERALS)
+    public void literalGcd(Blackhole bh) {
+        for (int i = 1; i < LITERALS; i++) {
+            bh.consume(literals[i - 1].gcd(literals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LITERALS)
+    public void literalLcm(Blackhole bh) {
+        for (int i = 1; i < LITERALS; i++) {
+            bh.consume(literals[i - 1].lcm(literals[i]));
+        }
+    }
+}
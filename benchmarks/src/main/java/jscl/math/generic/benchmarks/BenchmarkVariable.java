@@ -0,0 +1,89 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.math.NotIntegrableException;
+import jscl.math.Variable;
+import jscl.math.generic.Generic;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Simple named variable: variables are ordered by name
+ */
+public class BenchmarkVariable extends Variable {
+
+    public BenchmarkVariable(@NotNull String name, @NotNull GenericContext context) {
+        super(name, context);
+    }
+
+    @Override
+    public Generic antiDerivative(Variable variable) throws NotIntegrableException {
+        throw new NotIntegrableException(asGeneric(), variable);
+    }
+
+    @NotNull
+    @Override
+    public Generic derivative(Variable variable) {
+        return isIdentity(variable) ? getContext().getOne() : getContext().getZero();
+    }
+
+    @Override
+    public Generic substitute(Variable variable, Generic generic) {
+        return isIdentity(variable) ? generic : asGeneric();
+    }
+
+    @Override
+    public boolean isConstant(@NotNull Variable variable) {
+        return !isIdentity(variable);
+    }
+
+    @Override
+    public int compareTo(@NotNull Variable variable) {
+        return getName().compareTo(variable.getName());
+    }
+
+    @NotNull
+    @Override
+    public Variable newInstance() {
+        return new BenchmarkVariable(getName(), getContext());
+    }
+
+    @NotNull
+    @Override
+    public Expression asGeneric() {
+        final Expression.Builder result = new Expression.Builder(getContext(), 1);
+        result.addSummand(getContext().getOne(), Literal.newInstance(this));
+        return result.build();
+    }
+
+    @NotNull
+    @Override
+    public Generic expand() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic factorize() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic elementary() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic simplify() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic numeric() {
+        return asGeneric();
+    }
+}
@@ -0,0 +1,32 @@
+package jscl.math.generic.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks with GC profiler always enabled: allocation rate per operation (gc.alloc.rate.norm) is reported
+ * next to the time. Accepts usual JMH command line options, e.g.
+ * <pre>
+ *     java -jar target/benchmarks.jar ExpressionBenchmark.multiply -p terms=100
+ * </pre>
+ */
+public final class BenchmarksMain {
+
+    private BenchmarksMain() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        final Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
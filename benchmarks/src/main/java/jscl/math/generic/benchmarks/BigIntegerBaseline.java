@@ -0,0 +1,54 @@
+package jscl.math.generic.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Mirrors arithmetic of GenericInteger before long fast path was introduced: every value is wrapped BigInteger
+ * and every operation creates new wrapper and new BigInteger
+ */
+final class BigIntegerBaseline implements Comparable<BigIntegerBaseline> {
+
+    @NotNull
+    private final BigInteger content;
+
+    BigIntegerBaseline(@NotNull BigInteger content) {
+        this.content = content;
+    }
+
+    @NotNull
+    BigIntegerBaseline add(@NotNull BigIntegerBaseline that) {
+        return new BigIntegerBaseline(content.add(that.content));
+    }
+
+    @NotNull
+    BigIntegerBaseline subtract(@NotNull BigIntegerBaseline that) {
+        return new BigIntegerBaseline(content.subtract(that.content));
+    }
+
+    @NotNull
+    BigIntegerBaseline multiply(@NotNull BigIntegerBaseline that) {
+        return new BigIntegerBaseline(content.multiply(that.content));
+    }
+
+    @NotNull
+    BigIntegerBaseline negate() {
+        return new BigIntegerBaseline(content.negate());
+    }
+
+    @NotNull
+    BigIntegerBaseline pow(int exponent) {
+        return new BigIntegerBaseline(content.pow(exponent));
+    }
+
+    @NotNull
+    BigIntegerBaseline gcd(@NotNull BigIntegerBaseline that) {
+        return new BigIntegerBaseline(content.gcd(that.content));
+    }
+
+    @Override
+    public int compareTo(@NotNull BigIntegerBaseline that) {
+        return content.compareTo(that.content);
+    }
+}
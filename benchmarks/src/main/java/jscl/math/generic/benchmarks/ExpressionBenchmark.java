@@ -0,0 +1,96 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.Generic;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.ExpressionComparator;
+import jscl.mathml.MathML;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic and formatting of random sparse polynomials with given number of summands, variables and
+ * bit length of coefficients
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int terms;
+
+    @Param({"1", "3", "8"})
+    public int variables;
+
+    @Param({"31", "100"})
+    public int bits;
+
+    private BenchmarkVariable[] vars;
+
+    private Expression l;
+
+    private Expression r;
+
+    private Expression lCopy;
+
+    private Generic substitution;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        vars = Polynomials.newVariables(context, variables);
+
+        // max exponent is chosen so that there are enough different monomials
+        final int maxExponent = Math.max(3, (int) Math.ceil(Math.pow(terms, 1.0 / variables)));
+
+        Random random = new Random(42L);
+        l = Polynomials.newExpression(context, vars, terms, maxExponent, bits, random);
+        r = Polynomials.newExpression(context, vars, terms, maxExponent, bits, random);
+
+        random = new Random(42L);
+        lCopy = Polynomials.newExpression(context, vars, terms, maxExponent, bits, random);
+
+        // x0 -> x0 + 1
+        substitution = vars[0].asGeneric().add(context.newInteger(1));
+    }
+
+    @Benchmark
+    public Expression sum() {
+        return l.add(r);
+    }
+
+    @Benchmark
+    public Expression multiply() {
+        return l.multiply(r);
+    }
+
+    @Benchmark
+    public int compare() {
+        return ExpressionComparator.instance.compare(l, lCopy);
+    }
+
+    @Benchmark
+    public String format() {
+        return l.toString();
+    }
+
+    @Benchmark
+    public MathML toMathML() {
+        final MathML result = new MathML("math", "-//W3C//DTD MathML 2.0//EN", "http://www.w3.org/TR/MathML2/dtd/mathml2.dtd");
+        l.toMathML(result, null);
+        return result;
+    }
+
+    @Benchmark
+    public Generic substitute() {
+        return l.substitute(vars[0], substitution);
+    }
+}
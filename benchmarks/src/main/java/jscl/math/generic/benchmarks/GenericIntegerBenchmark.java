@@ -0,0 +1,132 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.GenericInteger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares GenericInteger (long fast path with fallback to BigInteger) with BigInteger-only implementation.
+ * Operands have given number of bits, e.g. for 31 bits all results fit into long, for 62 bits products overflow
+ * and for 100 bits only BigInteger arithmetic is used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericIntegerBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"31", "62", "100"})
+    public int bits;
+
+    private GenericInteger[] integers;
+
+    private BigIntegerBaseline[] baselines;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        final Random random = new Random(42L);
+
+        integers = new GenericInteger[SIZE];
+        baselines = new BigIntegerBaseline[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            BigInteger value = new BigInteger(bits, random);
+            if (random.nextBoolean()) {
+                value = value.negate();
+            }
+            integers[i] = context.newInteger(value);
+            baselines[i] = new BigIntegerBaseline(value);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void add(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(integers[i - 1].add(integers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void addBaseline(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(baselines[i - 1].add(baselines[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void multiply(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(integers[i - 1].multiply(integers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void multiplyBaseline(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(baselines[i - 1].multiply(baselines[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void negate(Blackhole bh) {
+        for (int i = 0; i < SIZE; i++) {
+            bh.consume(integers[i].negate());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void negateBaseline(Blackhole bh) {
+        for (int i = 0; i < SIZE; i++) {
+            bh.consume(baselines[i].negate());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void compare(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(integers[i - 1].compareTo(integers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void compareBaseline(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(baselines[i - 1].compareTo(baselines[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void gcd(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(integers[i - 1].gcd(integers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void gcdBaseline(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(baselines[i - 1].gcd(baselines[i]));
+        }
+    }
+}
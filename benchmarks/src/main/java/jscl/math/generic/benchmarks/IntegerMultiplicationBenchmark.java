@@ -0,0 +1,87 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.GenericIntegerCache;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds crossover point of multiplication of big integers by {@link BigInteger#multiply(BigInteger)} (Toom-Cook)
+ * and by number theoretic transform: the same operands are multiplied in contexts where NTT is never/always used.
+ * Threshold is {@link GenericContextImpl#DEFAULT_NTT_MULTIPLICATION_THRESHOLD}, e.g.
+ * <pre>
+ *     java -jar target/benchmarks.jar IntegerMultiplicationBenchmark -p bits=500000,1000000
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntegerMultiplicationBenchmark {
+
+    @Param({"100000", "250000", "500000", "1000000", "2000000", "4000000"})
+    public int bits;
+
+    private GenericInteger toomCookL;
+
+    private GenericInteger toomCookR;
+
+    private GenericInteger nttL;
+
+    private GenericInteger nttR;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42L);
+        final BigInteger l = new BigInteger(bits, random);
+        final BigInteger r = new BigInteger(bits, random).negate();
+
+        final GenericContext toomCookContext = newContext(Integer.MAX_VALUE);
+        toomCookL = toomCookContext.newInteger(l);
+        toomCookR = toomCookContext.newInteger(r);
+
+        final GenericContext nttContext = newContext(0);
+        nttL = nttContext.newInteger(l);
+        nttR = nttContext.newInteger(r);
+    }
+
+    @NotNull
+    private static GenericContext newContext(int nttMultiplicationThreshold) {
+        return new GenericContextImpl(JsclMathContextImpl.defaultInstance(),
+                GenericIntegerCache.DEFAULT_LOW,
+                GenericIntegerCache.DEFAULT_HIGH,
+                GenericIntegerCache.DEFAULT_INTERN_CAPACITY,
+                null,
+                GenericContextImpl.DEFAULT_PARALLEL_MULTIPLICATION_THRESHOLD,
+                nttMultiplicationThreshold);
+    }
+
+    @Benchmark
+    public GenericInteger multiplyToomCook() {
+        return toomCookL.multiply(toomCookR);
+    }
+
+    @Benchmark
+    public GenericInteger multiplyNtt() {
+        return nttL.multiply(nttR);
+    }
+
+    @Benchmark
+    public GenericInteger squareToomCook() {
+        return toomCookL.multiply(toomCookL);
+    }
+
+    @Benchmark
+    public GenericInteger squareNtt() {
+        return nttL.multiply(nttL);
+    }
+}
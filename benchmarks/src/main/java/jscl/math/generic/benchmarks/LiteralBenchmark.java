@@ -0,0 +1,90 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.expression.literal.Literal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations on monomials. With 40 variables literals cannot be packed (see VariableIndex)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiteralBenchmark {
+
+    private static final int SIZE = 256;
+
+    @Param({"1", "3", "8", "40"})
+    public int variables;
+
+    private Literal[] literals;
+
+    // products[i] = literals[i] * literals[i + 1]
+    private Literal[] products;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        final BenchmarkVariable[] vars = Polynomials.newVariables(context, variables);
+        final Random random = new Random(42L);
+
+        literals = new Literal[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            literals[i] = Polynomials.newLiteral(vars, 5, random);
+        }
+
+        products = new Literal[SIZE - 1];
+        for (int i = 0; i < SIZE - 1; i++) {
+            products[i] = literals[i].multiply(literals[i + 1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void multiply(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(literals[i - 1].multiply(literals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void divide(Blackhole bh) {
+        for (int i = 0; i < SIZE - 1; i++) {
+            bh.consume(products[i].divide(literals[i + 1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void gcd(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(literals[i - 1].gcd(literals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void lcm(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(literals[i - 1].lcm(literals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void compare(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(literals[i - 1].compareTo(literals[i]));
+        }
+    }
+}
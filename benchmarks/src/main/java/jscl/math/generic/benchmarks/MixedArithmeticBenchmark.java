@@ -0,0 +1,103 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.Generic;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.Rational;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary operations called through {@link Generic} on operands of randomly mixed types: call sites see different
+ * classes of both receiver and argument. Polynomials are integers and small expressions, numbers are integers and
+ * rationals (rationals cannot be converted to expressions)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedArithmeticBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private Generic[] polynomials;
+
+    private Generic[] numbers;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        final BenchmarkVariable[] vars = Polynomials.newVariables(context, 2);
+        final Random random = new Random(42L);
+
+        polynomials = new Generic[SIZE];
+        numbers = new Generic[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            if (random.nextBoolean()) {
+                polynomials[i] = context.newInteger(random.nextInt(1000) + 1);
+            } else {
+                polynomials[i] = Polynomials.newExpression(context, vars, 3, 3, 31, random);
+            }
+
+            if (random.nextBoolean()) {
+                numbers[i] = context.newInteger(random.nextInt(1000) + 1);
+            } else {
+                numbers[i] = Rational.newInstance(random.nextInt(1000) + 1, random.nextInt(1000) + 1, context);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void addPolynomials(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(polynomials[i - 1].add(polynomials[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void multiplyPolynomials(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(polynomials[i - 1].multiply(polynomials[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void comparePolynomials(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(polynomials[i - 1].compareTo(polynomials[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void addNumbers(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(numbers[i - 1].add(numbers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void multiplyNumbers(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(numbers[i - 1].multiply(numbers[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE - 1)
+    public void compareNumbers(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(numbers[i - 1].compareTo(numbers[i]));
+        }
+    }
+}
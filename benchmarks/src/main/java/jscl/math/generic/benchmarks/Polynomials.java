@@ -0,0 +1,69 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Generators of random benchmark data
+ */
+public final class Polynomials {
+
+    private Polynomials() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return variables x00, x01, ... (names are zero-padded => variables are ordered by index)
+     */
+    @NotNull
+    public static BenchmarkVariable[] newVariables(@NotNull GenericContext context, int count) {
+        final BenchmarkVariable[] result = new BenchmarkVariable[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new BenchmarkVariable(String.format("x%02d", i), context);
+        }
+        return result;
+    }
+
+    /**
+     * @return random monomial where each variable has exponent from [0, maxExponent]
+     */
+    @NotNull
+    public static Literal newLiteral(@NotNull BenchmarkVariable[] variables, int maxExponent, @NotNull Random random) {
+        final Literal.Builder result = new Literal.Builder(variables.length);
+        for (BenchmarkVariable variable : variables) {
+            final int exponent = random.nextInt(maxExponent + 1);
+            if (exponent > 0) {
+                result.addProductand(variable, exponent);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * @return random polynomial with at most <var>terms</var> summands and non-zero coefficients of given bit length
+     */
+    @NotNull
+    public static Expression newExpression(@NotNull GenericContext context,
+                                           @NotNull BenchmarkVariable[] variables,
+                                           int terms,
+                                           int maxExponent,
+                                           int bits,
+                                           @NotNull Random random) {
+        Expression result = Expression.newEmpty(context);
+        for (int i = 0; i < terms; i++) {
+            long coefficient = bits >= 63 ? random.nextLong() : random.nextLong() % (1L << bits);
+            if (coefficient == 0L) {
+                coefficient = 1L;
+            }
+
+            final Expression.Builder summand = new Expression.Builder(context, 1);
+            summand.addSummand(context.newInteger(coefficient), newLiteral(variables, maxExponent, random));
+            result = result.add(summand.build());
+        }
+        return result;
+    }
+}
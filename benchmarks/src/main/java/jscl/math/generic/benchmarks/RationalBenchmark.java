@@ -0,0 +1,76 @@
+package jscl.math.generic.benchmarks;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.Rational;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rational arithmetic, numerators and denominators have given number of bits
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RationalBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"31", "62", "100"})
+    public int bits;
+
+    private Rational[] rationals;
+
+    @Setup
+    public void setUp() {
+        final GenericContext context = new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+        final Random random = new Random(42L);
+
+        rationals = new Rational[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            BigInteger numerator = new BigInteger(bits, random);
+            if (random.nextBoolean()) {
+                numerator = numerator.negate();
+            }
+            final BigInteger denominator = new BigInteger(bits, random).add(BigInteger.ONE);
+
+            // reduced fraction
+            final BigInteger gcd = numerator.gcd(denominator);
+            rationals[i] = Rational.newInstance(numerator.divide(gcd), denominator.divide(gcd), context);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void add(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(rationals[i - 1].add(rationals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void multiply(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(rationals[i - 1].multiply(rationals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void divide(Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            if (rationals[i].signum() != 0) {
+                bh.consume(rationals[i - 1].divide(rationals[i]));
+            }
+        }
+    }
+}
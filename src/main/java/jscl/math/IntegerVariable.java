@@ -0,0 +1,142 @@
+package jscl.math;
+
+import jscl.math.generic.Generic;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.Literal;
+import jscl.mathml.MathML;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Integer which is kept unevaluated inside of expression, e.g. prime of factorization 2^3 * 3 * 7
+ * (see {@link GenericInteger#factorize()}). Integer variables precede all other variables and are ordered by value
+ * (see {@link #compare(Variable, Variable)}).
+ * <p/>
+ * Integer variables are not added to the variable index: literals which contain them are never packed.
+ */
+public final class IntegerVariable extends Variable {
+
+    @NotNull
+    private final GenericInteger value;
+
+    public IntegerVariable(@NotNull GenericInteger value) {
+        super(value.toString(), value.getContext());
+        this.value = value;
+    }
+
+    @NotNull
+    public GenericInteger getValue() {
+        return value;
+    }
+
+    @Override
+    public Generic antiDerivative(Variable variable) throws NotIntegrableException {
+        return value.antiDerivative(variable);
+    }
+
+    @NotNull
+    @Override
+    public Generic derivative(Variable variable) {
+        return getContext().getZero();
+    }
+
+    @Override
+    public Generic substitute(Variable variable, Generic generic) {
+        return asGeneric();
+    }
+
+    @Override
+    public boolean isConstant(@NotNull Variable variable) {
+        return true;
+    }
+
+    @Override
+    public int compareTo(@NotNull Variable variable) {
+        if (this == variable) {
+            return 0;
+        } else if (variable instanceof IntegerVariable) {
+            return value.compareTo(((IntegerVariable) variable).value);
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Order of variables inside of literals: integer variables precede all other variables whatever
+     * {@link Variable#compareTo(Variable)} of the other variable returns, variables of the same kind are compared by
+     * {@link Variable#compareTo(Variable)}
+     *
+     * @return negative value, zero or positive value if <var>l</var> is less than, equal to or greater than <var>r</var>
+     */
+    public static int compare(@NotNull Variable l, @NotNull Variable r) {
+        final boolean integer = l instanceof IntegerVariable;
+        if (integer != r instanceof IntegerVariable) {
+            return integer ? -1 : 1;
+        } else {
+            return l.compareTo(r);
+        }
+    }
+
+    @Override
+    public String toJava() {
+        return value.toJava();
+    }
+
+    @Override
+    public void toMathML(@NotNull MathML parent, @Nullable Object data) {
+        value.toMathML(parent, data);
+    }
+
+    @NotNull
+    @Override
+    public Variable newInstance() {
+        return new IntegerVariable(value);
+    }
+
+    @NotNull
+    @Override
+    public Expression asGeneric() {
+        final Expression.Builder result = new Expression.Builder(getContext(), 1);
+        result.addSummand(getContext().getOne(), Literal.newInstance(this));
+        return result.build();
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           TRANSFORMATIONS
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    @Override
+    public Generic expand() {
+        return value;
+    }
+
+    @NotNull
+    @Override
+    public Generic factorize() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic elementary() {
+        return value;
+    }
+
+    @NotNull
+    @Override
+    public Generic simplify() {
+        return value;
+    }
+
+    @NotNull
+    @Override
+    public Generic numeric() {
+        return value.numeric();
+    }
+}
@@ -0,0 +1,473 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lenstra's elliptic curve method: point of random curve modulo n is multiplied by all prime powers up to B1
+ * (stage 1) and then by each prime in (B1, B2] (stage 2). If the order of the curve modulo prime factor p of n is
+ * B1-smooth (up to one prime not greater than B2) the result is the point at infinity modulo p => p divides
+ * z-coordinate of the point. Cost depends on the size of the smallest factor, not on the size of n.
+ * <p/>
+ * Curves are Montgomery curves B * y^2 = x^3 + A * x^2 + x with Suyama's parametrization (group order is divisible
+ * by 12), only x and z coordinates are used. Arithmetic is done by {@link MontgomeryLimbs}.
+ * Stage 2 is the standard continuation with baby steps j * Q and giant steps k * D * Q:
+ * q = k * D +- j => q * Q is infinity iff x(k * D * Q) = x(j * Q), both signs are checked by one multiplication.
+ */
+enum EllipticCurveMethod {
+
+    instance;
+
+    // B1 bounds and numbers of curves which are expected to find factor of 15, 20, 25, 30, 35 and 40 digits
+    private static final int[] B1 = {2000, 11000, 50000, 250000, 1000000, 3000000};
+
+    private static final int[] CURVES = {25, 90, 300, 700, 1800, 5100};
+
+    private static final int B2_FACTOR = 100;
+
+    // primes up to B2 are sieved => memory is limited
+    private static final int MAX_B2 = 1 << 25;
+
+    // giant step: 2 * 3 * 5 * 7 * 11 => only 240 of 577 baby steps are used
+    private static final int D = 2310;
+
+    /**
+     * Runs curves with growing bounds until factor is found. Calculation can be stopped only by interruption of the
+     * calling thread (workers of the <var>pool</var> are stopped too) => <var>n</var> must be composite and not a
+     * perfect power.
+     *
+     * @param n    odd composite number without small factors
+     * @param pool if not null curves are run in parallel
+     * @return non trivial factor of <var>n</var>
+     */
+    @NotNull
+    public BigInteger findFactor(@NotNull BigInteger n, @Nullable ForkJoinPool pool) {
+        // set if the calling thread has been interrupted while waiting for workers
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        int curve = 0;
+        Level l = null;
+        for (int level = 0; ; level++) {
+            GenericUtils.checkInterruption();
+
+            if (l == null || l.index < B1.length - 1) {
+                l = new Level(Math.min(level, B1.length - 1));
+            }
+            final int curves = CURVES[l.index];
+
+            final BigInteger result;
+            if (pool != null && pool.getParallelism() > 1) {
+                result = GenericUtils.invoke(pool, new CurvesTask(n, l, curve, curve + curves, new AtomicReference<BigInteger>(), cancelled), cancelled);
+            } else {
+                result = runCurves(n, l, curve, curve + curves, null, cancelled);
+            }
+
+            if (result != null) {
+                return result;
+            }
+            curve += curves;
+        }
+    }
+
+    private static final class Level {
+
+        private final int index;
+
+        // primes up to B1
+        @NotNull
+        private final int[] primes;
+
+        // pairs k * D + j (0 < j < D / 2) such that k * D + j or k * D - j is a prime in (B1, B2], ascending
+        @NotNull
+        private final int[] pairs;
+
+        private Level(int index) {
+            this.index = index;
+
+            final int b1 = B1[index];
+            final int[] primes = PrimeTable.sieve(Math.min(b1 * B2_FACTOR, MAX_B2) + 1);
+
+            int from = 0;
+            while (from < primes.length && primes[from] <= b1) {
+                from++;
+            }
+            this.primes = Arrays.copyOf(primes, from);
+
+            // primes q = k * D +- j share the same pair as x(k * D * Q) = x(j * Q) iff x(k * D * Q) = x(-j * Q)
+            final int[] pairs = new int[primes.length - from];
+            for (int i = from; i < primes.length; i++) {
+                final int k = (primes[i] + D / 2) / D;
+                pairs[i - from] = k * D + Math.abs(primes[i] - k * D);
+            }
+            Arrays.sort(pairs);
+
+            int size = 0;
+            for (int i = 0; i < pairs.length; i++) {
+                if (size == 0 || pairs[size - 1] != pairs[i]) {
+                    pairs[size++] = pairs[i];
+                }
+            }
+            this.pairs = Arrays.copyOf(pairs, size);
+        }
+    }
+
+    @Nullable
+    private static BigInteger runCurves(@NotNull BigInteger n, @NotNull Level level, int from, int to, @Nullable AtomicReference<BigInteger> found, @NotNull AtomicBoolean cancelled) {
+        for (int curve = from; curve < to; curve++) {
+            if (found != null && found.get() != null) {
+                // another worker has found factor
+                return null;
+            }
+            checkInterruption(cancelled);
+
+            final BigInteger result = runCurve(n, level, curve, cancelled);
+            if (result != null) {
+                if (found != null) {
+                    found.compareAndSet(null, result);
+                }
+                return result;
+            }
+        }
+        return null;
+    }
+
+    // curves are run either in the calling thread (interruption) or in workers (cancellation)
+    private static void checkInterruption(@NotNull AtomicBoolean cancelled) {
+        GenericUtils.checkInterruption();
+        GenericUtils.checkCancellation(cancelled);
+    }
+
+    private static final class CurvesTask extends RecursiveTask<BigInteger> {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final BigInteger n;
+
+        @NotNull
+        private final Level level;
+
+        private final int from;
+
+        private final int to;
+
+        @NotNull
+        private final AtomicReference<BigInteger> found;
+
+        @NotNull
+        private final AtomicBoolean cancelled;
+
+        private CurvesTask(@NotNull BigInteger n, @NotNull Level level, int from, int to, @NotNull AtomicReference<BigInteger> found, @NotNull AtomicBoolean cancelled) {
+            this.n = n;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from <= 1) {
+                return runCurves(n, level, from, to, found, cancelled);
+            } else {
+                final int middle = (from + to) >>> 1;
+
+                final CurvesTask left = new CurvesTask(n, level, from, middle, found, cancelled);
+                left.fork();
+                final BigInteger right = new CurvesTask(n, level, middle, to, found, cancelled).compute();
+                final BigInteger result = left.join();
+
+                return result != null ? result : right;
+            }
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           CURVE
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return non trivial factor of <var>n</var> or null if curve has not found any
+     */
+    @Nullable
+    private static BigInteger runCurve(@NotNull BigInteger n, @NotNull Level level, int curve, @NotNull AtomicBoolean cancelled) {
+        // Suyama's parametrization: sigma must not be 0, +-1, +-3, +-5
+        final BigInteger sigma = BigInteger.valueOf(6L + curve);
+        final BigInteger u = sigma.multiply(sigma).subtract(BigInteger.valueOf(5L)).mod(n);
+        final BigInteger v = sigma.shiftLeft(2).mod(n);
+        final BigInteger u3 = u.modPow(BigInteger.valueOf(3L), n);
+        final BigInteger v3 = v.modPow(BigInteger.valueOf(3L), n);
+
+        // (A + 2) / 4 = (v - u)^3 * (3u + v) / (16 * u^3 * v)
+        final BigInteger numerator = v.subtract(u).modPow(BigInteger.valueOf(3L), n).multiply(u.multiply(BigInteger.valueOf(3L)).add(v)).mod(n);
+        final BigInteger denominator = u3.multiply(v).shiftLeft(4).mod(n);
+        final BigInteger gcd = denominator.gcd(n);
+        if (!gcd.equals(BigInteger.ONE)) {
+            return gcd.equals(n) ? null : gcd;
+        }
+
+        final Curve c = new Curve(new MontgomeryLimbs(n), numerator.multiply(denominator.modInverse(n)).mod(n));
+        final Point q = c.newPoint(u3, v3);
+
+        // stage 1
+        final int b1 = B1[level.index];
+        final int[] primes = level.primes;
+        for (int i = 0; i < primes.length; i++) {
+            final long p = primes[i];
+            long power = p;
+            while (power * p <= b1) {
+                power *= p;
+            }
+            c.multiply(q, power, q);
+
+            if ((i & 0xFF) == 0) {
+                checkInterruption(cancelled);
+            }
+        }
+
+        BigInteger result = c.arithmetic.gcd(q.z);
+        if (!result.equals(BigInteger.ONE)) {
+            return result.equals(n) ? null : result;
+        }
+
+        // stage 2
+        result = c.arithmetic.gcd(c.stage2(q, level.pairs, cancelled));
+        if (!result.equals(BigInteger.ONE)) {
+            return result.equals(n) ? null : result;
+        }
+        return null;
+    }
+
+    private static final class Point {
+
+        @NotNull
+        private final int[] x;
+
+        @NotNull
+        private final int[] z;
+
+        private Point(@NotNull int[] x, @NotNull int[] z) {
+            this.x = x;
+            this.z = z;
+        }
+    }
+
+    private static final class Curve {
+
+        @NotNull
+        private final MontgomeryLimbs arithmetic;
+
+        // (A + 2) / 4
+        @NotNull
+        private final int[] a24;
+
+        // scratch
+        @NotNull
+        private final int[] t1;
+        @NotNull
+        private final int[] t2;
+        @NotNull
+        private final int[] t3;
+        @NotNull
+        private final int[] t4;
+        @NotNull
+        private final Point r0;
+        @NotNull
+        private final Point r1;
+        @NotNull
+        private final Point base;
+
+        private Curve(@NotNull MontgomeryLimbs arithmetic, @NotNull BigInteger a24) {
+            this.arithmetic = arithmetic;
+            this.a24 = arithmetic.toMontgomery(a24);
+            this.t1 = arithmetic.newNumber();
+            this.t2 = arithmetic.newNumber();
+            this.t3 = arithmetic.newNumber();
+            this.t4 = arithmetic.newNumber();
+            this.r0 = newPoint();
+            this.r1 = newPoint();
+            this.base = newPoint();
+        }
+
+        @NotNull
+        private Point newPoint() {
+            return new Point(arithmetic.newNumber(), arithmetic.newNumber());
+        }
+
+        @NotNull
+        private Point newPoint(@NotNull BigInteger x, @NotNull BigInteger z) {
+            return new Point(arithmetic.toMontgomery(x), arithmetic.toMontgomery(z));
+        }
+
+        private void copy(@NotNull Point p, @NotNull Point result) {
+            arithmetic.copy(p.x, result.x);
+            arithmetic.copy(p.z, result.z);
+        }
+
+        /**
+         * result = 2 * p
+         */
+        private void doubled(@NotNull Point p, @NotNull Point result) {
+            final MontgomeryLimbs a = arithmetic;
+
+            a.add(p.x, p.z, t1);
+            a.square(t1, t1);
+            a.subtract(p.x, p.z, t2);
+            a.square(t2, t2);
+            a.subtract(t1, t2, t3);
+
+            a.multiply(t1, t2, result.x);
+            a.multiply(a24, t3, t4);
+            a.add(t4, t2, t4);
+            a.multiply(t3, t4, result.z);
+        }
+
+        /**
+         * result = p + q, <var>difference</var> = p - q must not be the same object as <var>result</var>
+         */
+        private void add(@NotNull Point p, @NotNull Point q, @NotNull Point difference, @NotNull Point result) {
+            final MontgomeryLimbs a = arithmetic;
+
+            a.subtract(p.x, p.z, t1);
+            a.add(q.x, q.z, t2);
+            a.multiply(t1, t2, t1);
+            a.add(p.x, p.z, t2);
+            a.subtract(q.x, q.z, t3);
+            a.multiply(t2, t3, t2);
+
+            a.add(t1, t2, t3);
+            a.square(t3, t3);
+            a.subtract(t1, t2, t4);
+            a.square(t4, t4);
+
+            a.multiply(difference.z, t3, result.x);
+            a.multiply(difference.x, t4, result.z);
+        }
+
+        /**
+         * Montgomery ladder: result = k * p, <var>k</var> must be positive
+         */
+        private void multiply(@NotNull Point p, long k, @NotNull Point result) {
+            multiply(p, k, result, null);
+        }
+
+        /**
+         * Montgomery ladder: result = k * p and next = (k + 1) * p (if not null), <var>k</var> must be positive
+         */
+        private void multiply(@NotNull Point p, long k, @NotNull Point result, @Nullable Point next) {
+            copy(p, base);
+            copy(p, r0);
+            doubled(p, r1);
+
+            // invariant: r1 - r0 = p
+            for (int bit = Long.SIZE - Long.numberOfLeadingZeros(k) - 2; bit >= 0; bit--) {
+                if ((k & (1L << bit)) != 0L) {
+                    add(r0, r1, base, r0);
+                    doubled(r1, r1);
+                } else {
+                    add(r0, r1, base, r1);
+                    doubled(r0, r0);
+                }
+            }
+
+            copy(r0, result);
+            if (next != null) {
+                copy(r1, next);
+            }
+        }
+
+        /**
+         * @param pairs see {@link Level#pairs}
+         * @return product of x(k * D * q) - x(j * q) * z(k * D * q) for all pairs k * D + j (x(j * q) is normalized)
+         * or product of z(j * q) if some of them are not invertible
+         */
+        @NotNull
+        private int[] stage2(@NotNull Point q, @NotNull int[] pairs, @NotNull AtomicBoolean cancelled) {
+            final MontgomeryLimbs a = arithmetic;
+
+            // baby steps: odd multiples j * q for j < D / 2
+            final Point[] baby = new Point[D / 2];
+            baby[1] = newPoint();
+            copy(q, baby[1]);
+            final Point q2 = newPoint();
+            doubled(q, q2);
+            for (int j = 3; j < D / 2; j += 2) {
+                baby[j] = newPoint();
+                // (j - 2) * q + 2 * q, difference is (j - 4) * q = -(4 - j) * q for j = 3
+                add(baby[j - 2], q2, baby[j == 3 ? 1 : j - 4], baby[j]);
+            }
+
+            // x(j * q) = x / z for j coprime with D: Montgomery's trick => one inversion for all of them
+            final int[][] products = new int[D / 2][];
+            int[] product = a.toMontgomery(BigInteger.ONE);
+            for (int j = 1; j < D / 2; j += 2) {
+                if (BigInteger.valueOf(j).gcd(BigInteger.valueOf(D)).equals(BigInteger.ONE)) {
+                    products[j] = product;
+                    product = a.newNumber();
+                    a.multiply(products[j], baby[j].z, product);
+                }
+            }
+            if (!a.gcd(product).equals(BigInteger.ONE)) {
+                return product;
+            }
+
+            // inverse = (z[1] * ... * z[j])^-1
+            final int[] inverse = a.inverse(product);
+            final int[] t = a.newNumber();
+            for (int j = D / 2 - 1; j > 0; j--) {
+                if (products[j] != null) {
+                    // z[j]^-1 = z[1] * ... * z[j - 1] * (z[1] * ... * z[j])^-1
+                    a.multiply(products[j], inverse, t);
+                    a.multiply(inverse, baby[j].z, inverse);
+                    a.multiply(baby[j].x, t, baby[j].x);
+                }
+            }
+
+            final int[] result = a.toMontgomery(BigInteger.ONE);
+            if (pairs.length == 0) {
+                return result;
+            }
+
+            final Point step = newPoint();
+            multiply(q, D, step);
+
+            // giant steps: current = k * D * q, next = (k + 1) * D * q
+            int k = pairs[0] / D;
+            final Point current = newPoint();
+            final Point next = newPoint();
+            final Point tmp = newPoint();
+            multiply(step, k, current, next);
+
+            for (int pair : pairs) {
+                while (k < pair / D) {
+                    add(next, step, current, tmp);
+                    copy(next, current);
+                    copy(tmp, next);
+                    k++;
+
+                    if ((k & 0xFF) == 0) {
+                        checkInterruption(cancelled);
+                    }
+                }
+
+                a.multiply(baby[pair % D].x, current.z, t);
+                a.subtract(current.x, t, t);
+                a.multiply(result, t, result);
+            }
+
+            return result;
+        }
+    }
+}
@@ -12,8 +12,16 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable, Transf
     @NotNull
     protected final GenericContext context;
 
+    // see GenericCoercion
+    private final int typeTag;
+
     protected Generic(@NotNull GenericContext context) {
+        this(context, GenericCoercion.OTHER);
+    }
+
+    protected Generic(@NotNull GenericContext context, int typeTag) {
         this.context = context;
+        this.typeTag = typeTag;
     }
 
     @NotNull
@@ -21,6 +29,13 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable, Transf
         return context;
     }
 
+    /**
+     * @return position of the type of this generic in the numeric tower, see {@link GenericCoercion}
+     */
+    public final int getTypeTag() {
+        return typeTag;
+    }
+
     @NotNull
     public Generic subtract(@NotNull Generic that) {
         return add(that.negate());
@@ -32,10 +47,26 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable, Transf
 
     @NotNull
     public DivisionResult divideAndRemainder(@NotNull Generic generic) {
+        final Generic quotient = tryDivide(generic);
+        if (quotient != null) {
+            return DivisionResult.newInstance(quotient, context.getZero());
+        } else {
+            return DivisionResult.newInstance(context.getZero(), this);
+        }
+    }
+
+    /**
+     * Same as {@link #divide(Generic)} but returns null instead of throwing {@link NotDivisibleException}.
+     * Subclasses override this method if division can be checked without exception
+     *
+     * @return quotient or null if this object is not divisible by <var>that</var>
+     */
+    @Nullable
+    public Generic tryDivide(@NotNull Generic that) {
         try {
-            return DivisionResult.newInstance(divide(generic), context.getZero());
+            return divide(that);
         } catch (NotDivisibleException e) {
-            return DivisionResult.newInstance(context.getZero(), this);
+            return null;
         }
     }
 
@@ -93,7 +124,7 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable, Transf
 
         for (int i = 0; i < exponent; i++) {
 
-            //ParserUtils.checkInterruption();
+            GenericUtils.checkInterruption();
 
             result = result.multiply(this);
         }
@@ -133,6 +164,42 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable, Transf
 
 	public abstract Variable variableValue() throws NotVariableException;
 
+    /**
+     * Same as {@link #integerValue()} but returns null instead of throwing {@link NotIntegerException}
+     *
+     * @return integer value or null if this object is not an integer
+     */
+    @Nullable
+    public GenericInteger tryIntegerValue() {
+        try {
+            return integerValue();
+        } catch (NotIntegerException e) {
+            return null;
+        }
+    }
+
+    public boolean isInteger() {
+        return tryIntegerValue() != null;
+    }
+
+    /**
+     * Same as {@link #variableValue()} but returns null instead of throwing {@link NotVariableException}
+     *
+     * @return variable or null if this object is not a variable
+     */
+    @Nullable
+    public Variable tryVariableValue() {
+        try {
+            return variableValue();
+        } catch (NotVariableException e) {
+            return null;
+        }
+    }
+
+    public boolean isVariable() {
+        return tryVariableValue() != null;
+    }
+
     @NotNull
     public abstract List<Variable> variables();
 
@@ -0,0 +1,250 @@
+package jscl.math.generic;
+
+import jscl.math.NotDivisibleException;
+import jscl.math.generic.expression.Expression;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Numeric tower of generics: <code>integer &lt; rational &lt; numeric &lt; expression</code>.
+ * <p/>
+ * Each generic carries type tag (see {@link Generic#getTypeTag()}), operands of binary operation are converted to
+ * their common type found in precomputed table and operation is applied to the operands of the same class =>
+ * call sites stay monomorphic and no chain of <code>instanceof</code> checks is needed.
+ * Commutative operations are delegated to the operand of higher type which handles operands of lower types
+ * without conversion (e.g. <code>2 + x</code> is computed as <code>x + 2</code>).
+ * <p/>
+ * Generics of unknown types (tag {@link #OTHER}) are converted by {@link Generic#valueOf(Generic)} of the other
+ * operand.
+ */
+public enum GenericCoercion {
+
+    instance;
+
+    public static final int INTEGER = 0;
+    public static final int RATIONAL = 1;
+    public static final int NUMERIC = 2;
+    public static final int EXPRESSION = 3;
+    public static final int OTHER = 4;
+
+    // JOIN[l][r] = least common type of types l and r
+    private static final int[][] JOIN = new int[OTHER + 1][OTHER + 1];
+
+    static {
+        for (int l = 0; l <= OTHER; l++) {
+            for (int r = 0; r <= OTHER; r++) {
+                // known types are linearly ordered
+                JOIN[l][r] = l == OTHER || r == OTHER ? OTHER : Math.max(l, r);
+            }
+        }
+    }
+
+    public static int join(int l, int r) {
+        return JOIN[l][r];
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           OPERATIONS
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    public Generic add(@NotNull Generic l, @NotNull Generic r) {
+        final int type = join(l.getTypeTag(), r.getTypeTag());
+        if (isHigher(r, l, type)) {
+            return r.add(l);
+        }
+
+        switch (type) {
+            case INTEGER:
+                return ((GenericInteger) l).add((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).add(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).add(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).add(toExpression(r));
+            default:
+                return r.valueOf(l).add(r);
+        }
+    }
+
+    @NotNull
+    public Generic subtract(@NotNull Generic l, @NotNull Generic r) {
+        switch (join(l.getTypeTag(), r.getTypeTag())) {
+            case INTEGER:
+                return ((GenericInteger) l).subtract((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).subtract(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).subtract(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).subtract(toExpression(r));
+            default:
+                return r.valueOf(l).subtract(r);
+        }
+    }
+
+    @NotNull
+    public Generic multiply(@NotNull Generic l, @NotNull Generic r) {
+        final int type = join(l.getTypeTag(), r.getTypeTag());
+        if (isHigher(r, l, type)) {
+            return r.multiply(l);
+        }
+
+        switch (type) {
+            case INTEGER:
+                return ((GenericInteger) l).multiply((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).multiply(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).multiply(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).multiply(toExpression(r));
+            default:
+                return r.multiply(l);
+        }
+    }
+
+    @NotNull
+    public Generic divide(@NotNull Generic l, @NotNull Generic r) throws NotDivisibleException {
+        switch (join(l.getTypeTag(), r.getTypeTag())) {
+            case INTEGER:
+                return ((GenericInteger) l).divide((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).divide(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).divide(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).divide(toExpression(r));
+            default:
+                return r.valueOf(l).divide(r);
+        }
+    }
+
+    @Nullable
+    public Generic tryDivide(@NotNull Generic l, @NotNull Generic r) {
+        switch (join(l.getTypeTag(), r.getTypeTag())) {
+            case INTEGER:
+                return ((GenericInteger) l).tryDivide((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).tryDivide(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).tryDivide(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).tryDivide(toExpression(r));
+            default:
+                return r.valueOf(l).tryDivide(r);
+        }
+    }
+
+    @NotNull
+    public DivisionResult divideAndRemainder(@NotNull Generic l, @NotNull Generic r) {
+        switch (join(l.getTypeTag(), r.getTypeTag())) {
+            case INTEGER:
+                return ((GenericInteger) l).divideAndRemainder(r);
+            case RATIONAL:
+                return toRational(l).divideAndRemainder(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).divideAndRemainder(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).divideAndRemainder(toExpression(r));
+            default:
+                return r.valueOf(l).divideAndRemainder(r);
+        }
+    }
+
+    @NotNull
+    public Generic gcd(@NotNull Generic l, @NotNull Generic r) {
+        final int type = join(l.getTypeTag(), r.getTypeTag());
+        if (isHigher(r, l, type)) {
+            return r.gcd(l);
+        }
+
+        switch (type) {
+            case INTEGER:
+                return ((GenericInteger) l).gcd((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).gcd(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).gcd(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).gcd(toExpression(r));
+            default:
+                return r.valueOf(l).gcd(r);
+        }
+    }
+
+    public int compare(@NotNull Generic l, @NotNull Generic r) {
+        switch (join(l.getTypeTag(), r.getTypeTag())) {
+            case INTEGER:
+                return ((GenericInteger) l).compareTo((GenericInteger) r);
+            case RATIONAL:
+                return toRational(l).compareTo(toRational(r));
+            case NUMERIC:
+                return toNumeric(l).compareTo(toNumeric(r));
+            case EXPRESSION:
+                return toExpression(l).compareTo(toExpression(r));
+            default:
+                return r.valueOf(l).compareTo(r);
+        }
+    }
+
+    // true if <var>h</var> has common type of operands and <var>l</var> has lower type
+    private static boolean isHigher(@NotNull Generic h, @NotNull Generic l, int type) {
+        return type != OTHER && h.getTypeTag() == type && l.getTypeTag() != type;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           CONVERSIONS
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    private static Rational toRational(@NotNull Generic g) {
+        switch (g.getTypeTag()) {
+            case INTEGER:
+                return Rational.newInstance(((GenericInteger) g).getContent(), g.getContext());
+            case RATIONAL:
+                return (Rational) g;
+            default:
+                throw new ArithmeticException("Could not convert " + g.getClass() + " to rational");
+        }
+    }
+
+    @NotNull
+    private static GenericNumeric toNumeric(@NotNull Generic g) {
+        switch (g.getTypeTag()) {
+            case INTEGER:
+                return GenericNumeric.newInstance((GenericInteger) g);
+            case RATIONAL:
+                return GenericNumeric.newInstance((Rational) g);
+            case NUMERIC:
+                return (GenericNumeric) g;
+            default:
+                throw new ArithmeticException("Could not convert " + g.getClass() + " to numeric");
+        }
+    }
+
+    @NotNull
+    private static Expression toExpression(@NotNull Generic g) {
+        switch (g.getTypeTag()) {
+            case INTEGER:
+                return Expression.newInstance((GenericInteger) g);
+            case RATIONAL:
+                return Expression.newInstance((Rational) g);
+            case NUMERIC:
+                return Expression.newInstance((GenericNumeric) g);
+            case EXPRESSION:
+                return (Expression) g;
+            default:
+                throw new ArithmeticException("Could not convert " + g.getClass() + " to expression");
+        }
+    }
+}
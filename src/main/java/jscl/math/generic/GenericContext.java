@@ -3,9 +3,12 @@ package jscl.math.generic;
 import jscl.NumeralBase;
 import jscl.NumeralBaseException;
 import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.VariableIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * User: serso
@@ -14,9 +17,23 @@ import java.math.BigInteger;
  */
 public interface  GenericContext {
 
+    /**
+     * Formats integer in numeral base of math context, see {@link #format(BigInteger, NumeralBase)}
+     */
     @NotNull
     String format(@NotNull BigInteger intValue) throws NumeralBaseException;
 
+    /**
+     * Formats integer in the given numeral base. Style depends on the magnitude of the value:
+     * <ul>
+     * <li>values in [-2^63, 2^63) are formatted by the math context and follow its rules (e.g. grouping of digits)</li>
+     * <li>other values are formatted by {@link BigInteger#toString(int)} in upper case without any grouping: math context
+     * formats numbers through long/double and would lose digits</li>
+     * </ul>
+     * JDK formatting of big values is recursive but not fast: about 1.3-4.4 s for 1 000 000 decimal digits.
+     *
+     * @return formatted integer
+     */
     @NotNull
     String format(@NotNull BigInteger intValue, @NotNull NumeralBase numeralBase) throws NumeralBaseException;
 
@@ -30,11 +47,53 @@ public interface  GenericContext {
     GenericInteger getOne();
 
     @NotNull
-    GenericInteger newInteger(long value);
-    //public static final GenericInteger ZERO = new GenericInteger(BigInteger.valueOf(0L), context);
-    //public static final GenericInteger ONE = new GenericInteger(BigInteger.valueOf(1L), context);
+    GenericInteger getMinusOne();
 
+    /**
+     * @return integer with specified value, instances of small values are shared
+     */
+    @NotNull
+    GenericInteger newInteger(long value);
 
     @NotNull
     GenericInteger newInteger(@NotNull BigInteger value);
+
+    /**
+     * @param value digits of integer in given numeral base with optional sign
+     * @return parsed integer, strings with many digits are parsed in subquadratic time
+     * @throws NumberFormatException if <var>value</var> is not a valid integer
+     */
+    @NotNull
+    GenericInteger newInteger(@NotNull String value, @NotNull NumeralBase numeralBase) throws NumberFormatException;
+
+    /**
+     * Index is shared by all calculations of the context and only grows: variables are registered the first time a
+     * literal which contains them is packed (which any comparison, multiplication or division of literals may do) and
+     * are never removed, layouts are kept as literals packed against them refer to them.
+     * After {@link VariableIndex#MAX_VARIABLES} variables are registered literals with other variables are not packed:
+     * results stay the same but such literals are handled by slower general algorithms. Unrelated calculations with many
+     * variables should use separate contexts.
+     *
+     * @return index of variables used for packed representation of literals
+     */
+    @NotNull
+    VariableIndex getVariableIndex();
+
+    /**
+     * @return pool used for parallel computations, null if everything must be computed in the calling thread
+     */
+    @Nullable
+    ForkJoinPool getForkJoinPool();
+
+    /**
+     * @return minimum number of pairwise products of summands (product of sizes of operands) for which multiplication
+     *         of expressions is done in parallel
+     */
+    long getParallelMultiplicationThreshold();
+
+    /**
+     * @return minimum number of bits of both operands for which multiplication of integers is done by number theoretic
+     *         transform instead of {@link BigInteger#multiply(BigInteger)}
+     */
+    int getNttMultiplicationThreshold();
 }
@@ -4,9 +4,12 @@ import jscl.JsclMathContext;
 import jscl.NumeralBase;
 import jscl.NumeralBaseException;
 import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.VariableIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * User: serso
@@ -15,23 +18,90 @@ import java.math.BigInteger;
  */
 public class GenericContextImpl implements GenericContext {
 
+    // ~ 1000 x 1000 summands: smaller products are done before workers are started
+    public static final long DEFAULT_PARALLEL_MULTIPLICATION_THRESHOLD = 1L << 20;
+
+    // see IntegerMultiplicationBenchmark
+    public static final int DEFAULT_NTT_MULTIPLICATION_THRESHOLD = 1 << 20;
+
     @NotNull
     private final JsclMathContext mathContext;
 
+    @NotNull
+    private final VariableIndex variableIndex = new VariableIndex();
+
+    @NotNull
+    private final GenericIntegerCache integerCache;
+
+    @Nullable
+    private final ForkJoinPool forkJoinPool;
+
+    private final long parallelMultiplicationThreshold;
+
+    private final int nttMultiplicationThreshold;
+
     public GenericContextImpl(@NotNull JsclMathContext mathContext) {
+        this(mathContext, GenericIntegerCache.DEFAULT_LOW, GenericIntegerCache.DEFAULT_HIGH, GenericIntegerCache.DEFAULT_INTERN_CAPACITY);
+    }
+
+    /**
+     * Creates context which computes everything in the calling thread
+     *
+     * @param mathContext    math context
+     * @param low            lower bound of the range of preallocated integers
+     * @param high           upper bound of the range of preallocated integers
+     * @param internCapacity maximum number of interned big integers
+     */
+    public GenericContextImpl(@NotNull JsclMathContext mathContext, int low, int high, int internCapacity) {
+        this(mathContext, low, high, internCapacity, null, DEFAULT_PARALLEL_MULTIPLICATION_THRESHOLD, DEFAULT_NTT_MULTIPLICATION_THRESHOLD);
+    }
+
+    /**
+     * @param mathContext                     math context
+     * @param low                             lower bound of the range of preallocated integers
+     * @param high                            upper bound of the range of preallocated integers
+     * @param internCapacity                  maximum number of interned big integers
+     * @param forkJoinPool                    pool for parallel computations, null to compute in the calling thread only
+     * @param parallelMultiplicationThreshold minimum product of sizes of expressions multiplied in parallel
+     * @param nttMultiplicationThreshold      minimum number of bits of integers multiplied by number theoretic transform
+     */
+    public GenericContextImpl(@NotNull JsclMathContext mathContext,
+                              int low,
+                              int high,
+                              int internCapacity,
+                              @Nullable ForkJoinPool forkJoinPool,
+                              long parallelMultiplicationThreshold,
+                              int nttMultiplicationThreshold) {
         this.mathContext = mathContext;
+        this.integerCache = new GenericIntegerCache(low, high, internCapacity, this);
+        this.forkJoinPool = forkJoinPool;
+        this.parallelMultiplicationThreshold = parallelMultiplicationThreshold;
+        this.nttMultiplicationThreshold = nttMultiplicationThreshold;
     }
 
     @NotNull
     @Override
     public String format(@NotNull BigInteger intValue) throws NumeralBaseException {
-        return this.mathContext.format(this.mathContext.fromLong(intValue.longValue()));
+        if (fitsLong(intValue)) {
+            return this.mathContext.format(this.mathContext.fromLong(intValue.longValue()));
+        } else {
+            return intValue.toString(this.mathContext.getNumeralBase().getRadix()).toUpperCase();
+        }
     }
 
     @NotNull
     @Override
     public String format(@NotNull BigInteger intValue, @NotNull NumeralBase numeralBase) throws NumeralBaseException {
-        return this.mathContext.format(this.mathContext.fromLong(intValue.longValue()), numeralBase);
+        if (fitsLong(intValue)) {
+            return this.mathContext.format(this.mathContext.fromLong(intValue.longValue()), numeralBase);
+        } else {
+            return intValue.toString(numeralBase.getRadix()).toUpperCase();
+        }
+    }
+
+    // values which don't fit into long are formatted without math context (it would truncate them)
+    private static boolean fitsLong(@NotNull BigInteger value) {
+        return value.bitLength() < Long.SIZE;
     }
 
     @NotNull
@@ -43,24 +113,66 @@ public class GenericContextImpl implements GenericContext {
     @NotNull
     @Override
     public GenericInteger getZero() {
-        return GenericInteger.newInstance(0L, this);
+        return integerCache.getZero();
     }
 
     @NotNull
     @Override
     public GenericInteger getOne() {
-        return GenericInteger.newInstance(1L, this);
+        return integerCache.getOne();
+    }
+
+    @NotNull
+    @Override
+    public GenericInteger getMinusOne() {
+        return integerCache.getMinusOne();
     }
 
     @NotNull
     @Override
     public GenericInteger newInteger(long value) {
-        return GenericInteger.newInstance(value, this);
+        return integerCache.valueOf(value, this);
     }
 
     @NotNull
     @Override
     public GenericInteger newInteger(@NotNull BigInteger value) {
-        return GenericInteger.newInstance(value, this);
+        return integerCache.valueOf(value, this);
+    }
+
+    @NotNull
+    @Override
+    public GenericInteger newInteger(@NotNull String value, @NotNull NumeralBase numeralBase) throws NumberFormatException {
+        return newInteger(RadixConverter.instance.parse(value, numeralBase.getRadix(), this));
+    }
+
+    @NotNull
+    @Override
+    public VariableIndex getVariableIndex() {
+        return variableIndex;
+    }
+
+    @Nullable
+    @Override
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    @Override
+    public long getParallelMultiplicationThreshold() {
+        return parallelMultiplicationThreshold;
+    }
+
+    @Override
+    public int getNttMultiplicationThreshold() {
+        return nttMultiplicationThreshold;
+    }
+
+    /**
+     * @return cache of integers, its hit/miss counters show if intern table is big enough
+     */
+    @NotNull
+    public GenericIntegerCache getIntegerCache() {
+        return integerCache;
     }
 }
@@ -1,20 +1,29 @@
 package jscl.math.generic;
 
+import jscl.math.IntegerVariable;
 import jscl.math.NotDivisibleException;
 import jscl.math.NotIntegrableException;
 import jscl.math.Variable;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.literal.Literal;
 import jscl.mathml.MathML;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public final class GenericInteger extends Generic implements Numeral {
 
-    @NotNull
+    // value of integer if it fits into long (content == null)
+    private final long value;
+
+    // value of integer if it doesn't fit into long, null otherwise
+    @Nullable
     private final BigInteger content;
 
     /*
@@ -25,25 +34,35 @@ public final class GenericInteger extends Generic implements Numeral {
     **********************************************************************
     */
 
+    private GenericInteger(long value, @NotNull GenericContext context) {
+        super(context, GenericCoercion.INTEGER);
+        this.value = value;
+        this.content = null;
+    }
+
+    // NOTE: content must not fit into long, see newInstance(BigInteger, GenericContext)
     private GenericInteger(@NotNull BigInteger content, @NotNull GenericContext context) {
-        super(context);
+        super(context, GenericCoercion.INTEGER);
+        this.value = 0L;
         this.content = content;
     }
 
     @NotNull
     public static GenericInteger newInstance(long value, @NotNull GenericContext context) {
-        if (value == 0L) {
-            return new GenericInteger(BigInteger.ZERO, context);
-        } else if (value == 1L) {
-            return new GenericInteger(BigInteger.ONE, context);
-        } else {
-            return new GenericInteger(BigInteger.valueOf(value), context);
-        }
+        return new GenericInteger(value, context);
     }
 
     @NotNull
     public static GenericInteger newInstance(@NotNull BigInteger value, @NotNull GenericContext context) {
-        return new GenericInteger(value, context);
+        if (fitsLong(value)) {
+            return new GenericInteger(value.longValue(), context);
+        } else {
+            return new GenericInteger(value, context);
+        }
+    }
+
+    private static boolean fitsLong(@NotNull BigInteger value) {
+        return value.bitLength() < Long.SIZE;
     }
 
     /*
@@ -57,7 +76,21 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public BigInteger getContent() {
-        return content;
+        return content == null ? BigInteger.valueOf(value) : content;
+    }
+
+    /**
+     * @return true if integer value fits into long, see {@link #longValue()}
+     */
+    public boolean isSmall() {
+        return content == null;
+    }
+
+    /**
+     * @return value of integer, valid only if {@link #isSmall()} returns true
+     */
+    public long longValue() {
+        return content == null ? value : content.longValue();
     }
     
     /*
@@ -69,11 +102,12 @@ public final class GenericInteger extends Generic implements Numeral {
     */
 
     public boolean isZero() {
-        return this.content.compareTo(BigInteger.ZERO) == 0;
+        // big content is never zero
+        return content == null && value == 0L;
     }
 
     public boolean isOne() {
-        return this.content.compareTo(BigInteger.ONE) == 0;
+        return content == null && value == 1L;
     }
     
     /*
@@ -86,15 +120,22 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public GenericInteger add(@NotNull GenericInteger that) {
-        return new GenericInteger(content.add(that.content), context);
+        if (this.content == null && that.content == null) {
+            final long s = this.value + that.value;
+            if (!GenericUtils.addOverflows(this.value, that.value, s)) {
+                return new GenericInteger(s, context);
+            }
+            // else: overflow => use big integers
+        }
+        return newInstance(getContent().add(that.getContent()), context);
     }
 
     @NotNull
     public Generic add(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return add((GenericInteger) that);
         } else {
-            return that.valueOf(this).add(that);
+            return GenericCoercion.instance.add(this, that);
         }
     }
     
@@ -107,15 +148,22 @@ public final class GenericInteger extends Generic implements Numeral {
     */
 
     public GenericInteger subtract(GenericInteger integer) {
-        return new GenericInteger(content.subtract(integer.content), context);
+        if (this.content == null && integer.content == null) {
+            final long d = this.value - integer.value;
+            if (!GenericUtils.subtractOverflows(this.value, integer.value, d)) {
+                return new GenericInteger(d, context);
+            }
+            // else: overflow => use big integers
+        }
+        return newInstance(getContent().subtract(integer.getContent()), context);
     }
 
     @NotNull
     public Generic subtract(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return subtract((GenericInteger) that);
         } else {
-            return that.valueOf(this).subtract(that);
+            return GenericCoercion.instance.subtract(this, that);
         }
     }
     
@@ -128,17 +176,54 @@ public final class GenericInteger extends Generic implements Numeral {
     */
 
     public GenericInteger multiply(@NotNull GenericInteger that) {
-        return new GenericInteger(content.multiply(that.content), context);
+        if (this.content == null && that.content == null) {
+            final long p = this.value * that.value;
+            if (!GenericUtils.multiplyOverflows(this.value, that.value, p)) {
+                return new GenericInteger(p, context);
+            }
+            // else: overflow => use big integers
+        }
+        return newInstance(multiply(getContent(), that.getContent(), context), context);
     }
 
     @NotNull
     public Generic multiply(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return multiply((GenericInteger) that);
         } else {
-            return that.multiply(this);
+            return GenericCoercion.instance.multiply(this, that);
         }
     }
+
+    /**
+     * @return product of all <var>factors</var> computed by balanced tree of multiplications, see {@link ProductTree}
+     */
+    @NotNull
+    public static GenericInteger productAll(@NotNull GenericContext context, @NotNull List<GenericInteger> factors) {
+        return productAll(context, factors, null);
+    }
+
+    /**
+     * @param pool pool in which multiplications are done in parallel, null for the calling thread only
+     * @return product of all <var>factors</var> computed by balanced tree of multiplications, see {@link ProductTree}
+     */
+    @NotNull
+    public static GenericInteger productAll(@NotNull GenericContext context, @NotNull List<GenericInteger> factors, @Nullable ForkJoinPool pool) {
+        return PRODUCT_TREE.product(factors, context.getOne(), pool);
+    }
+
+    private static final ProductTree<GenericInteger> PRODUCT_TREE = new ProductTree<GenericInteger>() {
+        @NotNull
+        @Override
+        protected GenericInteger multiply(@NotNull GenericInteger l, @NotNull GenericInteger r) {
+            return l.multiply(r);
+        }
+
+        @Override
+        protected long size(@NotNull GenericInteger factor) {
+            return factor.content == null ? Long.SIZE - Long.numberOfLeadingZeros(Math.abs(factor.value)) : factor.content.bitLength();
+        }
+    };
     
     /*
     **********************************************************************
@@ -149,53 +234,95 @@ public final class GenericInteger extends Generic implements Numeral {
     */
 
     public GenericInteger divide(@NotNull GenericInteger that) {
-        final DivisionResult<GenericInteger> dadr = divideAndRemainder(that);
-        if (dadr.getRemainder().isZero()) {
-            return dadr.getQuotient();
+        final GenericInteger result = tryDivide(that);
+        if (result != null) {
+            return result;
         } else {
             throw new NotDivisibleException();
         }
     }
 
+    /**
+     * @return quotient or null if this integer is not divisible by <var>that</var>
+     */
+    @Nullable
+    public GenericInteger tryDivide(@NotNull GenericInteger that) {
+        if (that.isZero()) {
+            throw new NotDivisibleException();
+        }
+
+        if (this.content == null && that.content == null) {
+            // NOTE: Long.MIN_VALUE % -1 == 0 => no overflow here
+            if (this.value % that.value != 0L) {
+                return null;
+            } else if (this.value != Long.MIN_VALUE || that.value != -1L) {
+                return context.newInteger(this.value / that.value);
+            }
+        }
+
+        final BigInteger result[] = getContent().divideAndRemainder(that.getContent());
+        return result[1].signum() == 0 ? newInstance(result[0], context) : null;
+    }
+
+    @Nullable
+    @Override
+    public Generic tryDivide(@NotNull Generic that) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
+            return tryDivide((GenericInteger) that);
+        } else {
+            return GenericCoercion.instance.tryDivide(this, that);
+        }
+    }
+
     @NotNull
     public Generic divide(@NotNull Generic that) throws NotDivisibleException {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return divide((GenericInteger) that);
         } else {
-            return that.valueOf(this).divide(that);
+            return GenericCoercion.instance.divide(this, that);
         }
     }
 
     @NotNull
-    private DivisionResult<GenericInteger> divideAndRemainder(@NotNull GenericInteger that) {
-        try {
-            final BigInteger result[] = content.divideAndRemainder(that.content);
-            return DivisionResult.newInstance(new GenericInteger(result[0], context), new GenericInteger(result[1], context));
-        } catch (ArithmeticException e) {
+    public DivisionResult<GenericInteger> divideAndRemainder(@NotNull GenericInteger that) {
+        if (that.isZero()) {
             throw new NotDivisibleException();
         }
+
+        // NOTE: Long.MIN_VALUE / -1 overflows
+        if (this.content == null && that.content == null && (this.value != Long.MIN_VALUE || that.value != -1L)) {
+            return DivisionResult.newInstance(new GenericInteger(this.value / that.value, context), new GenericInteger(this.value % that.value, context));
+        } else {
+            final BigInteger result[] = getContent().divideAndRemainder(that.getContent());
+            return DivisionResult.newInstance(newInstance(result[0], context), newInstance(result[1], context));
+        }
     }
 
     @NotNull
     public DivisionResult divideAndRemainder(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return divideAndRemainder((GenericInteger) that);
         } else {
-            return that.valueOf(this).divideAndRemainder(that);
+            return GenericCoercion.instance.divideAndRemainder(this, that);
         }
     }
 
     @NotNull
     public GenericInteger remainder(@NotNull GenericInteger that) throws ArithmeticException {
-        return new GenericInteger(content.remainder(that.content), context);
+        if (this.content == null && that.content == null) {
+            // NOTE: Long.MIN_VALUE % -1 == 0 => no overflow here
+            return new GenericInteger(this.value % that.value, context);
+        } else {
+            return newInstance(getContent().remainder(that.getContent()), context);
+        }
     }
 
     @NotNull
     public Generic getRemainder(@NotNull Generic that) throws ArithmeticException {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return remainder((GenericInteger) that);
         } else {
-            return that.valueOf(this).getRemainder(that);
+            return super.getRemainder(that);
         }
     }
     
@@ -209,15 +336,29 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public GenericInteger gcd(@NotNull GenericInteger that) {
-        return new GenericInteger(content.gcd(that.content), context);
+        // NOTE: gcd might be 2^63 only if one of the operands is Long.MIN_VALUE
+        if (this.content == null && that.content == null && this.value != Long.MIN_VALUE && that.value != Long.MIN_VALUE) {
+            return new GenericInteger(gcd(Math.abs(this.value), Math.abs(that.value)), context);
+        } else {
+            return newInstance(getContent().gcd(that.getContent()), context);
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0L) {
+            final long tmp = a % b;
+            a = b;
+            b = tmp;
+        }
+        return a;
     }
 
     @NotNull
     public Generic gcd(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return gcd((GenericInteger) that);
         } else {
-            return that.valueOf(this).gcd(that);
+            return GenericCoercion.instance.gcd(this, that);
         }
     }
 
@@ -239,16 +380,98 @@ public final class GenericInteger extends Generic implements Numeral {
         if ( exponent < 0 ) {
             throw new IllegalArgumentException("Exponent must be positive");
         }
-        return new GenericInteger(content.pow(exponent), context);
+
+        if (content == null && powFits(value, exponent)) {
+            return new GenericInteger(pow(value, exponent), context);
+        }
+        // else: result might not fit into long => use big integers
+        return newInstance(pow(getContent(), exponent, context), context);
+    }
+
+    /**
+     * @return l * r, operands longer than {@link GenericContext#getNttMultiplicationThreshold()} bits are multiplied
+     *         by number theoretic transform (see {@link NttMultiplicator})
+     */
+    @NotNull
+    public static BigInteger multiply(@NotNull BigInteger l, @NotNull BigInteger r, @NotNull GenericContext context) {
+        final int lBits = l.bitLength();
+        final int rBits = r.bitLength();
+        if (Math.min(lBits, rBits) >= context.getNttMultiplicationThreshold() && NttMultiplicator.instance.isApplicable(lBits, rBits)) {
+            return NttMultiplicator.instance.multiply(l, r);
+        } else {
+            return l.multiply(r);
+        }
+    }
+
+    /**
+     * Left-to-right binary exponentiation: squares of big intermediate results are computed by
+     * {@link #multiply(BigInteger, BigInteger, GenericContext)}
+     */
+    @NotNull
+    private static BigInteger pow(@NotNull BigInteger base, int exponent, @NotNull GenericContext context) {
+        if ((long) base.bitLength() * exponent < 2L * context.getNttMultiplicationThreshold()) {
+            // no square is big enough
+            return base.pow(exponent);
+        }
+
+        final int shift = base.getLowestSetBit();
+        if (shift > 0) {
+            // powers of two are shifts
+            return pow(base.shiftRight(shift), exponent, context).shiftLeft(shift * exponent);
+        }
+
+        BigInteger result = base;
+        for (int bit = Integer.highestOneBit(exponent) >>> 1; bit > 0; bit >>>= 1) {
+            GenericUtils.checkInterruption();
+
+            result = multiply(result, result, context);
+            if ((exponent & bit) != 0) {
+                result = multiply(result, base, context);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if |base|^exponent < 2^63 is guaranteed (|base| < 2^bits => |base|^exponent < 2^(bits * exponent)),
+     * borderline cases are left to big integers
+     */
+    private static boolean powFits(long base, int exponent) {
+        final int bits = Long.SIZE - Long.numberOfLeadingZeros(Math.abs(base));
+        return (long) bits * exponent < Long.SIZE;
+    }
+
+    /**
+     * @return base^exponent, must not overflow (see {@link #powFits(long, int)})
+     */
+    private static long pow(long base, int exponent) {
+        long result = 1L;
+
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+
+            exponent >>= 1;
+            if (exponent > 0) {
+                base *= base;
+            }
+        }
+
+        return result;
     }
 
     @NotNull
     public GenericInteger negate() {
-        return new GenericInteger(content.negate(), context);
+        if (content == null && value != Long.MIN_VALUE) {
+            return new GenericInteger(-value, context);
+        }
+        // else: -Long.MIN_VALUE doesn't fit into long => use big integers
+        return newInstance(getContent().negate(), context);
     }
 
     public int signum() {
-        return content.signum();
+        return content == null ? Long.signum(value) : content.signum();
     }
 
 /*    public GenericInteger mod(GenericInteger integer) {
@@ -263,42 +486,78 @@ public final class GenericInteger extends Generic implements Numeral {
         return new GenericInteger(content.modInverse(integer.content), context);
     }*/
 
-/*    public GenericInteger phi() {
-        if (signum() == 0) return this;
-        Generic a = factorize();
-        Generic p[] = a.productValue();
-        Generic s = GenericInteger.newInstance(1);
-        for (int i = 0; i < p.length; i++) {
-            Power o = p[i].powerValue();
-            Generic q = o.value(true);
-            int c = o.exponent();
-            s = s.multiply(q.subtract(GenericInteger.newInstance(1)).multiply(q.pow(c - 1)));
-        }
-        return s.integerValue();
-    }
-
-    public GenericInteger[] primitiveRoots() {
-        GenericInteger phi = phi();
-        Generic a = phi.factorize();
-        Generic p[] = a.productValue();
-        GenericInteger d[] = new GenericInteger[p.length];
-        for (int i = 0; i < p.length; i++) {
-            d[i] = phi.divide(p[i].powerValue().value(true).integerValue());
-        }
-        int k = 0;
-        GenericInteger n = this;
-        GenericInteger m = GenericInteger.newInstance(1);
-        GenericInteger r[] = new GenericInteger[phi.phi().intValue()];
-        while (m.compareTo(n) < 0) {
-            boolean b = m.gcd(n).compareTo(GenericInteger.newInstance(1)) == 0;
-            for (int i = 0; i < d.length; i++) {
-                b = b && m.modPow(d[i], n).compareTo(GenericInteger.newInstance(1)) > 0;
+    /**
+     * @return true if integer is prime (negative integers are not), answer is exact for integers less than 2^64
+     * (see {@link PrimalityTest})
+     */
+    public boolean isPrime() {
+        if (content == null) {
+            return isPrime(value);
+        } else {
+            return PrimalityTest.instance.isPrime(content);
+        }
+    }
+
+    public static boolean isPrime(long value) {
+        return value > 1L && PrimalityTest.instance.isPrime(value);
+    }
+
+    /**
+     * @return Euler's totient function: number of positive integers not greater than |n| which are coprime with n
+     */
+    @NotNull
+    public GenericInteger phi() {
+        if (signum() == 0) {
+            return this;
+        }
+
+        final IntegerFactorization f = factorization();
+
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < f.getSize(); i++) {
+            final BigInteger p = f.getPrime(i);
+            result = result.multiply(p.subtract(BigInteger.ONE)).multiply(p.pow(f.getExponent(i) - 1));
+        }
+        return newInstance(result, context);
+    }
+
+    /**
+     * NOTE: all integers less than n are checked => method is applicable only to small integers
+     *
+     * @return all primitive roots modulo n in ascending order
+     */
+    @NotNull
+    public List<GenericInteger> primitiveRoots() {
+        final BigInteger n = getContent();
+        final GenericInteger phi = phi();
+
+        // m is a primitive root iff m^(phi / p) != 1 for each prime factor p of phi
+        final IntegerFactorization f = phi.factorization();
+        final BigInteger[] d = new BigInteger[f.getSize()];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = phi.getContent().divide(f.getPrime(i));
+        }
+
+        final List<GenericInteger> result = new ArrayList<GenericInteger>();
+        for (BigInteger m = BigInteger.ONE; m.compareTo(n) < 0; m = m.add(BigInteger.ONE)) {
+            GenericUtils.checkInterruption();
+
+            boolean root = m.gcd(n).equals(BigInteger.ONE);
+            for (int i = 0; i < d.length && root; i++) {
+                root = !m.modPow(d[i], n).equals(BigInteger.ONE);
+            }
+
+            if (root) {
+                result.add(newInstance(m, context));
             }
-            if (b) r[k++] = m;
-            m = m.add(GenericInteger.newInstance(1));
         }
-        return k > 0 ? r : new GenericInteger[0];
-    }*/
+        return result;
+    }
+
+    @NotNull
+    private IntegerFactorization factorization() {
+        return IntegerFactorizer.instance.factorize(getContent(), context.getForkJoinPool());
+    }
 
     public GenericInteger sqrt() {
         return nthrt(2);
@@ -307,7 +566,7 @@ public final class GenericInteger extends Generic implements Numeral {
     public GenericInteger nthrt(int n) {
 //      return JsclInteger.valueOf((int)Math.pow((double)intValue(),1./n));
         if (signum() == 0) {
-            return GenericInteger.newInstance(0, this.context);
+            return context.getZero();
         } else if (signum() < 0) {
             if (n % 2 == 0) {
                 throw new ArithmeticException("Could not calculate root of negative argument: " + this + " of odd order: " + n);
@@ -332,7 +591,7 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public Generic derivative(@NotNull Variable variable) {
-        return GenericInteger.newInstance(0, this.context);
+        return context.getZero();
     }
 
     @NotNull
@@ -347,8 +606,20 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public Generic factorize() {
-        throw new UnsupportedOperationException();
-        //return Factorization.compute(this);
+        final IntegerFactorization f = factorization();
+        if (f.getSize() == 0) {
+            // 0 or +-1
+            return this;
+        }
+
+        final Literal.Builder literal = new Literal.Builder(f.getSize());
+        for (int i = 0; i < f.getSize(); i++) {
+            literal.addProductand(new IntegerVariable(newInstance(f.getPrime(i), context)), f.getExponent(i));
+        }
+
+        final Expression.Builder result = new Expression.Builder(context, 1);
+        result.addSummand(f.getSignum(), literal.build());
+        return result.build();
     }
 
     @NotNull
@@ -368,7 +639,12 @@ public final class GenericInteger extends Generic implements Numeral {
 
     @NotNull
     public Generic valueOf(@NotNull Generic generic) {
-        return new GenericInteger(((GenericInteger) generic).content, context);
+        final GenericInteger that = (GenericInteger) generic;
+        if (that.content == null) {
+            return new GenericInteger(that.value, context);
+        } else {
+            return new GenericInteger(that.content, context);
+        }
     }
 
     @NotNull
@@ -403,14 +679,26 @@ public final class GenericInteger extends Generic implements Numeral {
         return this;
     }
 
-/*    @Override
+    @NotNull
+    @Override
+    public GenericInteger tryIntegerValue() {
+        return this;
+    }
+
+    @Override
     public boolean isInteger() {
         return true;
-    }*/
+    }
+
+    @Nullable
+    @Override
+    public Variable tryVariableValue() {
+        return null;
+    }
 
     @NotNull
     public Variable variableValue() throws NotVariableException {
-        throw new NotVariableException();
+        throw NotVariableException.instance;
     }
 
     @NotNull
@@ -427,27 +715,36 @@ public final class GenericInteger extends Generic implements Numeral {
     }
 
     public int intValue() {
-        return content.intValue();
+        return content == null ? (int) value : content.intValue();
     }
 
     public int compareTo(@NotNull GenericInteger that) {
-        return content.compareTo(that.content);
+        if (this.content == null && that.content == null) {
+            return this.value < that.value ? -1 : (this.value == that.value ? 0 : 1);
+        } else {
+            return getContent().compareTo(that.getContent());
+        }
     }
 
     public int compareTo(@NotNull Generic that) {
-        if (that instanceof GenericInteger) {
+        if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return compareTo((GenericInteger) that);
         } else {
-            return that.valueOf(this).compareTo(that);
+            return GenericCoercion.instance.compare(this, that);
         }
     }
 
     public String toString() {
-        return context.format(this.content);
+        return context.format(getContent());
     }
 
     public String toJava() {
-        return "JsclDouble.valueOf(" + content + ")";
+        return "JsclDouble.valueOf(" + contentToString() + ")";
+    }
+
+    @NotNull
+    private String contentToString() {
+        return content == null ? String.valueOf(value) : content.toString();
     }
 
     public void toMathML(MathML element, @Nullable Object data) {
@@ -471,7 +768,7 @@ public final class GenericInteger extends Generic implements Numeral {
 
     void bodyToMathML(MathML element) {
         MathML e1 = element.newElement("mn");
-        e1.appendChild(element.newText(String.valueOf(content)));
+        e1.appendChild(element.newText(contentToString()));
         element.appendChild(e1);
     }
 }
@@ -0,0 +1,145 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonical instances of integers of one context:
+ * <ul>
+ * <li>integers from the range [<var>low</var>, <var>high</var>] (including 0, 1 and -1) are preallocated</li>
+ * <li>integers which don't fit into long are interned in the bounded direct-mapped table: each value has exactly one
+ * slot (chosen by hash code), new value replaces old one in case of collision. Table is never locked, concurrent
+ * writers may overwrite each other's entries which only costs one more miss</li>
+ * </ul>
+ * Numbers of hits and misses of the intern table are counted in order to choose its capacity.
+ */
+public final class GenericIntegerCache {
+
+    public static final int DEFAULT_LOW = -128;
+
+    public static final int DEFAULT_HIGH = 1024;
+
+    public static final int DEFAULT_INTERN_CAPACITY = 256;
+
+    private final int low;
+
+    private final int high;
+
+    @NotNull
+    private final GenericInteger[] small;
+
+    // capacity is power of 2 => slot = hash & mask
+    private final int mask;
+
+    @NotNull
+    private final AtomicReferenceArray<GenericInteger> interned;
+
+    @NotNull
+    private final LongAdder hits = new LongAdder();
+
+    @NotNull
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param low            lower bound of the preallocated range, must be not greater than -1
+     * @param high           upper bound of the preallocated range, must be not less than 1
+     * @param internCapacity maximum number of interned big integers, rounded up to power of 2, 0 turns interning off
+     * @param context        context of the integers
+     */
+    public GenericIntegerCache(int low, int high, int internCapacity, @NotNull GenericContext context) {
+        if (low > -1 || high < 1) {
+            throw new IllegalArgumentException("Range [" + low + ", " + high + "] must contain -1, 0 and 1");
+        }
+        if (internCapacity < 0 || internCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Intern capacity is out of range: " + internCapacity);
+        }
+
+        this.low = low;
+        this.high = high;
+
+        this.small = new GenericInteger[high - low + 1];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = GenericInteger.newInstance((long) (low + i), context);
+        }
+
+        int capacity = Integer.highestOneBit(internCapacity);
+        if (capacity < internCapacity) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.interned = new AtomicReferenceArray<GenericInteger>(capacity);
+    }
+
+    @NotNull
+    public GenericInteger getZero() {
+        return small[-low];
+    }
+
+    @NotNull
+    public GenericInteger getOne() {
+        return small[1 - low];
+    }
+
+    @NotNull
+    public GenericInteger getMinusOne() {
+        return small[-1 - low];
+    }
+
+    /**
+     * @return canonical instance if <var>value</var> is in the preallocated range, new instance otherwise
+     */
+    @NotNull
+    public GenericInteger valueOf(long value, @NotNull GenericContext context) {
+        if (value >= low && value <= high) {
+            return small[(int) value - low];
+        } else {
+            return GenericInteger.newInstance(value, context);
+        }
+    }
+
+    /**
+     * @return canonical instance if <var>value</var> is in the preallocated range, interned instance if
+     *         <var>value</var> doesn't fit into long and new instance otherwise
+     */
+    @NotNull
+    public GenericInteger valueOf(@NotNull BigInteger value, @NotNull GenericContext context) {
+        if (value.bitLength() < Long.SIZE) {
+            return valueOf(value.longValue(), context);
+        } else if (mask < 0) {
+            return GenericInteger.newInstance(value, context);
+        } else {
+            final int slot = spread(value.hashCode()) & mask;
+
+            final GenericInteger cached = interned.get(slot);
+            if (cached != null && value.equals(cached.getContent())) {
+                hits.increment();
+                return cached;
+            } else {
+                misses.increment();
+                final GenericInteger result = GenericInteger.newInstance(value, context);
+                interned.set(slot, result);
+                return result;
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        // hash of big integer mixes low bits poorly for values which differ only in high words
+        return h ^ (h >>> 16);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getInternCapacity() {
+        return interned.length();
+    }
+}
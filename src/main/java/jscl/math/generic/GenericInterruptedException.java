@@ -0,0 +1,15 @@
+package jscl.math.generic;
+
+/**
+ * Thrown from long running operations if the calculating thread has been interrupted
+ *
+ * @see GenericUtils#checkInterruption()
+ */
+public class GenericInterruptedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GenericInterruptedException() {
+        super("Calculation has been interrupted!");
+    }
+}
@@ -18,7 +18,7 @@ import java.util.List;
 public class GenericNumeric extends Generic{
 
     public GenericNumeric(@NotNull GenericContext context) {
-        super(context);
+        super(context, GenericCoercion.NUMERIC);
     }
 
     @NotNull
@@ -0,0 +1,113 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Common helpers for generic arithmetic
+ */
+public final class GenericUtils {
+
+    private GenericUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Must be called periodically from long loops (e.g. powering) in order to stop calculation if the thread
+     * has been interrupted. Interruption flag is left set.
+     *
+     * @throws GenericInterruptedException if current thread has been interrupted
+     */
+    public static void checkInterruption() throws GenericInterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new GenericInterruptedException();
+        }
+    }
+
+    /**
+     * Must be called periodically from tasks started by {@link #invoke(ForkJoinPool, ForkJoinTask, AtomicBoolean)}:
+     * workers are not interrupted when the calling thread is, they are stopped by the flag instead.
+     *
+     * @throws GenericInterruptedException if <var>cancelled</var> is set
+     */
+    public static void checkCancellation(@NotNull AtomicBoolean cancelled) throws GenericInterruptedException {
+        if (cancelled.get()) {
+            throw new GenericInterruptedException();
+        }
+    }
+
+    /**
+     * Same as {@link ForkJoinPool#invoke(ForkJoinTask)} but the calling thread can be interrupted while waiting:
+     * in that case <var>cancelled</var> is set (so the task and its subtasks stop, see
+     * {@link #checkCancellation(AtomicBoolean)}) and {@link GenericInterruptedException} is thrown.
+     */
+    public static <T> T invoke(@NotNull ForkJoinPool pool, @NotNull ForkJoinTask<T> task, @NotNull AtomicBoolean cancelled) throws GenericInterruptedException {
+        checkInterruption();
+
+        if (ForkJoinTask.inForkJoinPool()) {
+            // worker helps to compute the task while waiting, workers are not interrupted by callers
+            return pool.invoke(task);
+        }
+
+        pool.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new GenericInterruptedException();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           OVERFLOW
+    *
+    **********************************************************************
+    */
+
+    // overflow checks don't throw: exceptions of Math.*Exact are too expensive on hot paths where overflow is expected
+
+    /**
+     * @return true if <var>s</var> = <var>a</var> + <var>b</var> has overflowed
+     */
+    public static boolean addOverflows(long a, long b, long s) {
+        // result has sign different from signs of both operands
+        return ((a ^ s) & (b ^ s)) < 0;
+    }
+
+    /**
+     * @return true if <var>d</var> = <var>a</var> - <var>b</var> has overflowed
+     */
+    public static boolean subtractOverflows(long a, long b, long d) {
+        // operands have different signs and result has sign different from sign of the minuend
+        return ((a ^ b) & (a ^ d)) < 0;
+    }
+
+    /**
+     * @return true if <var>p</var> = <var>a</var> * <var>b</var> has overflowed (same check as in
+     * {@link Math#multiplyExact(long, long)})
+     */
+    public static boolean multiplyOverflows(long a, long b, long p) {
+        if (((Math.abs(a) | Math.abs(b)) >>> 31) != 0) {
+            return (b != 0 && p / b != a) || (a == Long.MIN_VALUE && b == -1L);
+        } else {
+            return false;
+        }
+    }
+}
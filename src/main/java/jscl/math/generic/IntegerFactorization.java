@@ -0,0 +1,52 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Factorization of integer: signum * p[0]^e[0] * p[1]^e[1] * ... where primes are in ascending order.
+ * Factorizations of 0 and +-1 have no primes.
+ */
+final class IntegerFactorization {
+
+    private final int signum;
+
+    @NotNull
+    private final BigInteger[] primes;
+
+    @NotNull
+    private final int[] exponents;
+
+    IntegerFactorization(int signum, @NotNull SortedMap<BigInteger, Integer> factors) {
+        this.signum = signum;
+        this.primes = new BigInteger[factors.size()];
+        this.exponents = new int[factors.size()];
+
+        int i = 0;
+        for (Map.Entry<BigInteger, Integer> factor : factors.entrySet()) {
+            primes[i] = factor.getKey();
+            exponents[i] = factor.getValue();
+            i++;
+        }
+    }
+
+    public int getSignum() {
+        return signum;
+    }
+
+    public int getSize() {
+        return primes.length;
+    }
+
+    @NotNull
+    public BigInteger getPrime(int i) {
+        return primes[i];
+    }
+
+    public int getExponent(int i) {
+        return exponents[i];
+    }
+}
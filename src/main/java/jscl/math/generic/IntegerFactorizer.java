@@ -0,0 +1,317 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Layered factorization of integers, each layer is tuned for bigger factors than the previous one:
+ * <ol>
+ * <li>trial division by primes from {@link PrimeTable} (factors less than 2^16)</li>
+ * <li>Pollard's rho with Brent's cycle detection: unlimited for numbers which fit into long (factors less than 2^32),
+ * limited number of iterations for bigger numbers</li>
+ * <li>Lenstra's elliptic curve method, see {@link EllipticCurveMethod}</li>
+ * </ol>
+ * Each composite number is checked to be a perfect power before splitting as neither rho nor elliptic curves
+ * handle powers of primes well.
+ */
+enum IntegerFactorizer {
+
+    instance;
+
+    // numbers without factors less than PrimeTable.LIMIT which are less than PRIME_LIMIT are primes
+    private static final BigInteger PRIME_LIMIT = BigInteger.valueOf((long) PrimeTable.LIMIT * PrimeTable.LIMIT);
+
+    // numbers of bits of all prime factors after trial division
+    private static final int MIN_FACTOR_BITS = Integer.numberOfTrailingZeros(PrimeTable.LIMIT);
+
+    // for numbers which don't fit into long rho is limited as its cost grows as square root of the factor
+    private static final int MAX_RHO_ITERATIONS = 1 << 16;
+
+    // gcd is computed once per RHO_BATCH iterations
+    private static final int RHO_BATCH = 128;
+
+    @NotNull
+    public IntegerFactorization factorize(@NotNull BigInteger value, @Nullable ForkJoinPool pool) {
+        final SortedMap<BigInteger, Integer> factors = new TreeMap<BigInteger, Integer>();
+        if (value.signum() == 0) {
+            return new IntegerFactorization(0, factors);
+        }
+
+        final BigInteger n = trialDivision(value.abs(), factors);
+        if (n.compareTo(BigInteger.ONE) > 0) {
+            factorize(n, 1, factors, pool);
+        }
+
+        return new IntegerFactorization(value.signum(), factors);
+    }
+
+    private static void factorize(@NotNull BigInteger n, int multiplicity, @NotNull SortedMap<BigInteger, Integer> factors, @Nullable ForkJoinPool pool) {
+        GenericUtils.checkInterruption();
+
+        if (n.compareTo(PRIME_LIMIT) < 0 || PrimalityTest.instance.isPrime(n)) {
+            addFactor(factors, n, multiplicity);
+            return;
+        }
+
+        // all factors have at least MIN_FACTOR_BITS bits => exponent is limited
+        for (int k = 2; k * MIN_FACTOR_BITS <= n.bitLength(); k++) {
+            final BigInteger root = root(n, k);
+            if (root.pow(k).equals(n)) {
+                factorize(root, multiplicity * k, factors, pool);
+                return;
+            }
+        }
+
+        final BigInteger d = findFactor(n, pool);
+        factorize(d, multiplicity, factors, pool);
+        factorize(n.divide(d), multiplicity, factors, pool);
+    }
+
+    /**
+     * @param n odd composite number which is not a perfect power
+     * @return non trivial factor of <var>n</var>
+     */
+    @NotNull
+    private static BigInteger findFactor(@NotNull BigInteger n, @Nullable ForkJoinPool pool) {
+        if (n.bitLength() < Long.SIZE - 1) {
+            final long m = n.longValue();
+            for (long c = 1; ; c++) {
+                final long d = rho(m, c);
+                if (d != m) {
+                    return BigInteger.valueOf(d);
+                }
+            }
+        }
+
+        final BigInteger d = rho(n, 1L);
+        if (d != null) {
+            return d;
+        }
+
+        return EllipticCurveMethod.instance.findFactor(n, pool);
+    }
+
+    private static void addFactor(@NotNull SortedMap<BigInteger, Integer> factors, @NotNull BigInteger prime, int exponent) {
+        final Integer e = factors.get(prime);
+        factors.put(prime, e == null ? exponent : e + exponent);
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           TRIAL DIVISION
+    *
+    **********************************************************************
+    */
+
+    /**
+     * Removes factors less than {@link PrimeTable#LIMIT} from <var>n</var>
+     *
+     * @return <var>n</var> without small factors
+     */
+    @NotNull
+    private static BigInteger trialDivision(@NotNull BigInteger n, @NotNull SortedMap<BigInteger, Integer> factors) {
+        final int[] primes = PrimeTable.PRIMES;
+
+        int i = 0;
+        while (i < primes.length && n.bitLength() >= Long.SIZE) {
+            // one division of big integer by product of several primes instead of division by each of them
+            long product = 1L;
+            int j = i;
+            while (j < primes.length && product <= Long.MAX_VALUE / primes[j]) {
+                product *= primes[j++];
+            }
+
+            final long remainder = n.mod(BigInteger.valueOf(product)).longValue();
+            for (; i < j; i++) {
+                final long p = primes[i];
+                if (remainder % p == 0) {
+                    final BigInteger prime = BigInteger.valueOf(p);
+                    int exponent = 0;
+                    BigInteger[] qr = n.divideAndRemainder(prime);
+                    while (qr[1].signum() == 0) {
+                        n = qr[0];
+                        exponent++;
+                        qr = n.divideAndRemainder(prime);
+                    }
+                    addFactor(factors, prime, exponent);
+                }
+            }
+        }
+
+        if (n.bitLength() >= Long.SIZE) {
+            return n;
+        }
+
+        long m = n.longValue();
+        for (; i < primes.length; i++) {
+            final long p = primes[i];
+            if (p * p > m) {
+                // m has no factors less than p => m is 1 or prime
+                break;
+            }
+
+            if (m % p == 0) {
+                int exponent = 0;
+                do {
+                    m /= p;
+                    exponent++;
+                } while (m % p == 0);
+                addFactor(factors, BigInteger.valueOf(p), exponent);
+            }
+        }
+        return BigInteger.valueOf(m);
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           POLLARD'S RHO
+    *
+    **********************************************************************
+    */
+
+    /**
+     * Pollard's rho with Brent's cycle detection for sequence x -> x^2 + c mod n, differences are accumulated
+     * into product modulo n and gcd is computed once per {@link #RHO_BATCH} iterations
+     *
+     * @param n odd composite number
+     * @return factor of <var>n</var>, <var>n</var> if sequence has failed (another <var>c</var> should be tried)
+     */
+    private static long rho(long n, long c) {
+        final Montgomery64 m = new Montgomery64(n);
+        c = m.toMontgomery(c % n);
+
+        long y = m.toMontgomery(2L % n);
+        long x = y;
+        long ys = y;
+        long q = m.one;
+        long g = 1L;
+
+        for (long r = 1L; g == 1L; r <<= 1) {
+            x = y;
+            for (long i = 0; i < r; i++) {
+                y = m.add(m.multiply(y, y), c);
+            }
+
+            for (long k = 0; k < r && g == 1L; k += RHO_BATCH) {
+                ys = y;
+                for (long i = Math.min(RHO_BATCH, r - k); i > 0; i--) {
+                    y = m.add(m.multiply(y, y), c);
+                    q = m.multiply(q, m.subtract(x, y));
+                }
+                g = gcd(q, n);
+            }
+
+            GenericUtils.checkInterruption();
+        }
+
+        if (g == n) {
+            // product has absorbed all factors => repeat last batch one by one
+            do {
+                ys = m.add(m.multiply(ys, ys), c);
+                g = gcd(m.subtract(x, ys), n);
+            } while (g == 1L);
+        }
+
+        return g;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0L) {
+            final long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Same as {@link #rho(long, long)} but with limited number of iterations
+     *
+     * @return non trivial factor of <var>n</var> or null if it has not been found
+     */
+    @Nullable
+    private static BigInteger rho(@NotNull BigInteger n, long c) {
+        final MontgomeryLimbs m = new MontgomeryLimbs(n);
+        final int[] cm = m.toMontgomery(BigInteger.valueOf(c));
+
+        final int[] y = m.toMontgomery(BigInteger.valueOf(2L));
+        final int[] x = m.newNumber();
+        final int[] ys = m.newNumber();
+        final int[] q = m.toMontgomery(BigInteger.ONE);
+        final int[] t = m.newNumber();
+
+        BigInteger g = BigInteger.ONE;
+        int iterations = 0;
+        for (int r = 1; g.equals(BigInteger.ONE); r <<= 1) {
+            if (iterations > MAX_RHO_ITERATIONS) {
+                return null;
+            }
+
+            m.copy(y, x);
+            for (int i = 0; i < r; i++) {
+                m.square(y, y);
+                m.add(y, cm, y);
+            }
+
+            for (int k = 0; k < r && g.equals(BigInteger.ONE); k += RHO_BATCH) {
+                m.copy(y, ys);
+                for (int i = Math.min(RHO_BATCH, r - k); i > 0; i--) {
+                    m.square(y, y);
+                    m.add(y, cm, y);
+                    m.subtract(x, y, t);
+                    m.multiply(q, t, q);
+                }
+                g = m.gcd(q);
+            }
+            iterations += 2 * r;
+
+            GenericUtils.checkInterruption();
+        }
+
+        if (g.equals(n)) {
+            // product has absorbed all factors => repeat last batch one by one
+            do {
+                m.square(ys, ys);
+                m.add(ys, cm, ys);
+                m.subtract(x, ys, t);
+                g = m.gcd(t);
+            } while (g.equals(BigInteger.ONE));
+        }
+
+        return g.equals(n) ? null : g;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           ROOTS
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return floor of <var>k</var>-th root of positive <var>n</var>
+     */
+    @NotNull
+    static BigInteger root(@NotNull BigInteger n, int k) {
+        // Newton's iteration decreases monotonically if started above the root
+        BigInteger x = BigInteger.ONE.shiftLeft((n.bitLength() + k - 1) / k);
+
+        final BigInteger kk = BigInteger.valueOf(k);
+        final BigInteger k1 = BigInteger.valueOf(k - 1);
+        while (true) {
+            final BigInteger y = k1.multiply(x).add(n.divide(x.pow(k - 1))).divide(kk);
+            if (y.compareTo(x) >= 0) {
+                return x;
+            }
+            x = y;
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package jscl.math.generic;
 
 /**
+ * Exceptions of this type signal that value of one type cannot be converted to another. They carry no message, no
+ * stack trace and are thrown as shared instances: use probe methods (e.g. {@link Generic#tryIntegerValue()}) if
+ * conversion may fail on hot path.
+ * <p/>
  * User: serso
  * Date: 3/3/12
  * Time: 4:04 PM
  */
 abstract class InternalGenericException extends ArithmeticException {
 
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
@@ -0,0 +1,114 @@
+package jscl.math.generic;
+
+/**
+ * Montgomery arithmetic modulo odd 64-bit modulus (treated as unsigned): residue x is represented by x * 2^64 mod n =>
+ * multiplication needs two 64x64 multiplications and no division.
+ */
+final class Montgomery64 {
+
+    // odd, unsigned
+    final long modulus;
+
+    // modulus^-1 mod 2^64
+    private final long inverse;
+
+    // 2^128 mod modulus
+    private final long r2;
+
+    // 1 in Montgomery form: 2^64 mod modulus
+    final long one;
+
+    Montgomery64(long modulus) {
+        assert (modulus & 1L) == 1L;
+
+        this.modulus = modulus;
+
+        // Newton iteration doubles number of correct lower bits: modulus * modulus = 1 mod 8
+        long inverse = modulus;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2L - modulus * inverse;
+        }
+        this.inverse = inverse;
+
+        this.one = Long.remainderUnsigned(-modulus, modulus);
+
+        long r2 = one;
+        for (int i = 0; i < Long.SIZE; i++) {
+            r2 = add(r2, r2);
+        }
+        this.r2 = r2;
+    }
+
+    /**
+     * @param x unsigned value less than modulus
+     */
+    long toMontgomery(long x) {
+        return multiply(x, r2);
+    }
+
+    long fromMontgomery(long x) {
+        return reduce(0L, x);
+    }
+
+    long multiply(long a, long b) {
+        return reduce(unsignedMultiplyHigh(a, b), a * b);
+    }
+
+    long add(long a, long b) {
+        final long s = a + b;
+        // s overflows 2^64 or is not less than modulus
+        if (Long.compareUnsigned(s, a) < 0 || Long.compareUnsigned(s, modulus) >= 0) {
+            return s - modulus;
+        } else {
+            return s;
+        }
+    }
+
+    long subtract(long a, long b) {
+        final long d = a - b;
+        return Long.compareUnsigned(a, b) < 0 ? d + modulus : d;
+    }
+
+    /**
+     * @param base base in Montgomery form
+     * @return base^exponent in Montgomery form (exponent is unsigned)
+     */
+    long pow(long base, long exponent) {
+        long result = one;
+        while (exponent != 0L) {
+            if ((exponent & 1L) != 0L) {
+                result = multiply(result, base);
+            }
+            base = multiply(base, base);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return (high * 2^64 + low) * 2^-64 mod modulus, high must be less than modulus
+     */
+    private long reduce(long high, long low) {
+        // low - m * modulus = 0 mod 2^64 => no borrow from lower word
+        final long m = low * inverse;
+        final long mh = unsignedMultiplyHigh(m, modulus);
+        final long result = high - mh;
+        return Long.compareUnsigned(high, mh) < 0 ? result + modulus : result;
+    }
+
+    /**
+     * @return upper 64 bits of unsigned 128-bit product
+     */
+    static long unsignedMultiplyHigh(long x, long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+
+        final long w0 = x0 * y0;
+        final long t = x1 * y0 + (w0 >>> 32);
+        final long w1 = (t & 0xFFFFFFFFL) + x0 * y1;
+
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+}
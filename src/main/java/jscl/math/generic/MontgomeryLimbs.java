@@ -0,0 +1,256 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Montgomery arithmetic modulo odd big integer: numbers are little-endian arrays of 32-bit limbs of fixed length,
+ * residue x is represented by x * 2^(32 * length) mod n. Unlike {@link BigInteger} arithmetic operations don't allocate
+ * memory and don't divide => it's much faster for moduli of few limbs (e.g. in elliptic curve method).
+ * <p/>
+ * Instances have scratch buffers => are not thread safe.
+ */
+final class MontgomeryLimbs {
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    @NotNull
+    private final BigInteger modulus;
+
+    private final int length;
+
+    @NotNull
+    private final int[] n;
+
+    // -n^-1 mod 2^32
+    private final long inverse;
+
+    // product accumulator, see multiply(int[], int[], int[])
+    @NotNull
+    private final long[] t;
+
+    MontgomeryLimbs(@NotNull BigInteger modulus) {
+        assert modulus.signum() > 0 && modulus.testBit(0);
+
+        this.modulus = modulus;
+        this.length = (modulus.bitLength() + Integer.SIZE - 1) / Integer.SIZE;
+        this.n = toLimbs(modulus, length);
+
+        // Newton iteration doubles number of correct lower bits: n * n = 1 mod 8
+        final long n0 = n[0] & MASK;
+        long inverse = n0;
+        for (int i = 0; i < 4; i++) {
+            inverse = inverse * (2L - n0 * inverse) & MASK;
+        }
+        this.inverse = -inverse & MASK;
+
+        this.t = new long[length + 2];
+    }
+
+    @NotNull
+    BigInteger getModulus() {
+        return modulus;
+    }
+
+    @NotNull
+    int[] newNumber() {
+        return new int[length];
+    }
+
+    /**
+     * @return <var>x</var> in Montgomery form
+     */
+    @NotNull
+    int[] toMontgomery(@NotNull BigInteger x) {
+        return toLimbs(x.shiftLeft(Integer.SIZE * length).mod(modulus), length);
+    }
+
+    /**
+     * @return value of <var>x</var> given in Montgomery form
+     */
+    @NotNull
+    BigInteger toBigInteger(@NotNull int[] x) {
+        final int[] one = newNumber();
+        one[0] = 1;
+
+        final int[] result = newNumber();
+        multiply(x, one, result);
+        return fromLimbs(result);
+    }
+
+    /**
+     * @return gcd of value of <var>x</var> (given in Montgomery form) and modulus
+     */
+    @NotNull
+    BigInteger gcd(@NotNull int[] x) {
+        // 2^(32 * length) and n are coprime => Montgomery form can be used directly
+        return fromLimbs(x).gcd(modulus);
+    }
+
+    /**
+     * @return x^-1 in Montgomery form
+     * @throws ArithmeticException if <var>x</var> is not coprime with modulus
+     */
+    @NotNull
+    int[] inverse(@NotNull int[] x) {
+        return toMontgomery(toBigInteger(x).modInverse(modulus));
+    }
+
+    void copy(@NotNull int[] x, @NotNull int[] result) {
+        System.arraycopy(x, 0, result, 0, length);
+    }
+
+    /**
+     * Sets <var>result</var> to a * b, <var>result</var> might be the same array as one of the operands
+     */
+    void multiply(@NotNull int[] a, @NotNull int[] b, @NotNull int[] result) {
+        final long[] t = this.t;
+        final int[] n = this.n;
+        final int length = this.length;
+
+        for (int i = 0; i < t.length; i++) {
+            t[i] = 0L;
+        }
+
+        // coarsely integrated operand scanning: t = (t + a[i] * b + m * n) / 2^32 for each limb of a
+        for (int i = 0; i < length; i++) {
+            final long ai = a[i] & MASK;
+
+            long carry = 0L;
+            for (int j = 0; j < length; j++) {
+                // (2^32 - 1)^2 + 2 * (2^32 - 1) = 2^64 - 1 => fits into unsigned long
+                final long s = t[j] + ai * (b[j] & MASK) + carry;
+                t[j] = s & MASK;
+                carry = s >>> 32;
+            }
+            long s = t[length] + carry;
+            t[length] = s & MASK;
+            t[length + 1] = s >>> 32;
+
+            final long m = t[0] * inverse & MASK;
+            s = t[0] + m * (n[0] & MASK);
+            carry = s >>> 32;
+            for (int j = 1; j < length; j++) {
+                s = t[j] + m * (n[j] & MASK) + carry;
+                t[j - 1] = s & MASK;
+                carry = s >>> 32;
+            }
+            s = t[length] + carry;
+            t[length - 1] = s & MASK;
+            t[length] = t[length + 1] + (s >>> 32);
+        }
+
+        // t < 2n
+        if (t[length] != 0L || compareToModulus(t) >= 0) {
+            long borrow = 0L;
+            for (int j = 0; j < length; j++) {
+                final long d = t[j] - (n[j] & MASK) - borrow;
+                result[j] = (int) d;
+                borrow = (d >>> 63);
+            }
+        } else {
+            for (int j = 0; j < length; j++) {
+                result[j] = (int) t[j];
+            }
+        }
+    }
+
+    void square(@NotNull int[] a, @NotNull int[] result) {
+        multiply(a, a, result);
+    }
+
+    /**
+     * Sets <var>result</var> to a + b mod n, <var>result</var> might be the same array as one of the operands
+     */
+    void add(@NotNull int[] a, @NotNull int[] b, @NotNull int[] result) {
+        long carry = 0L;
+        for (int j = 0; j < length; j++) {
+            final long s = (a[j] & MASK) + (b[j] & MASK) + carry;
+            result[j] = (int) s;
+            carry = s >>> 32;
+        }
+
+        if (carry != 0L || compareToModulus(result) >= 0) {
+            subtractModulus(result);
+        }
+    }
+
+    /**
+     * Sets <var>result</var> to a - b mod n, <var>result</var> might be the same array as one of the operands
+     */
+    void subtract(@NotNull int[] a, @NotNull int[] b, @NotNull int[] result) {
+        long borrow = 0L;
+        for (int j = 0; j < length; j++) {
+            final long d = (a[j] & MASK) - (b[j] & MASK) - borrow;
+            result[j] = (int) d;
+            borrow = d >>> 63;
+        }
+
+        if (borrow != 0L) {
+            long carry = 0L;
+            for (int j = 0; j < length; j++) {
+                final long s = (result[j] & MASK) + (n[j] & MASK) + carry;
+                result[j] = (int) s;
+                carry = s >>> 32;
+            }
+        }
+    }
+
+    private void subtractModulus(@NotNull int[] x) {
+        long borrow = 0L;
+        for (int j = 0; j < length; j++) {
+            final long d = (x[j] & MASK) - (n[j] & MASK) - borrow;
+            x[j] = (int) d;
+            borrow = d >>> 63;
+        }
+    }
+
+    private int compareToModulus(@NotNull long[] x) {
+        for (int j = length - 1; j >= 0; j--) {
+            final long nj = n[j] & MASK;
+            if (x[j] != nj) {
+                return x[j] < nj ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private int compareToModulus(@NotNull int[] x) {
+        for (int j = length - 1; j >= 0; j--) {
+            final long xj = x[j] & MASK;
+            final long nj = n[j] & MASK;
+            if (xj != nj) {
+                return xj < nj ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           LIMBS
+    *
+    **********************************************************************
+    */
+
+    // little-endian 32-bit limbs of non negative integer
+    @NotNull
+    private static int[] toLimbs(@NotNull BigInteger value, int length) {
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = value.shiftRight(Integer.SIZE * i).intValue();
+        }
+        return result;
+    }
+
+    @NotNull
+    private static BigInteger fromLimbs(@NotNull int[] limbs) {
+        final byte[] bytes = new byte[limbs.length * 4];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) (limbs[i >>> 2] >>> ((i & 3) * 8));
+        }
+        return new BigInteger(1, bytes);
+    }
+}
@@ -1,9 +1,14 @@
 package jscl.math.generic;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * User: serso
  * Date: 3/3/12
  * Time: 4:04 PM
  */
 public class NotExpressionException extends InternalGenericException {
+
+    @NotNull
+    public static final NotExpressionException instance = new NotExpressionException();
 }
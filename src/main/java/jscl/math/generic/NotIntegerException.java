@@ -1,9 +1,14 @@
 package jscl.math.generic;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * User: serso
  * Date: 2/21/12
  * Time: 3:44 PM
  */
 public class NotIntegerException extends InternalGenericException {
+
+    @NotNull
+    public static final NotIntegerException instance = new NotIntegerException();
 }
@@ -1,9 +1,14 @@
 package jscl.math.generic;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * User: serso
  * Date: 3/3/12
  * Time: 3:51 PM
  */
 public class NotProductException extends InternalGenericException {
+
+    @NotNull
+    public static final NotProductException instance = new NotProductException();
 }
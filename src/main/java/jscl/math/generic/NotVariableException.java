@@ -1,9 +1,14 @@
 package jscl.math.generic;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * User: serso
  * Date: 2/21/12
  * Time: 3:45 PM
  */
 public class NotVariableException extends InternalGenericException {
+
+    @NotNull
+    public static final NotVariableException instance = new NotVariableException();
 }
@@ -0,0 +1,255 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Multiplication of big integers by number theoretic transform (three-prime NTT):
+ * magnitudes are split into 32-bit digits, cyclic convolution of digits is computed modulo three primes
+ * p = c * 2^k + 1 (which have roots of unity of order 2^k) and restored by Chinese remainder theorem (Garner's
+ * algorithm). Each coefficient of convolution is less than n * 2^64 &lt; p[0] * p[1] * p[2] for n &lt;= 2^24 =>
+ * restored coefficients are exact.
+ * <p/>
+ * Cost is O(n log(n)) vs O(n^1.46) of Toom-Cook multiplication used by {@link BigInteger#multiply(BigInteger)} =>
+ * faster only for very big operands, see {@link GenericContext#getNttMultiplicationThreshold()}.
+ */
+enum NttMultiplicator {
+
+    instance;
+
+    private static final long[] PRIMES = {2013265921L, 469762049L, 754974721L};
+
+    // generators of multiplicative groups of PRIMES
+    private static final long[] GENERATORS = {31L, 3L, 11L};
+
+    // all primes have roots of unity of order 2^MAX_LOG_LENGTH
+    private static final int MAX_LOG_LENGTH = 24;
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    // p[0]^-1 mod p[1]
+    private static final long P0_INVERSE_P1 = modPow(PRIMES[0], PRIMES[1] - 2, PRIMES[1]);
+
+    // p[0] * p[1]
+    private static final long P01 = PRIMES[0] * PRIMES[1];
+
+    // (p[0] * p[1])^-1 mod p[2]
+    private static final long P01_INVERSE_P2 = modPow(P01 % PRIMES[2], PRIMES[2] - 2, PRIMES[2]);
+
+    /**
+     * @return true if product of operands with given numbers of bits can be computed by this class
+     */
+    public boolean isApplicable(int lBits, int rBits) {
+        return digits(lBits) + digits(rBits) <= (1 << MAX_LOG_LENGTH);
+    }
+
+    @NotNull
+    public BigInteger multiply(@NotNull BigInteger l, @NotNull BigInteger r) {
+        final int signum = l.signum() * r.signum();
+        if (signum == 0) {
+            return BigInteger.ZERO;
+        }
+
+        final int[] lDigits = toDigits(l.abs());
+        final int[] rDigits = l == r ? lDigits : toDigits(r.abs());
+
+        final int resultLength = lDigits.length + rDigits.length;
+        final int length = Integer.highestOneBit(resultLength - 1) << 1;
+        if (length > (1 << MAX_LOG_LENGTH)) {
+            throw new ArithmeticException("Operands are too big for NTT multiplication");
+        }
+
+        final long[][] residues = new long[PRIMES.length][];
+        for (int k = 0; k < PRIMES.length; k++) {
+            GenericUtils.checkInterruption();
+            residues[k] = convolution(lDigits, rDigits, length, PRIMES[k], GENERATORS[k]);
+        }
+
+        final int[] result = new int[resultLength];
+        long carryLow = 0L;
+        long carryHigh = 0L;
+        for (int i = 0; i < resultLength; i++) {
+            final long r0 = residues[0][i];
+            final long r1 = residues[1][i];
+            final long r2 = residues[2][i];
+
+            // x = r0 + p[0] * t1 (< p[0] * p[1]) is the value of coefficient modulo p[0] * p[1]
+            final long t1 = mulMod(sub(r1, r0 % PRIMES[1], PRIMES[1]), P0_INVERSE_P1, PRIMES[1]);
+            final long x = r0 + PRIMES[0] * t1;
+
+            // coefficient = x + p[0] * p[1] * t2, up to 90 bits => added to carry by 32-bit parts
+            final long t2 = mulMod(sub(r2, x % PRIMES[2], PRIMES[2]), P01_INVERSE_P2, PRIMES[2]);
+            final long low = (P01 & MASK) * t2;
+            final long high = (P01 >>> 32) * t2;
+
+            final long s0 = carryLow + (x & MASK) + (low & MASK);
+            final long s1 = carryHigh + (x >>> 32) + (low >>> 32) + (high & MASK) + (s0 >>> 32);
+            final long s2 = (high >>> 32) + (s1 >>> 32);
+
+            result[i] = (int) s0;
+            carryLow = s1 & MASK;
+            carryHigh = s2;
+        }
+        assert carryLow == 0L && carryHigh == 0L;
+
+        return fromDigits(result, signum);
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           TRANSFORM
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return cyclic convolution of <var>l</var> and <var>r</var> modulo <var>p</var>
+     */
+    @NotNull
+    private static long[] convolution(@NotNull int[] l, @NotNull int[] r, int length, long p, long g) {
+        final long[] a = residues(l, length, p);
+        transform(a, p, g, false);
+
+        final long[] b;
+        if (l == r) {
+            b = a;
+        } else {
+            b = residues(r, length, p);
+            transform(b, p, g, false);
+        }
+
+        for (int i = 0; i < length; i++) {
+            a[i] = mulMod(a[i], b[i], p);
+        }
+
+        transform(a, p, g, true);
+
+        final long lengthInverse = modPow(length, p - 2, p);
+        for (int i = 0; i < length; i++) {
+            a[i] = mulMod(a[i], lengthInverse, p);
+        }
+
+        return a;
+    }
+
+    @NotNull
+    private static long[] residues(@NotNull int[] digits, int length, long p) {
+        final long[] result = new long[length];
+        for (int i = 0; i < digits.length; i++) {
+            result[i] = (digits[i] & MASK) % p;
+        }
+        return result;
+    }
+
+    /**
+     * In-place iterative radix-2 transform (Cooley-Tukey), <var>a.length</var> must be a power of two
+     */
+    private static void transform(@NotNull long[] a, long p, long g, boolean inverse) {
+        final int n = a.length;
+
+        // bit-reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+
+            if (i < j) {
+                final long tmp = a[i];
+                a[i] = a[j];
+                a[j] = tmp;
+            }
+        }
+
+        final long[] roots = new long[n >> 1];
+        for (int length = 2; length <= n; length <<= 1) {
+            final int half = length >> 1;
+
+            // primitive root of unity of order length
+            long root = modPow(g, (p - 1) / length, p);
+            if (inverse) {
+                root = modPow(root, p - 2, p);
+            }
+
+            roots[0] = 1L;
+            for (int k = 1; k < half; k++) {
+                roots[k] = mulMod(roots[k - 1], root, p);
+            }
+
+            for (int i = 0; i < n; i += length) {
+                for (int k = 0; k < half; k++) {
+                    final long u = a[i + k];
+                    final long v = mulMod(a[i + k + half], roots[k], p);
+                    a[i + k] = u + v < p ? u + v : u + v - p;
+                    a[i + k + half] = u >= v ? u - v : u - v + p;
+                }
+            }
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           ARITHMETIC
+    *
+    **********************************************************************
+    */
+
+    // p < 2^31 => product fits into long
+    private static long mulMod(long a, long b, long p) {
+        return a * b % p;
+    }
+
+    private static long sub(long a, long b, long p) {
+        return a >= b ? a - b : a - b + p;
+    }
+
+    private static long modPow(long base, long exponent, long p) {
+        long result = 1L;
+        base %= p;
+        while (exponent > 0) {
+            if ((exponent & 1L) != 0L) {
+                result = mulMod(result, base, p);
+            }
+            base = mulMod(base, base, p);
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           DIGITS
+    *
+    **********************************************************************
+    */
+
+    private static int digits(int bits) {
+        return (bits + Integer.SIZE - 1) / Integer.SIZE;
+    }
+
+    // little-endian 32-bit digits of non negative integer
+    @NotNull
+    private static int[] toDigits(@NotNull BigInteger value) {
+        final byte[] bytes = value.toByteArray();
+        final int[] result = new int[Math.max(1, digits(value.bitLength()))];
+        for (int i = 0; i < bytes.length && (i >>> 2) < result.length; i++) {
+            // bytes are big-endian
+            result[i >>> 2] |= (bytes[bytes.length - 1 - i] & 0xFF) << ((i & 3) * 8);
+        }
+        return result;
+    }
+
+    @NotNull
+    private static BigInteger fromDigits(@NotNull int[] digits, int signum) {
+        final byte[] bytes = new byte[digits.length * 4];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) (digits[i >>> 2] >>> ((i & 3) * 8));
+        }
+        return new BigInteger(signum, bytes);
+    }
+}
@@ -0,0 +1,266 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Primality tests without false answers for numbers less than 2^64:
+ * <ul>
+ * <li>n &lt; 2^64: Miller-Rabin test with 7 fixed bases (Jim Sinclair's set) which is known to have no strong
+ * pseudoprimes below 2^64 (3 bases for n &lt; 4759123141), arithmetic is done on longs in Montgomery form
+ * (see {@link Montgomery64})</li>
+ * <li>n &gt;= 2^64: Baillie-PSW test (strong Fermat test to base 2 and strong Lucas test with Selfridge's parameters),
+ * no BPSW pseudoprime is known</li>
+ * </ul>
+ */
+enum PrimalityTest {
+
+    instance;
+
+    // no strong pseudoprimes to all these bases below 2^64
+    private static final long[] BASES = {2L, 325L, 9375L, 28178L, 450775L, 9780504L, 1795265022L};
+
+    // no strong pseudoprimes to all these bases below SMALL_BASES_LIMIT
+    private static final long[] SMALL_BASES = {2L, 7L, 61L};
+
+    private static final long SMALL_BASES_LIMIT = 4759123141L;
+
+    // numbers below are checked by trial division only
+    private static final int TRIAL_LIMIT = 256;
+
+    private static final BigInteger TWO = BigInteger.valueOf(2L);
+
+    /**
+     * @param n unsigned value
+     */
+    public boolean isPrime(long n) {
+        if (Long.compareUnsigned(n, TRIAL_LIMIT) < 0) {
+            return isSmallPrime((int) n);
+        }
+
+        for (int i = 0; PrimeTable.PRIMES[i] < TRIAL_LIMIT; i++) {
+            if (Long.remainderUnsigned(n, PrimeTable.PRIMES[i]) == 0L) {
+                return false;
+            }
+        }
+
+        // n - 1 = d * 2^s
+        final long d = (n - 1L) >>> Long.numberOfTrailingZeros(n - 1L);
+        final Montgomery64 m = new Montgomery64(n);
+        final long minusOne = m.subtract(0L, m.one);
+
+        for (long base : n >= 0L && n < SMALL_BASES_LIMIT ? SMALL_BASES : BASES) {
+            final long a = Long.remainderUnsigned(base, n);
+            if (a != 0L && !isStrongProbablePrime(m, m.toMontgomery(a), d, minusOne)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStrongProbablePrime(@NotNull Montgomery64 m, long a, long d, long minusOne) {
+        long x = m.pow(a, d);
+        if (x == m.one || x == minusOne) {
+            return true;
+        }
+
+        for (long e = d << 1; e != m.modulus - 1L; e <<= 1) {
+            x = m.multiply(x, x);
+            if (x == minusOne) {
+                return true;
+            } else if (x == m.one) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public boolean isPrime(@NotNull BigInteger n) {
+        if (n.signum() <= 0) {
+            return false;
+        } else if (n.bitLength() <= Long.SIZE) {
+            return isPrime(n.longValue());
+        }
+
+        if (!n.testBit(0)) {
+            return false;
+        }
+
+        final long r = n.mod(BigInteger.valueOf(3L * 5 * 7 * 11 * 13 * 17 * 19 * 23 * 29 * 31 * 37 * 41 * 43 * 47)).longValue();
+        for (int i = 1; PrimeTable.PRIMES[i] < 48; i++) {
+            if (r % PrimeTable.PRIMES[i] == 0) {
+                return false;
+            }
+        }
+
+        return isStrongProbablePrime(n, TWO) && isStrongLucasProbablePrime(n);
+    }
+
+    private static boolean isSmallPrime(int n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int i = 0; PrimeTable.PRIMES[i] * PrimeTable.PRIMES[i] <= n; i++) {
+            if (n % PrimeTable.PRIMES[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           BAILLIE-PSW
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @param n odd number greater than <var>a</var>
+     */
+    private static boolean isStrongProbablePrime(@NotNull BigInteger n, @NotNull BigInteger a) {
+        final BigInteger minusOne = n.subtract(BigInteger.ONE);
+        final int s = minusOne.getLowestSetBit();
+
+        BigInteger x = a.modPow(minusOne.shiftRight(s), n);
+        if (x.equals(BigInteger.ONE) || x.equals(minusOne)) {
+            return true;
+        }
+
+        for (int i = 1; i < s; i++) {
+            x = x.multiply(x).mod(n);
+            if (x.equals(minusOne)) {
+                return true;
+            } else if (x.equals(BigInteger.ONE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Strong Lucas test with parameters P = 1, Q = (1 - D) / 4 where D is the first of 5, -7, 9, -11, ... with
+     * Jacobi symbol (D / n) = -1 (Selfridge's method A)
+     *
+     * @param n odd number without small factors
+     */
+    private static boolean isStrongLucasProbablePrime(@NotNull BigInteger n) {
+        // D doesn't exist for squares
+        final BigInteger root = IntegerFactorizer.root(n, 2);
+        if (root.multiply(root).equals(n)) {
+            return false;
+        }
+
+        long d = 5L;
+        for (int j = jacobi(d, n); j != -1; j = jacobi(d, n)) {
+            if (j == 0) {
+                // |D| < n has common factor with n
+                return false;
+            }
+            d = d > 0 ? -(d + 2L) : -d + 2L;
+        }
+
+        final BigInteger bigD = BigInteger.valueOf(d);
+        final BigInteger q = BigInteger.valueOf((1L - d) / 4L);
+
+        // n + 1 = k * 2^s
+        final BigInteger plusOne = n.add(BigInteger.ONE);
+        final int s = plusOne.getLowestSetBit();
+        final BigInteger k = plusOne.shiftRight(s);
+
+        // U(1) = 1, V(1) = P = 1, Q^1
+        BigInteger u = BigInteger.ONE;
+        BigInteger v = BigInteger.ONE;
+        BigInteger qk = q.mod(n);
+        for (int i = k.bitLength() - 2; i >= 0; i--) {
+            // U(2m) = U(m) * V(m), V(2m) = V(m)^2 - 2 * Q^m
+            u = u.multiply(v).mod(n);
+            v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+            qk = qk.multiply(qk).mod(n);
+
+            if (k.testBit(i)) {
+                // U(m + 1) = (P * U(m) + V(m)) / 2, V(m + 1) = (D * U(m) + P * V(m)) / 2
+                final BigInteger newU = half(u.add(v), n);
+                v = half(bigD.multiply(u).add(v), n);
+                u = newU;
+                qk = qk.multiply(q).mod(n);
+            }
+        }
+
+        if (u.signum() == 0 || v.signum() == 0) {
+            return true;
+        }
+
+        for (int i = 1; i < s; i++) {
+            // V(2m) = V(m)^2 - 2 * Q^m
+            v = v.multiply(v).subtract(qk.shiftLeft(1)).mod(n);
+            if (v.signum() == 0) {
+                return true;
+            }
+            qk = qk.multiply(qk).mod(n);
+        }
+        return false;
+    }
+
+    /**
+     * @return x / 2 mod n for odd n
+     */
+    @NotNull
+    private static BigInteger half(@NotNull BigInteger x, @NotNull BigInteger n) {
+        x = x.mod(n);
+        return (x.testBit(0) ? x.add(n) : x).shiftRight(1);
+    }
+
+    /**
+     * @param a odd number, positive or negative
+     * @param n odd positive number
+     * @return Jacobi symbol (a / n)
+     */
+    private static int jacobi(long a, @NotNull BigInteger n) {
+        int result = 1;
+
+        // (-1 / n) = -1 iff n = 3 mod 4
+        final int n4 = n.intValue() & 3;
+        if (a < 0) {
+            a = -a;
+            if (n4 == 3) {
+                result = -result;
+            }
+        }
+
+        // quadratic reciprocity for odd a and n: (a / n) = (n / a) * (-1)^((a - 1) / 2 * (n - 1) / 2)
+        if ((a & 3L) == 3L && n4 == 3) {
+            result = -result;
+        }
+        return result * jacobi(n.mod(BigInteger.valueOf(a)).longValue(), a);
+    }
+
+    /**
+     * @return Jacobi symbol (a / n) for odd positive n
+     */
+    private static int jacobi(long a, long n) {
+        int result = 1;
+        a %= n;
+        while (a != 0L) {
+            while ((a & 1L) == 0L) {
+                a >>= 1;
+                // (2 / n) = -1 iff n = 3, 5 mod 8
+                final long n8 = n & 7L;
+                if (n8 == 3L || n8 == 5L) {
+                    result = -result;
+                }
+            }
+
+            final long t = a;
+            a = n;
+            n = t;
+            if ((a & 3L) == 3L && (n & 3L) == 3L) {
+                result = -result;
+            }
+            a %= n;
+        }
+        return n == 1L ? result : 0;
+    }
+}
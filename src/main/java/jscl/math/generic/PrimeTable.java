@@ -0,0 +1,42 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Table of small primes computed once by the sieve of Eratosthenes
+ */
+final class PrimeTable {
+
+    // all primes less than LIMIT are in the table
+    static final int LIMIT = 1 << 16;
+
+    @NotNull
+    static final int[] PRIMES = sieve(LIMIT);
+
+    private PrimeTable() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return all primes less than <var>limit</var> in ascending order
+     */
+    @NotNull
+    static int[] sieve(int limit) {
+        final boolean[] composite = new boolean[limit];
+
+        int count = 0;
+        final int[] result = new int[Math.max(16, (int) (1.26 * limit / Math.log(Math.max(limit, 3))))];
+        for (int i = 2; i < limit; i++) {
+            if (!composite[i]) {
+                result[count++] = i;
+                for (long j = (long) i * i; j < limit; j += i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
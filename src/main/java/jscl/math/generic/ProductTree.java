@@ -0,0 +1,182 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Product of many factors computed by balanced tree of multiplications: two smallest factors are multiplied first
+ * (as in Huffman coding) => each multiplication has operands of similar sizes instead of multiplying growing
+ * product by small factor on each step (as left-to-right product does).
+ * <p/>
+ * If pool is provided factors are multiplied level by level: on each level factors are sorted by size and adjacent
+ * pairs are multiplied in parallel. Interruption of the calling thread stops all the workers.
+ *
+ * @param <T> type of factors, multiplication must be commutative and associative
+ */
+public abstract class ProductTree<T> {
+
+    // smaller number of factors is multiplied in the calling thread
+    private static final int PARALLEL_MIN_FACTORS = 4;
+
+    @NotNull
+    public final T product(@NotNull List<T> factors, @NotNull T one, @Nullable ForkJoinPool pool) {
+        switch (factors.size()) {
+            case 0:
+                return one;
+            case 1:
+                return factors.get(0);
+            case 2:
+                return multiply(factors.get(0), factors.get(1));
+            default:
+                if (pool != null && factors.size() >= PARALLEL_MIN_FACTORS) {
+                    return parallel(factors, pool);
+                } else {
+                    return sequential(factors);
+                }
+        }
+    }
+
+    /**
+     * @return product of <var>l</var> and <var>r</var>
+     */
+    @NotNull
+    protected abstract T multiply(@NotNull T l, @NotNull T r);
+
+    /**
+     * @return size of factor which estimates cost of its multiplication (e.g. number of summands or bits)
+     */
+    protected abstract long size(@NotNull T factor);
+
+    @NotNull
+    private T sequential(@NotNull List<T> factors) {
+        final PriorityQueue<Node<T>> queue = new PriorityQueue<Node<T>>(factors.size());
+        long order = 0;
+        for (T factor : factors) {
+            queue.add(new Node<T>(factor, size(factor), order++));
+        }
+
+        while (queue.size() > 1) {
+            GenericUtils.checkInterruption();
+
+            final T product = multiply(queue.poll().factor, queue.poll().factor);
+            queue.add(new Node<T>(product, size(product), order++));
+        }
+
+        return queue.poll().factor;
+    }
+
+    @NotNull
+    private T parallel(@NotNull List<T> factors, @NotNull ForkJoinPool pool) {
+        List<Node<T>> level = new ArrayList<Node<T>>(factors.size());
+        long order = 0;
+        for (T factor : factors) {
+            level.add(new Node<T>(factor, size(factor), order++));
+        }
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        while (level.size() > 1) {
+            GenericUtils.checkInterruption();
+
+            Collections.sort(level);
+
+            final int pairs = level.size() / 2;
+
+            @SuppressWarnings("unchecked")
+            final T[] products = (T[]) new Object[pairs];
+            GenericUtils.invoke(pool, new LevelTask<T>(this, level, products, 0, pairs, cancelled), cancelled);
+
+            final List<Node<T>> next = new ArrayList<Node<T>>(pairs + 1);
+            for (int i = 0; i < pairs; i++) {
+                next.add(new Node<T>(products[i], size(products[i]), order++));
+            }
+            if (level.size() % 2 != 0) {
+                // the biggest factor goes to the next level as is
+                next.add(level.get(level.size() - 1));
+            }
+            level = next;
+        }
+
+        return level.get(0).factor;
+    }
+
+    private static final class Node<T> implements Comparable<Node<T>> {
+
+        @NotNull
+        private final T factor;
+
+        private final long size;
+
+        // ties are broken by order of creation => result doesn't depend on implementation of the queue
+        private final long order;
+
+        private Node(@NotNull T factor, long size, long order) {
+            this.factor = factor;
+            this.size = size;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(@NotNull Node<T> that) {
+            if (this.size != that.size) {
+                return this.size < that.size ? -1 : 1;
+            } else {
+                return this.order < that.order ? -1 : (this.order == that.order ? 0 : 1);
+            }
+        }
+    }
+
+    /**
+     * Multiplies pairs of adjacent factors of the level: products[i] = level[2 * i] * level[2 * i + 1] for
+     * i from <var>from</var> (inclusive) to <var>to</var> (exclusive)
+     */
+    private static final class LevelTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final ProductTree<T> tree;
+
+        @NotNull
+        private final List<Node<T>> level;
+
+        @NotNull
+        private final T[] products;
+
+        private final int from;
+
+        private final int to;
+
+        // set if the caller has been interrupted
+        @NotNull
+        private final AtomicBoolean cancelled;
+
+        private LevelTask(@NotNull ProductTree<T> tree, @NotNull List<Node<T>> level, @NotNull T[] products, int from, int to, @NotNull AtomicBoolean cancelled) {
+            this.tree = tree;
+            this.level = level;
+            this.products = products;
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            GenericUtils.checkCancellation(cancelled);
+
+            if (to - from == 1) {
+                products[from] = tree.multiply(level.get(2 * from).factor, level.get(2 * from + 1).factor);
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new LevelTask<T>(tree, level, products, from, middle, cancelled), new LevelTask<T>(tree, level, products, middle, to, cancelled));
+            }
+        }
+    }
+}
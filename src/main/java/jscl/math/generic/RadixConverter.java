@@ -0,0 +1,136 @@
+package jscl.math.generic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Divide and conquer parsing of big integers in given radix: string is split into halves where the lower half has
+ * d digits, halves are parsed recursively and combined as high * radix^d + low. Powers radix^(BASE_DIGITS * 2^k) are
+ * cached => cost is O(M(n) log(n)) instead of O(n^2) of digit by digit parsing of {@link BigInteger#BigInteger(String, int)}.
+ * <p/>
+ * For power of two radices the combination is shift and or => linear cost at every level.
+ * <p/>
+ * Formatting is left to {@link BigInteger#toString(int)} which is already recursive.
+ */
+enum RadixConverter {
+
+    instance;
+
+    // parts with less than 2 * BASE_DIGITS digits are parsed by BigInteger
+    private static final int BASE_DIGITS = 512;
+
+    // powers[radix][k] = radix^(BASE_DIGITS * 2^k)
+    @NotNull
+    private final AtomicReferenceArray<BigInteger[]> powers = new AtomicReferenceArray<BigInteger[]>(Character.MAX_RADIX + 1);
+
+    /*
+    **********************************************************************
+    *
+    *                           PARSING
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @throws NumberFormatException if <var>value</var> is not a valid integer in given radix
+     */
+    @NotNull
+    public BigInteger parse(@NotNull String value, int radix, @NotNull GenericContext context) throws NumberFormatException {
+        checkRadix(radix);
+
+        int from = 0;
+        boolean negative = false;
+        if (value.length() > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            from = 1;
+        }
+
+        if (from == value.length()) {
+            throw new NumberFormatException("No digits in \"" + value + "\"");
+        }
+
+        for (int i = from; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), radix) < 0) {
+                throw new NumberFormatException("Illegal digit in \"" + value + "\" at position " + i);
+            }
+        }
+
+        final BigInteger result = parse(value, from, value.length(), radix, context);
+        return negative ? result.negate() : result;
+    }
+
+    @NotNull
+    private BigInteger parse(@NotNull String value, int from, int to, int radix, @NotNull GenericContext context) {
+        final int length = to - from;
+        if (length <= 2 * BASE_DIGITS) {
+            return new BigInteger(value.substring(from, to), radix);
+        }
+
+        GenericUtils.checkInterruption();
+
+        // greatest k such that lower part (BASE_DIGITS * 2^k digits) is not longer than upper part
+        int k = 0;
+        while ((BASE_DIGITS << (k + 1)) <= length - (BASE_DIGITS << (k + 1))) {
+            k++;
+        }
+        final int lowDigits = BASE_DIGITS << k;
+
+        final BigInteger high = parse(value, from, to - lowDigits, radix, context);
+        final BigInteger low = parse(value, to - lowDigits, to, radix, context);
+
+        if (isPowerOfTwo(radix)) {
+            return high.shiftLeft(lowDigits * log2(radix)).or(low);
+        } else {
+            return GenericInteger.multiply(high, power(radix, k, context), context).add(low);
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           POWERS
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return radix^(BASE_DIGITS * 2^k)
+     */
+    @NotNull
+    private BigInteger power(int radix, int k, @NotNull GenericContext context) {
+        BigInteger[] cached = powers.get(radix);
+        if (cached == null || cached.length <= k) {
+            final int from = cached == null ? 0 : cached.length;
+
+            final BigInteger[] newCached = new BigInteger[k + 1];
+            if (cached != null) {
+                System.arraycopy(cached, 0, newCached, 0, cached.length);
+            }
+
+            for (int i = from; i <= k; i++) {
+                newCached[i] = i == 0 ? BigInteger.valueOf(radix).pow(BASE_DIGITS) : GenericInteger.multiply(newCached[i - 1], newCached[i - 1], context);
+            }
+
+            // concurrent threads might compute the same powers: it's cheaper than locking
+            powers.set(radix, newCached);
+            cached = newCached;
+        }
+        return cached[k];
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Radix must be in range [" + Character.MIN_RADIX + ", " + Character.MAX_RADIX + "]: " + radix);
+        }
+    }
+
+    private static boolean isPowerOfTwo(int radix) {
+        return (radix & (radix - 1)) == 0;
+    }
+
+    private static int log2(int radix) {
+        return Integer.numberOfTrailingZeros(radix);
+    }
+}
@@ -38,7 +38,7 @@ public final class Rational extends Generic implements Numeral {
     private Rational(@NotNull BigInteger numerator,
                      @NotNull BigInteger denominator,
                      @NotNull GenericContext context) {
-        super(context);
+        super(context, GenericCoercion.RATIONAL);
         this.n = numerator;
         this.d = denominator;
     }
@@ -111,12 +111,13 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public Generic add(@NotNull Generic that) {
-        if (that instanceof Rational) {
-            return add((Rational) that);
-        } else if (that instanceof GenericInteger) {
-            return add((GenericInteger) that);
-        } else {
-            return that.valueOf(this).add(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.RATIONAL:
+                return add((Rational) that);
+            case GenericCoercion.INTEGER:
+                return add((GenericInteger) that);
+            default:
+                return GenericCoercion.instance.add(this, that);
         }
     }
 
@@ -150,12 +151,13 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public Generic multiply(@NotNull Generic that) {
-        if (that instanceof Rational) {
-            return multiply((Rational) that);
-        } else if (that instanceof GenericInteger) {
-            return multiply((GenericInteger) that);
-        } else {
-            return that.multiply(this);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.RATIONAL:
+                return multiply((Rational) that);
+            case GenericCoercion.INTEGER:
+                return multiply((GenericInteger) that);
+            default:
+                return GenericCoercion.instance.multiply(this, that);
         }
     }
 
@@ -179,12 +181,13 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public Generic divide(@NotNull Generic that) throws NotDivisibleException {
-        if (that instanceof Rational) {
-            return divide(that);
-        } else if (that instanceof GenericInteger) {
-            return divide((GenericInteger) that);
-        } else {
-            return that.valueOf(this).divide(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.RATIONAL:
+                return divide((Rational) that);
+            case GenericCoercion.INTEGER:
+                return divide((GenericInteger) that);
+            default:
+                return GenericCoercion.instance.divide(this, that);
         }
     }
 
@@ -224,12 +227,13 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public Generic gcd(@NotNull Generic that) {
-        if (that instanceof Rational) {
-            return gcd((Rational) that);
-        } else if (that instanceof GenericInteger) {
-            return gcd((GenericInteger) that);
-        } else {
-            return that.valueOf(this).gcd(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.RATIONAL:
+                return gcd((Rational) that);
+            case GenericCoercion.INTEGER:
+                return gcd((GenericInteger) that);
+            default:
+                return GenericCoercion.instance.gcd(this, that);
         }
     }
 
@@ -305,9 +309,9 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public Rational valueOf(@NotNull Generic that) {
-        if (that instanceof Rational) {
+        if (that.getTypeTag() == GenericCoercion.RATIONAL) {
             return (Rational) that;
-        } else if (that instanceof Expression) {
+        } else if (that.getTypeTag() == GenericCoercion.EXPRESSION) {
             /*boolean sign = that.signum() < 0;
                Generic g[] = ((Fraction) (sign ? that.negate() : that).variableValue()).getParameters();
                GenericInteger numerator = (GenericInteger) (sign ? g[0].negate() : g[0]);
@@ -315,7 +319,7 @@ public final class Rational extends Generic implements Numeral {
                return new Rational(numerator.getContent(), denominator.getContent());
                */// todo serso: implement
             throw new UnsupportedOperationException();
-        } else if (that instanceof GenericInteger) {
+        } else if (that.getTypeTag() == GenericCoercion.INTEGER) {
             return valueOf((GenericInteger) that);
         } else {
             throw new ArithmeticException();
@@ -324,26 +328,20 @@ public final class Rational extends Generic implements Numeral {
 
     @NotNull
     public List<? extends Generic> sumValue() {
-        try {
-            if (integerValue().isZero()) {
-                return Collections.emptyList();
-            } else {
-                return Arrays.asList(this);
-            }
-        } catch (NotIntegerException e) {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null && integer.isZero()) {
+            return Collections.emptyList();
+        } else {
             return Arrays.asList(this);
         }
     }
 
     @NotNull
     public List<? extends Generic> productValue() throws NotProductException {
-        try {
-            if (integerValue().isOne()){
-                return Collections.emptyList();                
-            } else {
-                return Arrays.asList(this);
-            }
-        } catch (NotIntegerException e) {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null && integer.isOne()) {
+            return Collections.emptyList();
+        } else {
             return Arrays.asList(this);
         }
     }
@@ -357,6 +355,17 @@ public final class Rational extends Generic implements Numeral {
     }
 
     public GenericInteger integerValue() throws NotIntegerException {
+        final GenericInteger result = tryIntegerValue();
+        if (result != null) {
+            return result;
+        } else {
+            throw NotIntegerException.instance;
+        }
+    }
+
+    @Nullable
+    @Override
+    public GenericInteger tryIntegerValue() {
         if (d.compareTo(BigInteger.ONE) == 0) {
             return context.newInteger(n);
         } else {
@@ -364,26 +373,24 @@ public final class Rational extends Generic implements Numeral {
             if ( reduced.getDenominator().compareTo(BigInteger.ONE) == 0 ) {
                 return context.newInteger(reduced.getNumerator());
             } else {
-                throw new NotIntegerException();
+                return null;
             }
         }
     }
 
-/*    @Override
-    public boolean isInteger() {
-        try {
-            integerValue();
-            return true;
-        } catch (NotIntegerException e) {
-            return false;
-        }
-    }*/
+    @Nullable
+    @Override
+    public Variable tryVariableValue() {
+        final GenericInteger integer = tryIntegerValue();
+        return integer == null ? null : integer.tryVariableValue();
+    }
 
     @NotNull
     public Variable variableValue() throws NotVariableException {
-        try {
-            return integerValue().variableValue();
-        } catch (NotIntegerException e) {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null) {
+            return integer.variableValue();
+        } else {
             /*if (n.compareTo(BigInteger.ONE) == 0) {
                 return new Inverse(new GenericInteger(d, context));
             } else {
@@ -414,20 +421,22 @@ public final class Rational extends Generic implements Numeral {
     }
 
     public int compareTo(Generic generic) {
-        if (generic instanceof Rational) {
-            return compareTo((Rational) generic);
-        } else if (generic instanceof GenericInteger) {
-            return compareTo(valueOf(generic));
-        } else {
-            return generic.valueOf(this).compareTo(generic);
+        switch (generic.getTypeTag()) {
+            case GenericCoercion.RATIONAL:
+                return compareTo((Rational) generic);
+            case GenericCoercion.INTEGER:
+                return compareTo(valueOf((GenericInteger) generic));
+            default:
+                return GenericCoercion.instance.compare(this, generic);
         }
     }
 
     public String toString() {
         final StringBuilder result = new StringBuilder();
-        try {
-            result.append(integerValue());
-        } catch (NotIntegerException e) {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null) {
+            result.append(integer);
+        } else {
             result.append(n);
             result.append("/");
             result.append(d);
@@ -464,11 +473,12 @@ public final class Rational extends Generic implements Numeral {
     }*/
 
     void bodyToMathML(MathML element) {
-        try {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null) {
             MathML e1 = element.newElement("mn");
-            e1.appendChild(element.newText(String.valueOf(integerValue())));
+            e1.appendChild(element.newText(String.valueOf(integer)));
             element.appendChild(e1);
-        } catch (NotIntegerException e) {
+        } else {
             MathML e1 = element.newElement("mfrac");
             MathML e2 = element.newElement("mn");
             e2.appendChild(element.newText(String.valueOf(n)));
@@ -11,15 +11,37 @@ import jscl.math.generic.expression.literal.Productand;
 import jscl.mathml.MathML;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.solovyev.common.utils.CollectionsUtils;
 import org.solovyev.common.utils.Converter;
 
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
-    private final List<Summand> summands;
+    private static final long[] EMPTY_COEFFICIENTS = new long[0];
+
+    @NotNull
+    private static final Literal[] EMPTY_LITERALS = new Literal[0];
+
+    /*
+    * Summands are stored as parallel arrays (struct of arrays): i-th summand is coefficient(i) * literals[i].
+    * Coefficient which fits into long is stored in coefficients[i], bigger coefficient is stored in bigCoefficients[i].
+    * Summand objects are created only on demand (see getSummand(int) and iterator()).
+    */
+
+    private final int size;
+
+    @NotNull
+    private final long[] coefficients;
+
+    // null if all coefficients fit into long, otherwise i-th element is not null if i-th coefficient doesn't fit into long
+    @Nullable
+    private final BigInteger[] bigCoefficients;
+
+    @NotNull
+    private final Literal[] literals;
 
     // for fast access
     @Nullable
@@ -36,55 +58,122 @@ public class Expression extends Generic implements Iterable<Summand> {
     public static class Builder extends ImmutableObjectBuilder<Expression> {
 
         @NotNull
-        private final List<Summand> summands;
+        private final GenericContext context;
+
+        private int size = 0;
 
         @NotNull
-        private final GenericContext context;
+        private long[] coefficients;
+
+        @Nullable
+        private BigInteger[] bigCoefficients;
+
+        @NotNull
+        private Literal[] literals;
 
         public Builder(@NotNull GenericContext context, int initialCapacity) {
             this.context = context;
-            this.summands = new ArrayList<Summand>(initialCapacity);
+            this.coefficients = new long[initialCapacity];
+            this.literals = new Literal[initialCapacity];
         }
 
         public void addSummand(@NotNull Summand s) {
+            addSummand(s.getCoefficient(), s.getLiteral());
+        }
+
+        public void addSummand(@NotNull GenericInteger coefficient, @NotNull Literal literal) {
+            if (coefficient.isSmall()) {
+                addSummand(coefficient.longValue(), literal);
+            } else {
+                checkNotLocked();
+
+                if (size == literals.length) {
+                    grow();
+                }
+
+                if (bigCoefficients == null) {
+                    bigCoefficients = new BigInteger[literals.length];
+                }
+                bigCoefficients[size] = coefficient.getContent();
+                literals[size] = literal;
+
+                size++;
+            }
+        }
+
+        public void addSummand(long coefficient, @NotNull Literal literal) {
+            checkNotLocked();
+
+            if (size == literals.length) {
+                grow();
+            }
+
+            coefficients[size] = coefficient;
+            literals[size] = literal;
+
+            size++;
+        }
+
+        private void checkNotLocked() {
             if (isLocked()) {
                 throw new IllegalStateException("Cannot add summand to already created expression!");
             }
-            this.summands.add(s);
         }
 
-        public void addSummand(@NotNull GenericInteger coefficient, @NotNull Literal literal) {
-            addSummand(Summand.newInstance(coefficient, literal));
+        private void grow() {
+            final int capacity = Math.max(4, 2 * literals.length);
+
+            coefficients = Arrays.copyOf(coefficients, capacity);
+            literals = Arrays.copyOf(literals, capacity);
+            if (bigCoefficients != null) {
+                bigCoefficients = Arrays.copyOf(bigCoefficients, capacity);
+            }
         }
 
         @NotNull
         public Expression build0() {
-            // avoid not used memory
-            if (summands instanceof ArrayList) {
-                ((ArrayList) summands).trimToSize();
+            if (size == 0) {
+                return newEmpty(context);
             }
 
-            return new Expression(this.summands, context);
+            // arrays are shrunk in place (only first size elements are used), copy only if too much memory is wasted
+            if (size < literals.length - literals.length / 4) {
+                coefficients = Arrays.copyOf(coefficients, size);
+                literals = Arrays.copyOf(literals, size);
+                if (bigCoefficients != null) {
+                    bigCoefficients = Arrays.copyOf(bigCoefficients, size);
+                }
+            }
+
+            return new Expression(size, coefficients, bigCoefficients, literals, context);
         }
     }
 
-    private Expression(@NotNull List<Summand> summands, @NotNull GenericContext context) {
-        super(context);
-        this.summands = summands;
+    private Expression(int size,
+                       @NotNull long[] coefficients,
+                       @Nullable BigInteger[] bigCoefficients,
+                       @NotNull Literal[] literals,
+                       @NotNull GenericContext context) {
+        super(context, GenericCoercion.EXPRESSION);
+        this.size = size;
+        this.coefficients = coefficients;
+        this.bigCoefficients = bigCoefficients;
+        this.literals = literals;
     }
 
     @NotNull
     public Expression valueOf(@NotNull Generic that) {
-        if (that instanceof Expression) {
-            return (Expression) that;
-        } else if (that instanceof GenericInteger) {
-            return newInstance((GenericInteger) that);
-        } else if (that instanceof Rational) {
-            return newInstance((Rational) that);
-        } else if (that instanceof GenericNumeric) {
-            return newInstance((GenericNumeric) that);
-        } else {
-            throw new ArithmeticException("Could not initialize expression with " + that.getClass());
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return (Expression) that;
+            case GenericCoercion.INTEGER:
+                return newInstance((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+                return newInstance((Rational) that);
+            case GenericCoercion.NUMERIC:
+                return newInstance((GenericNumeric) that);
+            default:
+                throw new ArithmeticException("Could not initialize expression with " + that.getClass());
         }
     }
 
@@ -107,9 +196,10 @@ public class Expression extends Generic implements Iterable<Summand> {
     private static Expression newInstance0(@NotNull Generic that) {
         if (!that.isZero()) {
             final Builder b = new Builder(that.getContext(), 1);
-            try {
-                b.addSummand(Summand.newInstance(that.integerValue()));
-            } catch (NotIntegerException e) {
+            final GenericInteger integer = that.tryIntegerValue();
+            if (integer != null) {
+                b.addSummand(Summand.newInstance(integer));
+            } else {
                 b.addSummand(Summand.newInstance(that.getContext().getOne(), Literal.newInstance(that.variableValue())));
             }
             return b.build();
@@ -120,7 +210,7 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public static Expression newEmpty(@NotNull GenericContext context) {
-        return new Expression(Collections.<Summand>emptyList(), context);
+        return new Expression(0, EMPTY_COEFFICIENTS, null, EMPTY_LITERALS, context);
     }
 
     /*
@@ -133,21 +223,68 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @Override
     public Iterator<Summand> iterator() {
-        return this.summands.iterator();
+        return getSummands().iterator();
     }
 
     public int getSize() {
-        return this.summands.size();
+        return this.size;
     }
 
+    /**
+     * @return unmodifiable view of summands
+     */
     @NotNull
     public List<Summand> getSummands() {
-        return Collections.unmodifiableList(summands);
+        return new AbstractList<Summand>() {
+            @Override
+            public Summand get(int i) {
+                return getSummand(i);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     @NotNull
     public Summand getSummand(int i) {
-        return this.summands.get(i);
+        return Summand.newInstance(getCoefficient(i), literals[i]);
+    }
+
+    @NotNull
+    public GenericInteger getCoefficient(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+        }
+
+        final BigInteger[] localBigCoefficients = bigCoefficients;
+        if (localBigCoefficients != null && localBigCoefficients[i] != null) {
+            return GenericInteger.newInstance(localBigCoefficients[i], context);
+        } else {
+            return context.newInteger(coefficients[i]);
+        }
+    }
+
+    // for merge kernels: small coefficient can be read by getSmallCoefficient(int) without creating GenericInteger
+    boolean isSmallCoefficient(int i) {
+        final BigInteger[] localBigCoefficients = bigCoefficients;
+        return localBigCoefficients == null || localBigCoefficients[i] == null;
+    }
+
+    long getSmallCoefficient(int i) {
+        assert isSmallCoefficient(i);
+        return coefficients[i];
+    }
+
+    @NotNull
+    public Literal getLiteral(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+        }
+
+        return literals[i];
     }
 
     /*
@@ -163,14 +300,23 @@ public class Expression extends Generic implements Iterable<Summand> {
         return ExpressionSummizer.instance.sum(this, that);
     }
 
+    /**
+     * @return sum of all <var>expressions</var> computed by one k-way merge (without intermediate sums)
+     */
+    @NotNull
+    public static Expression sumAll(@NotNull GenericContext context, @NotNull Collection<Expression> expressions) {
+        return ExpressionSummizer.instance.sumAll(context, expressions);
+    }
+
     @NotNull
     public Expression add(@NotNull GenericInteger that) {
-        return add(newInstance(that));
+        return that.isZero() ? this : addConstant(that);
     }
 
     @NotNull
     public Expression add(@NotNull Rational that) {
-        return add(newInstance(that));
+        final GenericInteger integer = that.tryIntegerValue();
+        return integer != null ? add(integer) : add(newInstance(that));
     }
 
     @NotNull
@@ -180,16 +326,17 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic add(@NotNull Generic that) {
-        if (that instanceof Expression) {
-            return add((Expression) that);
-        } else if (that instanceof GenericInteger) {
-            return add((GenericInteger) that);
-        } else if (that instanceof Rational) {
-            return add((Rational) that);
-        } else if (that instanceof GenericNumeric) {
-            return add((GenericNumeric) that);
-        } else {
-            return that.valueOf(this).add(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return add((Expression) that);
+            case GenericCoercion.INTEGER:
+                return add((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+                return add((Rational) that);
+            case GenericCoercion.NUMERIC:
+                return add((GenericNumeric) that);
+            default:
+                return GenericCoercion.instance.add(this, that);
         }
     }
 
@@ -203,17 +350,18 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Expression subtract(@NotNull Expression that) {
-        return ExpressionSummizer.instance.sum(this, null, that, Summand.newInstance(context.newInteger(-1L)));
+        return ExpressionSummizer.instance.subtract(this, that);
     }
 
     @NotNull
     public Expression subtract(@NotNull GenericInteger that) {
-        return subtract(newInstance(that));
+        return that.isZero() ? this : addConstant(that.negate());
     }
 
     @NotNull
     public Expression subtract(@NotNull Rational that) {
-        return subtract(newInstance(that));
+        final GenericInteger integer = that.tryIntegerValue();
+        return integer != null ? subtract(integer) : subtract(newInstance(that));
     }
 
     @NotNull
@@ -223,16 +371,17 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic subtract(@NotNull Generic that) {
-        if (that instanceof Expression) {
-            return subtract((Expression) that);
-        } else if (that instanceof GenericInteger) {
-            return subtract((GenericInteger) that);
-        } else if (that instanceof Rational) {
-            return subtract((Rational) that);
-        } else if (that instanceof GenericNumeric) {
-            return subtract((GenericNumeric) that);
-        } else {
-            return that.valueOf(this).subtract(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return subtract((Expression) that);
+            case GenericCoercion.INTEGER:
+                return subtract((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+                return subtract((Rational) that);
+            case GenericCoercion.NUMERIC:
+                return subtract((GenericNumeric) that);
+            default:
+                return GenericCoercion.instance.subtract(this, that);
         }
     }
 
@@ -246,23 +395,91 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Expression multiply(@NotNull Expression that) {
-        Expression result = newEmpty(context);
+        if (that == this) {
+            return square();
+        } else if (that.isConstantSummand()) {
+            return multiply(that.getCoefficient(0));
+        } else if (this.isConstantSummand()) {
+            return that.multiply(getCoefficient(0));
+        } else {
+            return ExpressionMultiplicator.instance.multiply(this, that);
+        }
+    }
+
+    /**
+     * Same as {@link #multiply(Expression)} but coefficients of pairwise products are always accumulated in hash table
+     * (by default it is done only if the product is estimated to be dense). Use it if most of the pairwise products
+     * are known to have equal literals, e.g. for dense polynomials in few variables
+     */
+    @NotNull
+    public Expression multiplyDense(@NotNull Expression that) {
+        return ExpressionMultiplicator.instance.multiplyDense(this, that);
+    }
+
+    /**
+     * Same as {@link #multiply(Expression)} but the product is always computed by Kronecker substitution (by default
+     * it is done only for big dense products): expressions are packed into big integers, see {@link ExpressionKronecker}.
+     * Falls back to {@link #multiply(Expression)} if packed product would be too big
+     */
+    @NotNull
+    public Expression multiplyKronecker(@NotNull Expression that) {
+        final Expression result = ExpressionKronecker.instance.multiply(this, that);
+        return result != null ? result : multiply(that);
+    }
+
+    /**
+     * @return product of all <var>factors</var> computed by balanced tree of multiplications, see {@link ProductTree}
+     */
+    @NotNull
+    public static Expression productAll(@NotNull GenericContext context, @NotNull List<Expression> factors) {
+        return productAll(context, factors, null);
+    }
 
-        for (Summand summand : summands) {
-            result = ExpressionSummizer.instance.sum(result, null, that, summand);
+    /**
+     * @param pool pool in which multiplications are done in parallel, null for the calling thread only
+     * @return product of all <var>factors</var> computed by balanced tree of multiplications, see {@link ProductTree}
+     */
+    @NotNull
+    public static Expression productAll(@NotNull GenericContext context, @NotNull List<Expression> factors, @Nullable ForkJoinPool pool) {
+        return PRODUCT_TREE.product(factors, newInstance(context.getOne()), pool);
+    }
+
+    private static final ProductTree<Expression> PRODUCT_TREE = new ProductTree<Expression>() {
+        @NotNull
+        @Override
+        protected Expression multiply(@NotNull Expression l, @NotNull Expression r) {
+            return l.multiply(r);
         }
 
-        return result;
+        @Override
+        protected long size(@NotNull Expression factor) {
+            return factor.getSize();
+        }
+    };
+
+    /**
+     * @return this * this, each cross product of summands is computed once
+     */
+    @NotNull
+    public Expression square() {
+        return ExpressionMultiplicator.instance.square(this);
     }
 
     @NotNull
     public Expression multiply(@NotNull GenericInteger that) {
-        return multiply(newInstance(that));
+        if (that.isZero()) {
+            return newEmpty(context);
+        } else if (that.isOne()) {
+            return this;
+        } else {
+            return scale(that);
+        }
     }
 
     @NotNull
     public Expression multiply(@NotNull Rational that) {
-        return multiply(newInstance(that));
+        final GenericInteger integer = that.tryIntegerValue();
+        return integer != null ? multiply(integer) : multiply(newInstance(that));
     }
 
     @NotNull
@@ -272,17 +489,190 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic multiply(@NotNull Generic that) {
-        if (that instanceof Expression) {
-            return multiply((Expression) that);
-        } else if (that instanceof GenericInteger) {
-            return multiply((GenericInteger) that);
-        } else if (that instanceof Rational) {
-            return multiply((Rational) that);
-        } else if (that instanceof GenericNumeric) {
-            return multiply((GenericNumeric) that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return multiply((Expression) that);
+            case GenericCoercion.INTEGER:
+                return multiply((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+                return multiply((Rational) that);
+            case GenericCoercion.NUMERIC:
+                return multiply((GenericNumeric) that);
+            default:
+                return GenericCoercion.instance.multiply(this, that);
+        }
+    }
+
+    /*
+   * *********************************************************************
+   *
+   *                         FUSED OPERATIONS
+   *
+   * *********************************************************************
+    */
+
+    /**
+     * @return this + m * e, computed without building m * e
+     */
+    @NotNull
+    public Expression addMultiple(@NotNull Expression e, @NotNull Summand m) {
+        return ExpressionSummizer.instance.addMultiple(this, e, m, false);
+    }
+
+    /**
+     * @return this - m * e, computed without building m * e
+     */
+    @NotNull
+    public Expression subtractMultiple(@NotNull Expression e, @NotNull Summand m) {
+        return ExpressionSummizer.instance.addMultiple(this, e, m, true);
+    }
+
+    /**
+     * @return this + l * r, summands of the product are merged into the result as soon as they are computed
+     */
+    @NotNull
+    public Expression addProduct(@NotNull Expression l, @NotNull Expression r) {
+        return ExpressionMultiplicator.instance.multiplyAdd(this, l, r, false);
+    }
+
+    /**
+     * @return this - l * r, summands of the product are merged into the result as soon as they are computed
+     */
+    @NotNull
+    public Expression subtractProduct(@NotNull Expression l, @NotNull Expression r) {
+        return ExpressionMultiplicator.instance.multiplyAdd(this, l, r, true);
+    }
+
+    /*
+   * *********************************************************************
+   *
+   *                         SCALAR OPERATIONS
+   *
+   * *********************************************************************
+    */
+
+    // true if expression consists of one summand with empty literal
+    private boolean isConstantSummand() {
+        return size == 1 && literals[0].getSize() == 0;
+    }
+
+    /**
+     * Adds non-zero constant: only summand with empty literal changes (it is the first one as empty literal is the
+     * smallest), literals are shared with this expression if number of summands stays the same
+     */
+    @NotNull
+    private Expression addConstant(@NotNull GenericInteger c) {
+        if (size > 0 && literals[0].getSize() == 0) {
+            final GenericInteger sum = getCoefficient(0).add(c);
+            if (sum.isZero()) {
+                // constant summand vanishes
+                return new Expression(size - 1,
+                        Arrays.copyOfRange(coefficients, 1, size),
+                        copyOfRange(bigCoefficients, 1, size, 0),
+                        Arrays.copyOfRange(literals, 1, size),
+                        context);
+            } else {
+                final long[] newCoefficients = Arrays.copyOf(coefficients, size);
+                BigInteger[] newBigCoefficients = copyOfRange(bigCoefficients, 0, size, 0);
+                if (sum.isSmall()) {
+                    newCoefficients[0] = sum.longValue();
+                    if (newBigCoefficients != null) {
+                        newBigCoefficients[0] = null;
+                    }
+                } else {
+                    if (newBigCoefficients == null) {
+                        newBigCoefficients = new BigInteger[size];
+                    }
+                    newBigCoefficients[0] = sum.getContent();
+                }
+                return new Expression(size, newCoefficients, newBigCoefficients, literals, context);
+            }
         } else {
-            return that.multiply(this);
+            // new first summand
+            final long[] newCoefficients = new long[size + 1];
+            System.arraycopy(coefficients, 0, newCoefficients, 1, size);
+
+            BigInteger[] newBigCoefficients = copyOfRange(bigCoefficients, 0, size, 1);
+            if (c.isSmall()) {
+                newCoefficients[0] = c.longValue();
+            } else {
+                if (newBigCoefficients == null) {
+                    newBigCoefficients = new BigInteger[size + 1];
+                }
+                newBigCoefficients[0] = c.getContent();
+            }
+
+            final Literal[] newLiterals = new Literal[size + 1];
+            newLiterals[0] = Literal.newEmpty();
+            System.arraycopy(literals, 0, newLiterals, 1, size);
+
+            return new Expression(size + 1, newCoefficients, newBigCoefficients, newLiterals, context);
+        }
+    }
+
+    // copies elements [from, to) to the new array starting from offset, returns null if all copied elements are null
+    @Nullable
+    private static BigInteger[] copyOfRange(@Nullable BigInteger[] array, int from, int to, int offset) {
+        if (array != null) {
+            for (int i = from; i < to; i++) {
+                if (array[i] != null) {
+                    final BigInteger[] result = new BigInteger[offset + to - from];
+                    System.arraycopy(array, from, result, offset, to - from);
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Multiplies each coefficient by non-zero <var>c</var>, literals are shared with this expression
+     */
+    @NotNull
+    private Expression scale(@NotNull GenericInteger c) {
+        final long[] newCoefficients = new long[size];
+        BigInteger[] newBigCoefficients = null;
+
+        final boolean small = c.isSmall();
+        final long m = c.longValue();
+        final BigInteger bigM = c.getContent();
+
+        for (int i = 0; i < size; i++) {
+            if (small && isSmallCoefficient(i)) {
+                final long a = coefficients[i];
+                final long p = a * m;
+                if (!GenericUtils.multiplyOverflows(a, m, p)) {
+                    newCoefficients[i] = p;
+                    continue;
+                }
+            }
+
+            final BigInteger p = getCoefficient(i).getContent().multiply(bigM);
+            if (p.bitLength() < Long.SIZE) {
+                newCoefficients[i] = p.longValue();
+            } else {
+                if (newBigCoefficients == null) {
+                    newBigCoefficients = new BigInteger[size];
+                }
+                newBigCoefficients[i] = p;
+            }
         }
+
+        return new Expression(size, newCoefficients, newBigCoefficients, literals, context);
+    }
+
+    /*
+   * *********************************************************************
+   *
+   *                         POWER
+   *
+   * *********************************************************************
+    */
+
+    @NotNull
+    @Override
+    public Expression pow(int exponent) {
+        return ExpressionPower.instance.pow(this, exponent);
     }
 
     /*
@@ -295,41 +685,53 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic divide(@NotNull Generic that) throws NotDivisibleException {
+        final Generic result = tryDivide(that);
+        if (result != null) {
+            return result;
+        } else {
+            throw new NotDivisibleException();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Generic tryDivide(@NotNull Generic that) {
         final DivisionResult darr = divideAndRemainder(that);
         if (darr.getRemainder().isZero()) {
             // remainder 0 => can be divided
             return darr.getQuotient();
         } else {
-            throw new NotDivisibleException();
+            return null;
         }
     }
 
     @NotNull
     public DivisionResult divideAndRemainder(@NotNull Generic that) throws ArithmeticException {
-        if (that instanceof Expression) {
-            return divideAndRemainder((Expression) that);
-        } else if (that instanceof GenericInteger) {
-            return divideAndRemainder((GenericInteger) that);
-        } else if (that instanceof Rational) {
-            return divideAndRemainder((Rational) that);
-        } else if (that instanceof GenericNumeric) {
-            return divideAndRemainder((GenericNumeric) that);
-        } else {
-            return that.valueOf(this).divideAndRemainder(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return divideAndRemainder((Expression) that);
+            case GenericCoercion.INTEGER:
+                return divideAndRemainder((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+                return divideAndRemainder((Rational) that);
+            case GenericCoercion.NUMERIC:
+                return divideAndRemainder((GenericNumeric) that);
+            default:
+                return GenericCoercion.instance.divideAndRemainder(this, that);
         }
     }
 
     @NotNull
     public DivisionResult divideAndRemainder(@NotNull GenericInteger that) {
-        try {
-            final Builder b = new Builder(context, this.getSize());
-            for (Summand summand : summands) {
-                b.addSummand(summand.getCoefficient().divide(that), summand.getLiteral());
+        final Builder b = new Builder(context, size);
+        for (int i = 0; i < size; i++) {
+            final GenericInteger coefficient = getCoefficient(i).tryDivide(that);
+            if (coefficient == null) {
+                return DivisionResult.newInstance(context.getZero(), this);
             }
-            return DivisionResult.newInstance(b.build(), context.getZero());
-        } catch (NotDivisibleException e) {
-            return DivisionResult.newInstance(context.getZero(), this);
+            b.addSummand(coefficient, literals[i]);
         }
+        return DivisionResult.newInstance(b.build(), context.getZero());
     }
 
     @NotNull
@@ -343,33 +745,35 @@ public class Expression extends Generic implements Iterable<Summand> {
     }
 
     @NotNull
-    private DivisionResult divideAndRemainder(@NotNull Expression that) {
-        Literal thisLiteral = this.literalLcm();
-        Literal thatLiteral = that.literalLcm();
-
-        final Literal gcd = thisLiteral.gcd(thatLiteral);
-
-        final List<Variable> variables = gcd.getVariables();
-        if (variables.size() == 0) {
+    public DivisionResult divideAndRemainder(@NotNull Expression that) {
+        if (that.literalLcm().getSize() == 0) {
+            // constant divisor
             if (this.signum() == 0 && that.signum() != 0) {
                 return DivisionResult.newInstance(this, context.getZero());
             } else {
-                try {
-                    return divideAndRemainder((Generic) that.integerValue());
-                } catch (NotIntegerException e) {
-                    return DivisionResult.newInstance(context.getZero(), this);
-                }
+                return divideAndRemainder(that.integerValue());
             }
         } else {
-            throw new UnsupportedOperationException();
-
-            /*
-                           Polynomial fact = Polynomial.factory(variables[0]);
-                           Polynomial p[] = fact.valueOf(this).divideAndRemainder(fact.valueOf(ex));
-                           return new Generic[]{p[0].genericValue(), p[1].genericValue()};*/
+            return ExpressionDivider.instance.divideAndRemainder(this, that);
         }
     }
 
+    /**
+     * Pseudo division with respect to <var>variable</var>: <code>lc^(deg(this) - deg(that) + 1) * this = q * that + r</code>
+     * where <code>lc</code> is leading coefficient of <var>that</var> as polynomial in <var>variable</var>
+     *
+     * @return pseudo quotient and pseudo remainder
+     */
+    @NotNull
+    public DivisionResult<Expression> pseudoDivideAndRemainder(@NotNull Expression that, @NotNull Variable variable) {
+        return ExpressionDivider.instance.pseudoDivideAndRemainder(this, that, variable);
+    }
+
+    @NotNull
+    public Expression pseudoRemainder(@NotNull Expression that, @NotNull Variable variable) {
+        return pseudoDivideAndRemainder(that, variable).getRemainder();
+    }
+
     /*
    * *********************************************************************
    *
@@ -380,14 +784,16 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic gcd(@NotNull Generic that) {
-        if (that instanceof Expression) {
-            return gcd((Expression) that);
-        } else if (that instanceof GenericInteger) {
-            return gcd((GenericInteger)that);
-        } else if (that instanceof Rational || that instanceof GenericNumeric) {
-            return gcd(valueOf(that));
-        } else {
-            return that.valueOf(this).gcd(that);
+        switch (that.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return gcd((Expression) that);
+            case GenericCoercion.INTEGER:
+                return gcd((GenericInteger) that);
+            case GenericCoercion.RATIONAL:
+            case GenericCoercion.NUMERIC:
+                return gcd(valueOf(that));
+            default:
+                return GenericCoercion.instance.gcd(this, that);
         }
     }
 
@@ -409,8 +815,8 @@ public class Expression extends Generic implements Iterable<Summand> {
     public GenericInteger getIntegerGcd() {
         GenericInteger result = context.getZero();
 
-        for (Summand summand : CollectionsUtils.reversed(summands)) {
-            result = result.gcd(summand.getCoefficient());
+        for (int i = size - 1; i >= 0; i--) {
+            result = result.gcd(getCoefficient(i));
         }
 
         return result;
@@ -431,8 +837,8 @@ public class Expression extends Generic implements Iterable<Summand> {
         if (localLiteralLcm == null) {
             localLiteralLcm = Literal.newEmpty();
 
-            for (Summand summand : summands) {
-                localLiteralLcm = localLiteralLcm.lcm(summand.getLiteral());
+            for (int i = 0; i < size; i++) {
+                localLiteralLcm = localLiteralLcm.lcm(literals[i]);
             }
 
             // do not care about synchronization as all objects are immutable
@@ -443,12 +849,12 @@ public class Expression extends Generic implements Iterable<Summand> {
     }
 
     @NotNull
-    public Generic negate() {
-        return multiply(context.newInteger(-1L));
+    public Expression negate() {
+        return scale(context.getMinusOne());
     }
 
     public int signum() {
-        return getSize() == 0 ? 0 : summands.get(0).getCoefficient().signum();
+        return getSize() == 0 ? 0 : getCoefficient(0).signum();
     }
 
     public Generic antiDerivative(@NotNull Variable v) throws NotIntegrableException {
@@ -528,9 +934,13 @@ public class Expression extends Generic implements Iterable<Summand> {
     @NotNull
     private Generic substitute(@NotNull Map<Variable, Generic> content) {
         // sum = sumElement_0 + sumElement_1 + ... + sumElement_size
-        Generic sum = context.getZero();
+        final ExpressionAccumulator sum = new ExpressionAccumulator(context);
+        boolean polynomial = false;
+
+        // sum elements which are neither integers nor expressions
+        Generic rest = null;
 
-        for (Summand summand : summands) {
+        for (Summand summand : this) {
             final Literal literal = summand.getLiteral();
 
             // sumElement = variable_1 ^ power_1 * variable_2 ^ power_2 * ... * variable_size ^ power_size
@@ -548,11 +958,31 @@ public class Expression extends Generic implements Iterable<Summand> {
                 sumElement = sumElement.multiply(b);
             }
 
-            sum = sum.add(sumElement);
+            switch (sumElement.getTypeTag()) {
+                case GenericCoercion.EXPRESSION:
+                    sum.add((Expression) sumElement);
+                    polynomial = true;
+                    break;
+                case GenericCoercion.INTEGER:
+                    sum.add((GenericInteger) sumElement, Literal.newEmpty());
+                    break;
+                default:
+                    rest = rest == null ? sumElement : rest.add(sumElement);
+                    break;
+            }
         }
 
+        final Expression result = sum.build();
 
-        return sum;
+        Generic resultGeneric = result;
+        if (!polynomial) {
+            // only integers were added
+            final GenericInteger integer = result.tryIntegerValue();
+            assert integer != null;
+            resultGeneric = integer;
+        }
+
+        return rest == null ? resultGeneric : resultGeneric.add(rest);
     }
 
     @NotNull
@@ -579,9 +1009,10 @@ public class Expression extends Generic implements Iterable<Summand> {
 
     @NotNull
     public Generic numeric() {
-        try {
-            return integerValue().numeric();
-        } catch (NotIntegerException ex) {
+        final GenericInteger integer = tryIntegerValue();
+        if (integer != null) {
+            return integer.numeric();
+        } else {
             final Literal literal = literalLcm();
 
             final Map<Variable, Generic> content = literal.content(NUMERIC_CONVERTER);
@@ -594,7 +1025,7 @@ public class Expression extends Generic implements Iterable<Summand> {
     public List<Expression> sumValue() {
         final List<Expression> result = new ArrayList<Expression>(getSize());
 
-        for (Summand summand : summands) {
+        for (Summand summand : this) {
             final Builder b = new Builder(context, 1);
             b.addSummand(summand);
             result.add(b.build());
@@ -609,10 +1040,10 @@ public class Expression extends Generic implements Iterable<Summand> {
         if (size == 0) {
             return Arrays.asList(context.getZero());
         } else if (size == 1) {
-            final Summand s = this.summands.get(0);
+            final Summand s = getSummand(0);
             return s.productValue();
         } else {
-            throw new NotProductException();
+            throw NotProductException.instance;
         }
     }
 
@@ -631,40 +1062,46 @@ public class Expression extends Generic implements Iterable<Summand> {
         return this;
     }
 
-/*    @Override
-    public boolean isInteger() {
-        try {
-            integerValue();
-            return true;
-        } catch (NotIntegerException e) {
-            return false;
-        }
-    }*/
-
     @NotNull
     public GenericInteger integerValue() throws NotIntegerException {
-        int size = getSize();
+        final GenericInteger result = tryIntegerValue();
+        if (result != null) {
+            return result;
+        } else {
+            throw NotIntegerException.instance;
+        }
+    }
+
+    @Nullable
+    @Override
+    public GenericInteger tryIntegerValue() {
         if (size == 0) {
             return context.getZero();
+        } else if (size == 1 && literals[0].getSize() == 0) {
+            return getCoefficient(0);
         } else {
-            GenericInteger result = context.getZero();
-            for (Summand summand : summands) {
-                result = result.add(summand.integerValue());
-            }
-            return result;
+            // summands have different literals => at most one of them is constant
+            return null;
         }
     }
 
     @NotNull
     public Variable variableValue() throws NotVariableException {
-        int size = getSize();
-        if (size == 0) {
-            throw new NotVariableException();
-        } else if (size == 1) {
-            final Summand s = this.summands.get(0);
-            return s.variableValue();
+        final Variable result = tryVariableValue();
+        if (result != null) {
+            return result;
         } else {
-            throw new NotVariableException();
+            throw NotVariableException.instance;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Variable tryVariableValue() {
+        if (size == 1 && isSmallCoefficient(0) && getSmallCoefficient(0) == 1L) {
+            return literals[0].tryVariableValue();
+        } else {
+            return null;
         }
     }
 
@@ -732,12 +1169,15 @@ public class Expression extends Generic implements Iterable<Summand> {
     }
 
     public int compareTo(@NotNull Generic generic) {
-        if (generic instanceof Expression) {
-            return compareTo((Expression) generic);
-        } else if (generic instanceof GenericInteger || generic instanceof Rational || generic instanceof GenericNumeric) {
-            return compareTo(valueOf(generic));
-        } else {
-            return generic.valueOf(this).compareTo(generic);
+        switch (generic.getTypeTag()) {
+            case GenericCoercion.EXPRESSION:
+                return compareTo((Expression) generic);
+            case GenericCoercion.INTEGER:
+            case GenericCoercion.RATIONAL:
+            case GenericCoercion.NUMERIC:
+                return compareTo(valueOf(generic));
+            default:
+                return GenericCoercion.instance.compare(this, generic);
         }
     }
 
@@ -820,7 +1260,7 @@ public class Expression extends Generic implements Iterable<Summand> {
 
         // result = coef[0] * literal[0] + coef[1] * literal[1] + ... +
         boolean first = true;
-        for (Summand summand : summands) {
+        for (Summand summand : this) {
             final Literal literal = summand.getLiteral();
             final GenericInteger coefficient = summand.getCoefficient();
 
@@ -854,7 +1294,7 @@ public class Expression extends Generic implements Iterable<Summand> {
         }
 
         boolean first = true;
-        for (Summand summand : summands) {
+        for (Summand summand : this) {
             Literal l = summand.getLiteral();
             GenericInteger en = summand.getCoefficient();
             if (first) {
@@ -887,7 +1327,7 @@ public class Expression extends Generic implements Iterable<Summand> {
         }
 
         boolean first = true;
-        for (Summand summand : summands) {
+        for (Summand summand : this) {
             Literal l = summand.getLiteral();
             GenericInteger en = summand.getCoefficient();
             if (en.signum() > 0 && !first) {
@@ -917,7 +1357,7 @@ public class Expression extends Generic implements Iterable<Summand> {
         if (getSize() == 0) {
             return true;
         } else {
-            for (Summand summand : summands) {
+            for (Summand summand : this) {
                 if (!summand.isZero()) {
                     return false;
                 }
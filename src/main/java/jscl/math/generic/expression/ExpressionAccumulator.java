@@ -0,0 +1,132 @@
+package jscl.math.generic.expression;
+
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Mutable sum of expressions based on geometric buckets (Yan, "The geobucket data structure for polynomials"):
+ * k-th bucket holds expression with at most 4^(k+1) summands. Added expression is merged into the bucket of its size
+ * and the bucket which overflows is merged into the next one => each summand takes part in O(log(n)) merges of
+ * expressions of comparable sizes instead of being merged into the whole accumulated sum on each addition.
+ * <p/>
+ * Single summands are appended to the mutable lowest bucket without any ordering, it is sorted and merged into the
+ * other buckets only when it overflows.
+ * <p/>
+ * Result is built once by {@link #build()}.
+ */
+public final class ExpressionAccumulator {
+
+    private static final int BUCKET_RATIO = 4;
+
+    // number of unsorted summands in the lowest bucket
+    private static final int LOW_CAPACITY = 64;
+
+    @NotNull
+    private final GenericContext context;
+
+    // null elements are empty buckets
+    @NotNull
+    private Expression[] buckets = new Expression[4];
+
+    // null if empty
+    @Nullable
+    private Expression.Builder low;
+
+    private int lowSize = 0;
+
+    public ExpressionAccumulator(@NotNull GenericContext context) {
+        this.context = context;
+    }
+
+    public void add(@NotNull Summand summand) {
+        add(summand.getCoefficient(), summand.getLiteral());
+    }
+
+    public void add(@NotNull GenericInteger coefficient, @NotNull Literal literal) {
+        if (!coefficient.isZero()) {
+            if (low == null) {
+                low = new Expression.Builder(context, LOW_CAPACITY);
+            }
+            low.addSummand(coefficient, literal);
+
+            if (++lowSize == LOW_CAPACITY) {
+                flushLow();
+            }
+        }
+    }
+
+    private void flushLow() {
+        if (low != null) {
+            final Expression summands = low.build();
+            low = null;
+            lowSize = 0;
+            add(ExpressionSummizer.instance.normalize(summands));
+        }
+    }
+
+    public void add(@NotNull Expression e) {
+        if (e.getSize() == 0) {
+            return;
+        }
+
+        int k = bucketOf(e.getSize());
+        while (true) {
+            if (k >= buckets.length) {
+                buckets = Arrays.copyOf(buckets, Math.max(k + 1, 2 * buckets.length));
+            }
+
+            final Expression bucket = buckets[k];
+            if (bucket != null) {
+                e = bucket.add(e);
+            }
+
+            if (e.getSize() <= capacity(k)) {
+                buckets[k] = e.getSize() == 0 ? null : e;
+                break;
+            } else {
+                // overflow => move to the next bucket
+                buckets[k] = null;
+                k++;
+            }
+        }
+    }
+
+    /**
+     * @return sum of all added expressions, accumulator is empty after this call
+     */
+    @NotNull
+    public Expression build() {
+        flushLow();
+
+        Expression result = null;
+
+        // from small to big: each merge is dominated by the bigger bucket
+        for (int k = 0; k < buckets.length; k++) {
+            final Expression bucket = buckets[k];
+            if (bucket != null) {
+                result = result == null ? bucket : result.add(bucket);
+                buckets[k] = null;
+            }
+        }
+
+        return result == null ? Expression.newEmpty(context) : result;
+    }
+
+    private static int bucketOf(int size) {
+        int k = 0;
+        while (size > capacity(k)) {
+            k++;
+        }
+        return k;
+    }
+
+    private static long capacity(int k) {
+        // 4^(k+1)
+        return k >= 30 ? Long.MAX_VALUE : ((long) BUCKET_RATIO) << (2 * k);
+    }
+}
@@ -1,12 +1,9 @@
 package jscl.math.generic.expression;
 
-import jscl.util.MutableInt;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Comparator;
 
-import static jscl.math.generic.expression.ExpressionUtils.getPrev;
-
 /**
  * User: serso
  * Date: 3/3/12
@@ -17,42 +14,38 @@ public enum ExpressionComparator implements Comparator<Expression>{
     instance;
 
     public int compare(@NotNull Expression l, @NotNull Expression r) {
-        final MutableInt li = new MutableInt(l.getSize() - 1);
-        final MutableInt ri = new MutableInt(r.getSize() - 1);
-
-        Summand ls = getPrev(l, li);
-        Summand rs = getPrev(r, ri);
-
-        while (ls != null || rs != null) {
-            int c;
+        // compare from the leading summands
+        int i = l.getSize() - 1;
+        int j = r.getSize() - 1;
+
+        while (i >= 0 && j >= 0) {
+            int c = l.getLiteral(i).compareTo(r.getLiteral(j));
+            if (c != 0) {
+                return c < 0 ? -1 : 1;
+            }
 
-            if (ls == null) {
-                c = -1;
-            } else if (rs == null) {
-                c = 1;
+            if (l.isSmallCoefficient(i) && r.isSmallCoefficient(j)) {
+                final long a = l.getSmallCoefficient(i);
+                final long b = r.getSmallCoefficient(j);
+                c = a < b ? -1 : (a > b ? 1 : 0);
             } else {
-                c = ls.getLiteral().compareTo(rs.getLiteral());
+                c = l.getCoefficient(i).compareTo(r.getCoefficient(j));
             }
 
-            if (c < 0) {
-                return -1;
-            } else if (c > 0) {
-                return 1;
-            } else {
-                assert rs != null;
-                assert ls != null;
-
-                c = ls.getCoefficient().compareTo(rs.getCoefficient());
-                if (c < 0) {
-                    return -1;
-                } else if (c > 0) {
-                    return 1;
-                }
-                
-                ls = getPrev(l, li);
-                rs = getPrev(r, ri);
+            if (c != 0) {
+                return c < 0 ? -1 : 1;
             }
+
+            i--;
+            j--;
+        }
+
+        if (i >= 0) {
+            return 1;
+        } else if (j >= 0) {
+            return -1;
+        } else {
+            return 0;
         }
-        return 0;
     }
 }
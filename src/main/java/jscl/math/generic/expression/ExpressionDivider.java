@@ -0,0 +1,260 @@
+package jscl.math.generic.expression;
+
+import jscl.math.Variable;
+import jscl.math.generic.DivisionResult;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.expression.literal.Literal;
+import jscl.math.generic.expression.literal.Productand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sparse division of expressions with integer coefficients.
+ * <p/>
+ * {@link #divideAndRemainder(Expression, Expression)} is the heap division (Johnson, Monagan-Pearce): terms of
+ * <code>dividend - quotient * divisor</code> are generated in descending literal order from the heap which holds
+ * one pending product per quotient term, each term is either divided by the leading term of the divisor (and
+ * becomes a quotient term) or goes to the remainder. Dividend is never rewritten => cost depends on the number
+ * of terms of quotient and remainder and not on the number of intermediate subtractions.
+ * <p/>
+ * {@link #pseudoDivideAndRemainder(Expression, Expression, Variable)} computes pseudo quotient and remainder with
+ * respect to one variable, all intermediate coefficients stay integer.
+ */
+enum ExpressionDivider {
+
+    instance;
+
+    /**
+     * Divides <var>l</var> by <var>r</var>: <code>l = q * r + s</code>, summand of <var>l</var> goes to the quotient
+     * if both its literal and its coefficient are divisible by leading literal and coefficient of <var>r</var>.
+     *
+     * @param l dividend
+     * @param r non-zero divisor
+     * @return quotient and remainder
+     */
+    @NotNull
+    public DivisionResult<Expression> divideAndRemainder(@NotNull Expression l, @NotNull Expression r) {
+        final DivisionResult<Expression> result = divideAndRemainder(l, r, false);
+        assert result != null;
+        return result;
+    }
+
+    /**
+     * @return true if <var>r</var> divides <var>l</var> exactly (the check stops at first summand of the remainder)
+     */
+    public boolean isDivisor(@NotNull Expression r, @NotNull Expression l) {
+        return divideAndRemainder(l, r, true) != null;
+    }
+
+    @Nullable
+    private DivisionResult<Expression> divideAndRemainder(@NotNull Expression l, @NotNull Expression r, boolean exact) {
+        final GenericContext context = l.getContext();
+
+        final int rSize = r.getSize();
+        if (rSize == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+
+        // summands of divisor in descending order: leading summand has index 0
+        final Summand rLt = r.getSummand(rSize - 1);
+
+        // quotient and remainder are generated in descending order
+        final List<Summand> quotient = new ArrayList<Summand>();
+        final List<Summand> remainder = new ArrayList<Summand>();
+
+        // entry (i, j) of the heap is product of i-th summand of the divisor (descending) and j-th summand of the quotient
+        final LiteralHeap heap = new LiteralHeap(16, false);
+
+        int k = l.getSize() - 1;
+        while (k >= 0 || !heap.isEmpty()) {
+            final Literal literal;
+            if (heap.isEmpty() || (k >= 0 && l.getLiteral(k).compareTo(heap.peekKey()) >= 0)) {
+                literal = l.getLiteral(k);
+            } else {
+                literal = heap.peekKey();
+            }
+
+            GenericInteger coefficient = context.getZero();
+            if (k >= 0 && l.getLiteral(k).compareTo(literal) == 0) {
+                coefficient = l.getCoefficient(k);
+                k--;
+            }
+
+            while (!heap.isEmpty() && heap.peekKey().compareTo(literal) == 0) {
+                final int i = heap.peekI();
+                final int j = heap.peekJ();
+                heap.pop();
+
+                coefficient = coefficient.subtract(r.getCoefficient(rSize - 1 - i).multiply(quotient.get(j).getCoefficient()));
+
+                if (i + 1 < rSize) {
+                    heap.push(product(r, i + 1, quotient.get(j)), i + 1, j);
+                }
+            }
+
+            if (!coefficient.isZero()) {
+                final Summand q = divide(coefficient, literal, rLt);
+                if (q != null) {
+                    quotient.add(q);
+                    if (rSize > 1) {
+                        heap.push(product(r, 1, q), 1, quotient.size() - 1);
+                    }
+                } else if (exact) {
+                    return null;
+                } else {
+                    remainder.add(Summand.newInstance(coefficient, literal));
+                }
+            }
+        }
+
+        return DivisionResult.newInstance(toExpression(quotient, context), toExpression(remainder, context));
+    }
+
+    @Nullable
+    private static Summand divide(@NotNull GenericInteger coefficient, @NotNull Literal literal, @NotNull Summand divisor) {
+        final Literal l = literal.tryDivide(divisor.getLiteral());
+        if (l == null) {
+            return null;
+        }
+
+        final GenericInteger q = coefficient.tryDivide(divisor.getCoefficient());
+        return q == null ? null : Summand.newInstance(q, l);
+    }
+
+    @NotNull
+    private static Literal product(@NotNull Expression r, int i, @NotNull Summand q) {
+        return r.getLiteral(r.getSize() - 1 - i).multiply(q.getLiteral());
+    }
+
+    @NotNull
+    private static Expression toExpression(@NotNull List<Summand> descending, @NotNull GenericContext context) {
+        final Expression.Builder result = new Expression.Builder(context, descending.size());
+        for (int i = descending.size() - 1; i >= 0; i--) {
+            result.addSummand(descending.get(i));
+        }
+        return result.build();
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           PSEUDO DIVISION
+    *
+    **********************************************************************
+    */
+
+    /**
+     * Pseudo division with respect to <var>variable</var>:
+     * <code>lc(r)^(deg(l) - deg(r) + 1) * l = q * r + s</code> where <code>deg(s) &lt; deg(r)</code>,
+     * <code>lc</code> and <code>deg</code> are leading coefficient and degree in <var>variable</var>.
+     * No rational numbers appear => no coefficient blow-up caused by denominators.
+     *
+     * @param l        dividend
+     * @param r        divisor, must depend on <var>variable</var>
+     * @param variable main variable
+     * @return pseudo quotient and pseudo remainder
+     */
+    @NotNull
+    public DivisionResult<Expression> pseudoDivideAndRemainder(@NotNull Expression l, @NotNull Expression r, @NotNull Variable variable) {
+        final GenericContext context = l.getContext();
+
+        final int rDegree = degree(r, variable);
+        if (rDegree <= 0) {
+            throw new ArithmeticException("Divisor must depend on " + variable.getName());
+        }
+
+        final Expression lc = coefficient(r, variable, rDegree);
+
+        Expression quotient = Expression.newEmpty(context);
+        Expression remainder = l;
+
+        int e = degree(l, variable) - rDegree + 1;
+        int degree;
+        while ((degree = degree(remainder, variable)) >= rDegree) {
+            // remainder = lc * remainder - lc(remainder) * v^(degree - rDegree) * r, leading terms cancel
+            final Expression t = shift(coefficient(remainder, variable, degree), variable, degree - rDegree);
+            quotient = quotient.multiply(lc).add(t);
+            remainder = remainder.multiply(lc).subtractProduct(t, r);
+            e--;
+        }
+
+        if (e > 0) {
+            // remaining multiplier, result must not depend on how fast the degree was dropping
+            Expression m = lc;
+            for (int i = 1; i < e; i++) {
+                m = m.multiply(lc);
+            }
+            quotient = quotient.multiply(m);
+            remainder = remainder.multiply(m);
+        }
+
+        return DivisionResult.newInstance(quotient, remainder);
+    }
+
+    static int degree(@NotNull Expression e, @NotNull Variable variable) {
+        if (e.getSize() == 0) {
+            return -1;
+        }
+
+        int result = 0;
+        for (Summand summand : e) {
+            result = Math.max(result, exponent(summand.getLiteral(), variable));
+        }
+        return result;
+    }
+
+    private static int exponent(@NotNull Literal literal, @NotNull Variable variable) {
+        for (Productand productand : literal) {
+            if (productand.getVariable().isIdentity(variable)) {
+                return productand.getExponent();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return coefficient of <code>variable^degree</code>
+     */
+    @NotNull
+    static Expression coefficient(@NotNull Expression e, @NotNull Variable variable, int degree) {
+        // literals differ only in variables other than <var>variable</var> => order of summands is kept
+        final Expression.Builder result = new Expression.Builder(e.getContext(), e.getSize());
+        for (Summand summand : e) {
+            final Literal literal = summand.getLiteral();
+            if (exponent(literal, variable) == degree) {
+                final Literal.Builder l = new Literal.Builder(literal.getSize());
+                for (Productand productand : literal) {
+                    if (!productand.getVariable().isIdentity(variable)) {
+                        l.addProductand(productand);
+                    }
+                }
+                result.addSummand(summand.getCoefficient(), l.build());
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * @return <code>e * variable^degree</code>
+     */
+    @NotNull
+    private static Expression shift(@NotNull Expression e, @NotNull Variable variable, int degree) {
+        if (degree == 0) {
+            return e;
+        } else {
+            final Literal.Builder l = new Literal.Builder(1);
+            l.addProductand(variable, degree);
+            final Literal literal = l.build();
+
+            final Expression.Builder result = new Expression.Builder(e.getContext(), e.getSize());
+            for (Summand summand : e) {
+                result.addSummand(summand.getCoefficient(), summand.getLiteral().multiply(literal));
+            }
+            return result.build();
+        }
+    }
+}
@@ -29,9 +29,7 @@ public enum ExpressionGcd {
                 return l.gcd(r.getIntegerGcd());
             }
         } else {
-            /*Polynomial p = Polynomial.factory(vars[0]);
-            return p.valueOf(this).gcd(p.valueOf(r)).genericValue();*/
-            throw new UnsupportedOperationException();
+            return ModularGcd.instance.gcd(l, r);
         }
 
     }
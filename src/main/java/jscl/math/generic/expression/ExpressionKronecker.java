@@ -0,0 +1,365 @@
+package jscl.math.generic.expression;
+
+import jscl.math.IntegerVariable;
+import jscl.math.Variable;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.expression.literal.Literal;
+import jscl.math.generic.expression.literal.Productand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+
+/**
+ * Multiplication of expressions by Kronecker substitution: x[k] = y^s[k] where s[0] = 1 and
+ * s[k] = s[k - 1] * (d[k - 1] + 1) (d[k] = maximum exponent of x[k] in the product found from {@link Expression#literalLcm()})
+ * maps each literal to distinct power of y, then y = 2^b maps each expression to one big integer whose b-bit digits are
+ * coefficients. Integers are multiplied by {@link GenericInteger#multiply(BigInteger, BigInteger, GenericContext)}
+ * (Toom-Cook or number theoretic transform) and digits of the product are coefficients of the product of expressions.
+ * <p/>
+ * Greatest variable has the greatest stride => order of powers of y is the order of literals and the product is read
+ * in ascending order without sorting.
+ * <p/>
+ * Digit width b leaves room for the biggest coefficient of the product and its sign: signed digits are read after
+ * 2^(b - 1) is added to each digit.
+ */
+enum ExpressionKronecker {
+
+    instance;
+
+    // smaller products are computed by sparse kernels
+    private static final long MIN_PRODUCTS = 4096;
+
+    // operand is packed only if at least 1 of SPARSITY powers of y has non zero coefficient
+    private static final long MAX_SPARSITY = 8;
+
+    // maximum number of bits of packed product
+    private static final long MAX_BITS = 1L << 28;
+
+    /**
+     * @return substitution for the product of <var>l</var> and <var>r</var> (to be passed to
+     *         {@link #multiply(Expression, Expression, Substitution)}) if the product is dense enough to be computed by
+     *         Kronecker substitution, null otherwise
+     */
+    @Nullable
+    public Substitution getSubstitution(@NotNull Expression l, @NotNull Expression r) {
+        if ((long) l.getSize() * r.getSize() < MIN_PRODUCTS) {
+            return null;
+        }
+
+        final Substitution s = Substitution.newInstance(l, r);
+        if (s != null
+                && (s.lLength <= MAX_SPARSITY * l.getSize())
+                && (s.rLength <= MAX_SPARSITY * r.getSize())) {
+            return s;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return product of <var>l</var> and <var>r</var> or null if packed product is too big
+     */
+    @Nullable
+    public Expression multiply(@NotNull Expression l, @NotNull Expression r) {
+        if (l.getSize() == 0 || r.getSize() == 0) {
+            return Expression.newEmpty(l.getContext());
+        }
+
+        final Substitution s = Substitution.newInstance(l, r);
+        return s == null ? null : multiply(l, r, s);
+    }
+
+    /**
+     * @param s substitution for the product of non empty <var>l</var> and <var>r</var>, see
+     *          {@link #getSubstitution(Expression, Expression)}
+     * @return product of <var>l</var> and <var>r</var> or null if packed product is too big
+     */
+    @Nullable
+    public Expression multiply(@NotNull Expression l, @NotNull Expression r, @NotNull Substitution s) {
+        final GenericContext context = l.getContext();
+
+        // |c| < min(rows, columns) * 2^(lBits + rBits) < 2^(bits - 1)
+        final int bits = maxBitLength(l) + maxBitLength(r) + (Integer.SIZE - Integer.numberOfLeadingZeros(Math.min(l.getSize(), r.getSize()))) + 1;
+
+        final long length = s.lLength + s.rLength - 1;
+        if (length > MAX_BITS / bits) {
+            return null;
+        }
+
+        final BigInteger product = GenericInteger.multiply(pack(l, s, bits), pack(r, s, bits), context);
+
+        // each digit is shifted by 2^(bits - 1) => all digits are non negative
+        final long[] offset = new long[words(length * bits)];
+        for (long i = 0; i < length; i++) {
+            final long bit = i * bits + bits - 1;
+            offset[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        final long[] words = toWords(product.add(fromWords(offset)), offset.length);
+
+        final Expression.Builder result = new Expression.Builder(context, (int) Math.min(length, (long) l.getSize() * r.getSize()));
+        final BigInteger half = BigInteger.ONE.shiftLeft(bits - 1);
+        for (long i = 0; i < length; i++) {
+            final long position = i * bits;
+            if (bits < Long.SIZE) {
+                final long c = getBits(words, position, bits) - (1L << (bits - 1));
+                if (c != 0L) {
+                    result.addSummand(c, s.literal((int) i));
+                }
+            } else {
+                final BigInteger c = getBigBits(words, position, bits).subtract(half);
+                if (c.signum() != 0) {
+                    result.addSummand(GenericInteger.newInstance(c, context), s.literal((int) i));
+                }
+            }
+        }
+        return result.build();
+    }
+
+    private static int maxBitLength(@NotNull Expression e) {
+        int result = 0;
+        for (int i = 0; i < e.getSize(); i++) {
+            if (e.isSmallCoefficient(i)) {
+                final long c = e.getSmallCoefficient(i);
+                // |Long.MIN_VALUE| needs all 64 bits
+                result = Math.max(result, c == Long.MIN_VALUE ? Long.SIZE : Long.SIZE - Long.numberOfLeadingZeros(Math.abs(c)));
+            } else {
+                result = Math.max(result, e.getCoefficient(i).getContent().abs().bitLength());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return sum of c[i] * 2^(bits * index(literal[i]))
+     */
+    @NotNull
+    private static BigInteger pack(@NotNull Expression e, @NotNull Substitution s, int bits) {
+        final int size = words((s.lLength + s.rLength) * bits);
+        final long[] positive = new long[size];
+        long[] negative = null;
+
+        for (int i = 0; i < e.getSize(); i++) {
+            final long position = s.index(e.getLiteral(i)) * bits;
+
+            if (e.isSmallCoefficient(i)) {
+                final long c = e.getSmallCoefficient(i);
+                if (c > 0) {
+                    setBits(positive, position, c);
+                } else {
+                    if (negative == null) {
+                        negative = new long[size];
+                    }
+                    // two's complement of Long.MIN_VALUE is its absolute value if read as unsigned
+                    setBits(negative, position, -c);
+                }
+            } else {
+                final BigInteger c = e.getCoefficient(i).getContent();
+                final long[] magnitude = toWords(c.abs(), words(c.abs().bitLength()));
+                if (c.signum() > 0) {
+                    setBits(positive, position, magnitude);
+                } else {
+                    if (negative == null) {
+                        negative = new long[size];
+                    }
+                    setBits(negative, position, magnitude);
+                }
+            }
+        }
+
+        final BigInteger result = fromWords(positive);
+        return negative == null ? result : result.subtract(fromWords(negative));
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           BITS
+    *
+    **********************************************************************
+    */
+
+    private static int words(long bits) {
+        return (int) ((bits + Long.SIZE - 1) >>> 6);
+    }
+
+    // sets bits of unsigned value starting from position (bits are expected to be zero)
+    private static void setBits(@NotNull long[] words, long position, long value) {
+        final int word = (int) (position >>> 6);
+        final int shift = (int) (position & 63);
+
+        words[word] |= value << shift;
+        if (shift != 0 && (value >>> (Long.SIZE - shift)) != 0L) {
+            words[word + 1] |= value >>> (Long.SIZE - shift);
+        }
+    }
+
+    private static void setBits(@NotNull long[] words, long position, @NotNull long[] value) {
+        for (int i = 0; i < value.length; i++) {
+            if (value[i] != 0L) {
+                setBits(words, position + (long) i * Long.SIZE, value[i]);
+            }
+        }
+    }
+
+    // bits must not be greater than 64
+    private static long getBits(@NotNull long[] words, long position, int bits) {
+        final int word = (int) (position >>> 6);
+        final int shift = (int) (position & 63);
+
+        long result = words[word] >>> shift;
+        if (shift + bits > Long.SIZE) {
+            result |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return bits == Long.SIZE ? result : result & ((1L << bits) - 1);
+    }
+
+    @NotNull
+    private static BigInteger getBigBits(@NotNull long[] words, long position, int bits) {
+        final long[] result = new long[words(bits)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getBits(words, position + (long) i * Long.SIZE, Math.min(Long.SIZE, bits - i * Long.SIZE));
+        }
+        return fromWords(result);
+    }
+
+    // little-endian words of non negative integer
+    @NotNull
+    private static long[] toWords(@NotNull BigInteger value, int size) {
+        final byte[] bytes = value.toByteArray();
+        final long[] result = new long[Math.max(size, (bytes.length + 7) / 8)];
+        for (int i = 0; i < bytes.length; i++) {
+            // bytes are big-endian
+            final int b = bytes.length - 1 - i;
+            result[i >>> 3] |= (bytes[b] & 0xFFL) << ((i & 7) * 8);
+        }
+        return result;
+    }
+
+    @NotNull
+    private static BigInteger fromWords(@NotNull long[] words) {
+        final byte[] bytes = new byte[words.length * 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) (words[i >>> 3] >>> ((i & 7) * 8));
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           SUBSTITUTION
+    *
+    **********************************************************************
+    */
+
+    /**
+     * Map of literals to exponents of y
+     */
+    static final class Substitution {
+
+        // all variables of both operands in ascending order
+        @NotNull
+        private final Variable[] variables;
+
+        // strides[k] = exponent of y which replaces variables[k]
+        @NotNull
+        private final long[] strides;
+
+        // number of powers of y in packed operands: index of literal lcm + 1
+        private final long lLength;
+
+        private final long rLength;
+
+        private Substitution(@NotNull Variable[] variables, @NotNull long[] strides, @NotNull Literal lLcm, @NotNull Literal rLcm) {
+            this.variables = variables;
+            this.strides = strides;
+            this.lLength = index(lLcm) + 1;
+            this.rLength = index(rLcm) + 1;
+        }
+
+        /**
+         * @return substitution for the product of <var>l</var> and <var>r</var> or null if the product has too many
+         *         possible literals
+         */
+        @Nullable
+        private static Substitution newInstance(@NotNull Expression l, @NotNull Expression r) {
+            final Literal lLcm = l.literalLcm();
+            final Literal rLcm = r.literalLcm();
+
+            final Variable[] variables = new Variable[lLcm.getSize() + rLcm.getSize()];
+            final int[] degrees = new int[variables.length];
+
+            // merge of variables, degree of variable in the product is sum of degrees in operands
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < lLcm.getSize() || j < rLcm.getSize()) {
+                final Productand lp = i < lLcm.getSize() ? lLcm.getProductand(i) : null;
+                final Productand rp = j < rLcm.getSize() ? rLcm.getProductand(j) : null;
+
+                final int c = lp == null ? 1 : (rp == null ? -1 : IntegerVariable.compare(lp.getVariable(), rp.getVariable()));
+                if (c < 0) {
+                    variables[size] = lp.getVariable();
+                    degrees[size++] = lp.getExponent();
+                    i++;
+                } else if (c > 0) {
+                    variables[size] = rp.getVariable();
+                    degrees[size++] = rp.getExponent();
+                    j++;
+                } else {
+                    variables[size] = lp.getVariable();
+                    degrees[size++] = lp.getExponent() + rp.getExponent();
+                    i++;
+                    j++;
+                }
+            }
+
+            final long[] strides = new long[size];
+            long stride = 1L;
+            for (int k = 0; k < size; k++) {
+                strides[k] = stride;
+                if (stride > MAX_BITS / (degrees[k] + 1L)) {
+                    return null;
+                }
+                stride *= degrees[k] + 1L;
+            }
+
+            final Variable[] trimmed = new Variable[size];
+            System.arraycopy(variables, 0, trimmed, 0, size);
+            return new Substitution(trimmed, strides, lLcm, rLcm);
+        }
+
+        private long index(@NotNull Literal literal) {
+            long result = 0L;
+
+            int k = 0;
+            for (int i = 0; i < literal.getSize(); i++) {
+                final Productand p = literal.getProductand(i);
+                while (IntegerVariable.compare(variables[k], p.getVariable()) != 0) {
+                    k++;
+                }
+                result += p.getExponent() * strides[k];
+            }
+
+            return result;
+        }
+
+        @NotNull
+        private Literal literal(int index) {
+            if (index == 0) {
+                return Literal.newEmpty();
+            }
+
+            final Literal.Builder result = new Literal.Builder(variables.length);
+            for (int k = 0; k < variables.length; k++) {
+                final int exponent = (int) ((index / strides[k]) % (k + 1 < strides.length ? strides[k + 1] / strides[k] : Long.MAX_VALUE));
+                if (exponent != 0) {
+                    result.addProductand(variables[k], exponent);
+                }
+            }
+            return result.build();
+        }
+    }
+}
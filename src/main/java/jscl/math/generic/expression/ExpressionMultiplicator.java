@@ -0,0 +1,705 @@
+package jscl.math.generic.expression;
+
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.GenericUtils;
+import jscl.math.generic.expression.literal.Literal;
+import jscl.math.generic.expression.literal.PackedLiterals;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sparse multiplication of expressions based on the heap of pairwise products (Johnson, Monagan-Pearce):
+ * product summands are generated in ascending literal order in one pass and equal literals are combined
+ * as soon as they leave the heap. Only one product per row of the smaller operand is kept in the heap
+ * and next row is started only when the first product of the previous row has been taken out.
+ * <p/>
+ * Square of expression is computed by the same scheme over the upper triangle of the product matrix: each cross
+ * product a[i] * a[j] (i &lt; j) is generated once and then doubled.
+ * <p/>
+ * Big products (see {@link GenericContext#getParallelMultiplicationThreshold()}) are computed in parallel: rows are
+ * split between workers of the {@link GenericContext#getForkJoinPool()}.
+ * <p/>
+ * Dense products (where most of pairwise products have equal literals) are accumulated in hash table instead of heap,
+ * big dense products are computed by Kronecker substitution (see {@link ExpressionKronecker}).
+ */
+enum ExpressionMultiplicator {
+
+    instance;
+
+    // each worker gets several chunks of rows => workers which finish earlier steal the rest
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    // rows of one chunk, smaller chunks don't pay for merging of partial products
+    private static final int MIN_CHUNK_ROWS = 16;
+
+    // smaller products are always computed by heap multiplication
+    private static final long DENSE_MIN_PRODUCTS = 1024;
+
+    // maximum memory of the hash table of dense multiplication (keys and coefficients)
+    private static final long DENSE_MAX_BYTES = 1L << 26;
+
+    @NotNull
+    public Expression multiply(@NotNull Expression l, @NotNull Expression r) {
+        final long products = (long) l.getSize() * r.getSize();
+
+        final ExpressionKronecker.Substitution substitution = ExpressionKronecker.instance.getSubstitution(l, r);
+        if (substitution != null) {
+            final Expression result = ExpressionKronecker.instance.multiply(l, r, substitution);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // dense products are checked before parallel ones on purpose: table does O(1) work per pairwise product and
+        // touches only O(size of the product) memory while workers do heap multiplication (log factor per product)
+        // and merge partial products of the size of the product each
+        if (products >= DENSE_MIN_PRODUCTS) {
+            final PackedLiterals packed = pack(l, r);
+            if (packed != null && isDense(packed, l.getSize(), r.getSize())) {
+                return multiplyDense(l, r, packed);
+            }
+        }
+
+        final GenericContext context = l.getContext();
+        final ForkJoinPool pool = context.getForkJoinPool();
+        if (pool != null && products >= context.getParallelMultiplicationThreshold()) {
+            return multiplyParallel(l, r, pool);
+        } else {
+            return multiplyAdd(null, l, r, false);
+        }
+    }
+
+    /**
+     * Multiplies expressions by accumulation of products in hash table, see {@link #multiplyDense(Expression, Expression, PackedLiterals)}.
+     * Falls back to heap multiplication if literals cannot be packed or if the product is too big for the table
+     */
+    @NotNull
+    public Expression multiplyDense(@NotNull Expression l, @NotNull Expression r) {
+        final PackedLiterals packed = pack(l, r);
+        if (packed != null && fitsPacked(packed, l.getSize(), r.getSize())
+                && DenseTable.fits(packed.getWidth(), Math.min(estimateSize(packed, l.getSize(), r.getSize()), (long) l.getSize() * r.getSize()))) {
+            return multiplyDense(l, r, packed);
+        } else {
+            return multiplyAdd(null, l, r, false);
+        }
+    }
+
+    /**
+     * @return acc + l * r (or acc - l * r if <var>negate</var> is true), summands of the product are merged with
+     *         summands of <var>acc</var> as soon as they leave the heap => product is never built
+     */
+    @NotNull
+    public Expression multiplyAdd(@Nullable Expression acc, @NotNull Expression l, @NotNull Expression r, boolean negate) {
+        // rows are taken from smaller operand => smaller heap
+        if (l.getSize() > r.getSize()) {
+            final Expression tmp = l;
+            l = r;
+            r = tmp;
+        }
+
+        return multiplyAdd(acc, l, 0, l.getSize(), r, negate);
+    }
+
+    /**
+     * @return acc + l[from, to) * r (or acc - l[from, to) * r if <var>negate</var> is true) where l[from, to) is the
+     *         sum of summands of <var>l</var> with indices from <var>from</var> (inclusive) to <var>to</var> (exclusive)
+     */
+    @NotNull
+    private static Expression multiplyAdd(@Nullable Expression acc, @NotNull Expression l, int from, int to, @NotNull Expression r, boolean negate) {
+        final int rows = to - from;
+        final int columns = r.getSize();
+        final int accSize = acc == null ? 0 : acc.getSize();
+
+        if (rows == 0 || columns == 0) {
+            return acc == null ? Expression.newEmpty(l.getContext()) : acc;
+        }
+
+        final Expression.Builder result = new Expression.Builder(l.getContext(), rows + columns + accSize);
+
+        final LiteralHeap heap = new LiteralHeap(rows, true);
+        heap.push(product(l, r, from, 0), from, 0);
+
+        final CoefficientSum coefficient = new CoefficientSum();
+
+        int k = 0;
+        while (!heap.isEmpty()) {
+            final Literal literal = heap.peekKey();
+
+            coefficient.reset();
+
+            // summands of accumulator which are less than current product
+            while (k < accSize) {
+                final int c = acc.getLiteral(k).compareTo(literal);
+                if (c < 0) {
+                    ExpressionSummizer.copySummand(result, acc, k);
+                    k++;
+                } else {
+                    if (c == 0) {
+                        coefficient.add(acc, k);
+                        k++;
+                    }
+                    break;
+                }
+            }
+
+            do {
+                final int i = heap.peekI();
+                final int j = heap.peekJ();
+                heap.pop();
+
+                coefficient.addProduct(l, i, r, j, negate);
+
+                if (j == 0 && i + 1 < to) {
+                    heap.push(product(l, r, i + 1, 0), i + 1, 0);
+                }
+
+                if (j + 1 < columns) {
+                    heap.push(product(l, r, i, j + 1), i, j + 1);
+                }
+            } while (!heap.isEmpty() && heap.peekKey().compareTo(literal) == 0);
+
+            coefficient.addTo(result, literal, l.getContext());
+        }
+
+        while (k < accSize) {
+            ExpressionSummizer.copySummand(result, acc, k);
+            k++;
+        }
+
+        return result.build();
+    }
+
+    /**
+     * Rows of the smaller operand are split into chunks, product of each chunk and the bigger operand is computed by
+     * heap multiplication in the worker of the <var>pool</var> and sorted partial products are merged by one k-way merge.
+     * All coefficients are exact => result is the same as the result of sequential multiplication.
+     */
+    @NotNull
+    private static Expression multiplyParallel(@NotNull Expression l, @NotNull Expression r, @NotNull ForkJoinPool pool) {
+        if (l.getSize() > r.getSize()) {
+            final Expression tmp = l;
+            l = r;
+            r = tmp;
+        }
+
+        final int rows = l.getSize();
+        final int chunk = Math.max(MIN_CHUNK_ROWS, rows / (CHUNKS_PER_WORKER * pool.getParallelism()));
+        if (rows <= chunk) {
+            return multiplyAdd(null, l, 0, rows, r, false);
+        }
+
+        final Expression[] products = new Expression[(rows + chunk - 1) / chunk];
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        GenericUtils.invoke(pool, new MultiplyTask(l, r, chunk, products, 0, products.length, cancelled), cancelled);
+
+        // one k-way merge instead of pairwise merges where each level copies the whole product
+        return Expression.sumAll(l.getContext(), Arrays.asList(products));
+    }
+
+    /**
+     * Computes products of chunks of rows: products[c] = l[c * chunk, (c + 1) * chunk) * r for c from <var>from</var>
+     * (inclusive) to <var>to</var> (exclusive)
+     */
+    private static final class MultiplyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final Expression l;
+
+        @NotNull
+        private final Expression r;
+
+        private final int chunk;
+
+        @NotNull
+        private final Expression[] products;
+
+        private final int from;
+
+        private final int to;
+
+        // set if the caller has been interrupted
+        @NotNull
+        private final AtomicBoolean cancelled;
+
+        private MultiplyTask(@NotNull Expression l, @NotNull Expression r, int chunk, @NotNull Expression[] products, int from, int to, @NotNull AtomicBoolean cancelled) {
+            this.l = l;
+            this.r = r;
+            this.chunk = chunk;
+            this.products = products;
+            this.from = from;
+            this.to = to;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            GenericUtils.checkCancellation(cancelled);
+
+            if (to - from == 1) {
+                products[from] = multiplyAdd(null, l, from * chunk, Math.min((from + 1) * chunk, l.getSize()), r, false);
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new MultiplyTask(l, r, chunk, products, from, middle, cancelled), new MultiplyTask(l, r, chunk, products, middle, to, cancelled));
+            }
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           DENSE PRODUCTS
+    *
+    **********************************************************************
+    */
+
+    /**
+     * Coefficients of all pairwise products are accumulated in open addressing hash table keyed by packed literals
+     * (product of literals = sum of keys), keys which survive are sorted once. In contrast to heap multiplication
+     * there is no log factor per product => faster if most of products collide (e.g. dense univariate polynomials).
+     *
+     * @param packed literals of <var>l</var> followed by literals of <var>r</var>, sums of exponents must fit into
+     *               packed fields (see {@link #fitsPacked(PackedLiterals, int, int)})
+     */
+    @NotNull
+    private static Expression multiplyDense(@NotNull Expression l, @NotNull Expression r, @NotNull PackedLiterals packed) {
+        final GenericContext context = l.getContext();
+        final int rows = l.getSize();
+        final int columns = r.getSize();
+        final int width = packed.getWidth();
+        final long[] words = packed.getWords();
+
+        final DenseTable table = new DenseTable(width, (int) Math.min(estimateSize(packed, rows, columns), (long) rows * columns));
+
+        final long[] key = new long[width];
+        for (int i = 0; i < rows; i++) {
+            final int lOffset = packed.getOffset(i);
+            final boolean lSmall = l.isSmallCoefficient(i);
+            final long a = lSmall ? l.getSmallCoefficient(i) : 0L;
+
+            for (int j = 0; j < columns; j++) {
+                final int rOffset = packed.getOffset(rows + j);
+                for (int w = 0; w < width; w++) {
+                    key[w] = words[lOffset + w] + words[rOffset + w];
+                }
+
+                final int slot = table.slot(key);
+                if (lSmall && r.isSmallCoefficient(j)) {
+                    final long b = r.getSmallCoefficient(j);
+                    final long p = a * b;
+                    if (!GenericUtils.multiplyOverflows(a, b, p)) {
+                        table.add(slot, p);
+                        continue;
+                    }
+                }
+                table.add(slot, l.getCoefficient(i).getContent().multiply(r.getCoefficient(j).getContent()));
+            }
+        }
+
+        final int[] slots = table.getNonZeroSlots();
+        table.sort(slots);
+
+        final Expression.Builder result = new Expression.Builder(context, slots.length);
+        for (int slot : slots) {
+            final Literal literal = packed.toLiteral(table.keys, slot * width);
+            if (table.states[slot] == DenseTable.BIG) {
+                result.addSummand(GenericInteger.newInstance(table.bigCoefficients[(int) table.coefficients[slot]], context), literal);
+            } else {
+                result.addSummand(table.coefficients[slot], literal);
+            }
+        }
+        return result.build();
+    }
+
+    @Nullable
+    private static PackedLiterals pack(@NotNull Expression l, @NotNull Expression r) {
+        final Literal[] lLiterals = new Literal[l.getSize()];
+        for (int i = 0; i < lLiterals.length; i++) {
+            lLiterals[i] = l.getLiteral(i);
+        }
+
+        final Literal[] rLiterals = new Literal[r.getSize()];
+        for (int j = 0; j < rLiterals.length; j++) {
+            rLiterals[j] = r.getLiteral(j);
+        }
+
+        return PackedLiterals.pack(lLiterals, lLiterals.length, rLiterals, rLiterals.length);
+    }
+
+    /**
+     * @return true if hash table multiplication is expected to be faster than heap multiplication: there are at least
+     *         as many pairwise products as possible literals of the product (=> each literal of the product collects
+     *         several pairwise products on average)
+     */
+    private static boolean isDense(@NotNull PackedLiterals packed, int rows, int columns) {
+        if (!fitsPacked(packed, rows, columns)) {
+            return false;
+        }
+
+        final long size = estimateSize(packed, rows, columns);
+        return size <= (long) rows * columns && DenseTable.fits(packed.getWidth(), size);
+    }
+
+    // true if exponents of all products fit into packed fields
+    private static boolean fitsPacked(@NotNull PackedLiterals packed, int rows, int columns) {
+        final int[] lMax = packed.getMaxExponents(0, rows);
+        final int[] rMax = packed.getMaxExponents(rows, rows + columns);
+
+        for (int f = 0; f < lMax.length; f++) {
+            if (lMax[f] + rMax[f] > PackedLiterals.getMaxFieldExponent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of literals in the box bounded by the sums of maximum exponents of the operands (upper bound of the
+     *         size of the product), {@link Long#MAX_VALUE} if too big
+     */
+    private static long estimateSize(@NotNull PackedLiterals packed, int rows, int columns) {
+        final int[] lMax = packed.getMaxExponents(0, rows);
+        final int[] rMax = packed.getMaxExponents(rows, rows + columns);
+
+        long result = 1L;
+        for (int f = 0; f < lMax.length; f++) {
+            final long exponents = lMax[f] + rMax[f] + 1L;
+            if (result > Long.MAX_VALUE / exponents) {
+                return Long.MAX_VALUE;
+            }
+            result *= exponents;
+        }
+        return result;
+    }
+
+    /**
+     * Open addressing hash table with linear probing: packed literal => coefficient. Coefficients which overflow long
+     * are rare => they are stored aside, slot keeps only index of such coefficient.
+     */
+    private static final class DenseTable {
+
+        private static final byte EMPTY = 0;
+
+        private static final byte SMALL = 1;
+
+        private static final byte BIG = 2;
+
+        // smaller ranges are sorted by insertion
+        private static final int INSERTION_SORT_MAX = 16;
+
+        private final int width;
+
+        private final int capacity;
+
+        // keys[slot * width, (slot + 1) * width) = packed literal of the slot
+        @NotNull
+        private final long[] keys;
+
+        @NotNull
+        private final byte[] states;
+
+        // value of SMALL coefficient or index of BIG coefficient in bigCoefficients
+        @NotNull
+        private final long[] coefficients;
+
+        @NotNull
+        private BigInteger[] bigCoefficients = new BigInteger[0];
+
+        private int bigSize = 0;
+
+        private DenseTable(int width, int expectedSize) {
+            this.width = width;
+            this.capacity = (int) getCapacity(expectedSize);
+            this.keys = new long[capacity * width];
+            this.states = new byte[capacity];
+            this.coefficients = new long[capacity];
+        }
+
+        // load factor <= 0.5 (capacity is not rounded to power of 2)
+        private static long getCapacity(long expectedSize) {
+            return Math.max(2L * expectedSize, 2L);
+        }
+
+        /**
+         * @return true if table for <var>expectedSize</var> keys of <var>width</var> words doesn't exceed {@link #DENSE_MAX_BYTES}
+         */
+        private static boolean fits(int width, long expectedSize) {
+            // key words, coefficient and state per slot
+            return expectedSize <= DENSE_MAX_BYTES && getCapacity(expectedSize) * (8L * (width + 1) + 1L) <= DENSE_MAX_BYTES;
+        }
+
+        /**
+         * @return slot of the key, new slot is taken if key is not in the table
+         */
+        private int slot(@NotNull long[] key) {
+            long hash = 0L;
+            for (int w = 0; w < width; w++) {
+                hash = (hash + key[w]) * 0x9E3779B97F4A7C15L;
+            }
+
+            // high bits of the hash are mixed best, multiplication maps them to [0, capacity)
+            int slot = (int) (((hash >>> 32) * capacity) >>> 32);
+            while (states[slot] != EMPTY) {
+                if (PackedLiterals.compare(keys, slot * width, key, 0, width) == 0) {
+                    return slot;
+                }
+                if (++slot == capacity) {
+                    slot = 0;
+                }
+            }
+
+            states[slot] = SMALL;
+            System.arraycopy(key, 0, keys, slot * width, width);
+            return slot;
+        }
+
+        private void add(int slot, long value) {
+            if (states[slot] == BIG) {
+                final int i = (int) coefficients[slot];
+                bigCoefficients[i] = bigCoefficients[i].add(BigInteger.valueOf(value));
+            } else {
+                final long a = coefficients[slot];
+                final long sum = a + value;
+                if (((a ^ sum) & (value ^ sum)) >= 0) {
+                    coefficients[slot] = sum;
+                } else {
+                    setBig(slot, BigInteger.valueOf(a).add(BigInteger.valueOf(value)));
+                }
+            }
+        }
+
+        private void add(int slot, @NotNull BigInteger value) {
+            if (states[slot] == BIG) {
+                final int i = (int) coefficients[slot];
+                bigCoefficients[i] = bigCoefficients[i].add(value);
+            } else {
+                setBig(slot, BigInteger.valueOf(coefficients[slot]).add(value));
+            }
+        }
+
+        private void setBig(int slot, @NotNull BigInteger value) {
+            if (bigSize == bigCoefficients.length) {
+                bigCoefficients = Arrays.copyOf(bigCoefficients, Math.max(16, 2 * bigSize));
+            }
+            bigCoefficients[bigSize] = value;
+            coefficients[slot] = bigSize++;
+            states[slot] = BIG;
+        }
+
+        @NotNull
+        private int[] getNonZeroSlots() {
+            int count = 0;
+            final int[] result = new int[capacity];
+            for (int slot = 0; slot < capacity; slot++) {
+                final byte state = states[slot];
+                if (state == BIG ? bigCoefficients[(int) coefficients[slot]].signum() != 0 : state == SMALL && coefficients[slot] != 0L) {
+                    result[count++] = slot;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        /**
+         * Sorts slots by their keys (merge sort)
+         */
+        private void sort(@NotNull int[] slots) {
+            sort(slots, new int[slots.length], 0, slots.length);
+        }
+
+        private void sort(@NotNull int[] slots, @NotNull int[] buffer, int from, int to) {
+            if (to - from <= INSERTION_SORT_MAX) {
+                for (int i = from + 1; i < to; i++) {
+                    final int slot = slots[i];
+                    int j = i - 1;
+                    while (j >= from && compare(slots[j], slot) > 0) {
+                        slots[j + 1] = slots[j];
+                        j--;
+                    }
+                    slots[j + 1] = slot;
+                }
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            sort(slots, buffer, from, middle);
+            sort(slots, buffer, middle, to);
+            if (compare(slots[middle - 1], slots[middle]) <= 0) {
+                // already sorted
+                return;
+            }
+
+            System.arraycopy(slots, from, buffer, from, to - from);
+            int i = from;
+            int j = middle;
+            for (int k = from; k < to; k++) {
+                if (j == to || (i < middle && compare(buffer[i], buffer[j]) <= 0)) {
+                    slots[k] = buffer[i++];
+                } else {
+                    slots[k] = buffer[j++];
+                }
+            }
+        }
+
+        private int compare(int l, int r) {
+            return PackedLiterals.compare(keys, l * width, keys, r * width, width);
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           SQUARE
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    public Expression square(@NotNull Expression e) {
+        final int size = e.getSize();
+
+        if (size == 0) {
+            return e;
+        }
+
+        final Expression.Builder result = new Expression.Builder(e.getContext(), 2 * size);
+
+        // row i contains products a[i] * a[j] for j >= i and starts with a[i] * a[i] which is greater than
+        // a[i - 1] * a[i] => row i is started when a[i - 1] * a[i] is taken out
+        final LiteralHeap heap = new LiteralHeap(size, true);
+        heap.push(product(e, e, 0, 0), 0, 0);
+
+        final CoefficientSum diagonal = new CoefficientSum();
+        final CoefficientSum cross = new CoefficientSum();
+
+        while (!heap.isEmpty()) {
+            final Literal literal = heap.peekKey();
+
+            diagonal.reset();
+            cross.reset();
+            do {
+                final int i = heap.peekI();
+                final int j = heap.peekJ();
+                heap.pop();
+
+                if (i == j) {
+                    diagonal.addProduct(e, i, e, j, false);
+                } else {
+                    cross.addProduct(e, i, e, j, false);
+                }
+
+                if (j == i + 1) {
+                    heap.push(product(e, e, j, j), j, j);
+                }
+
+                if (j + 1 < size) {
+                    heap.push(product(e, e, i, j + 1), i, j + 1);
+                }
+            } while (!heap.isEmpty() && heap.peekKey().compareTo(literal) == 0);
+
+            // 2 * cross + diagonal
+            cross.add(cross);
+            cross.add(diagonal);
+            cross.addTo(result, literal, e.getContext());
+        }
+
+        return result.build();
+    }
+
+    @NotNull
+    private static Literal product(@NotNull Expression l, @NotNull Expression r, int i, int j) {
+        return l.getLiteral(i).multiply(r.getLiteral(j));
+    }
+
+    /**
+     * Mutable sum of coefficients of the heap kernels: accumulated in long while possible, big integer is used only
+     * after overflow => no objects are created per product of small coefficients
+     */
+    private static final class CoefficientSum {
+
+        private long small;
+
+        // null while the sum fits into small
+        @Nullable
+        private BigInteger big;
+
+        private void reset() {
+            small = 0L;
+            big = null;
+        }
+
+        /**
+         * Adds i-th coefficient of <var>e</var>
+         */
+        private void add(@NotNull Expression e, int i) {
+            if (e.isSmallCoefficient(i)) {
+                add(e.getSmallCoefficient(i));
+            } else {
+                add(e.getCoefficient(i).getContent());
+            }
+        }
+
+        /**
+         * Adds (or subtracts if <var>negate</var> is true) product of i-th coefficient of <var>l</var> and j-th
+         * coefficient of <var>r</var>
+         */
+        private void addProduct(@NotNull Expression l, int i, @NotNull Expression r, int j, boolean negate) {
+            if (l.isSmallCoefficient(i) && r.isSmallCoefficient(j)) {
+                final long a = l.getSmallCoefficient(i);
+                final long b = r.getSmallCoefficient(j);
+                final long p = a * b;
+                if (!GenericUtils.multiplyOverflows(a, b, p) && (!negate || p != Long.MIN_VALUE)) {
+                    add(negate ? -p : p);
+                    return;
+                }
+            }
+
+            final BigInteger p = l.getCoefficient(i).getContent().multiply(r.getCoefficient(j).getContent());
+            add(negate ? p.negate() : p);
+        }
+
+        private void add(@NotNull CoefficientSum that) {
+            if (that.big == null) {
+                add(that.small);
+            } else {
+                add(that.big);
+            }
+        }
+
+        private void add(long value) {
+            if (big == null) {
+                final long sum = small + value;
+                if (!GenericUtils.addOverflows(small, value, sum)) {
+                    small = sum;
+                    return;
+                }
+                big = BigInteger.valueOf(small);
+            }
+            big = big.add(BigInteger.valueOf(value));
+        }
+
+        private void add(@NotNull BigInteger value) {
+            big = (big == null ? BigInteger.valueOf(small) : big).add(value);
+        }
+
+        /**
+         * Appends the sum with given <var>literal</var> to <var>result</var> unless the sum is zero
+         */
+        private void addTo(@NotNull Expression.Builder result, @NotNull Literal literal, @NotNull GenericContext context) {
+            if (big == null) {
+                if (small != 0L) {
+                    result.addSummand(small, literal);
+                }
+            } else if (big.signum() != 0) {
+                result.addSummand(GenericInteger.newInstance(big, context), literal);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package jscl.math.generic.expression;
+
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.GenericUtils;
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Powering of expressions:
+ * <ul>
+ * <li>bases with few summands in different variables are expanded by multinomial theorem: each summand of the result is computed directly
+ * from powers of the summands of the base, no intermediate products are built</li>
+ * <li>bases with huge coefficients are powered by repeated squaring (binary exponentiation) => O(log(exponent))
+ * multiplications of balanced operands which benefit from subquadratic multiplication of big integers</li>
+ * <li>other bases are multiplied by themselves exponent times: for sparse operands cost of heap multiplication
+ * is proportional to the product of sizes of operands and the heap is as small as the base => repeated
+ * multiplication does much less work than squaring of big intermediate results
+ * (Monagan, Pearce, "Sparse polynomial powering using heaps")</li>
+ * </ul>
+ */
+enum ExpressionPower {
+
+    instance;
+
+    // number of summands of the result of multinomial expansion grows as exponent^(size - 1)
+    private static final int MULTINOMIAL_MAX_SIZE = 4;
+
+    // coefficients of this size are multiplied by BigInteger with Karatsuba algorithm
+    private static final int BINARY_MIN_BIT_LENGTH = 2048;
+
+    @NotNull
+    public Expression pow(@NotNull Expression base, int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent must be positive");
+        }
+
+        final GenericContext context = base.getContext();
+
+        if (exponent == 0) {
+            return Expression.newInstance(context.getOne());
+        } else if (exponent == 1 || base.getSize() == 0) {
+            return base;
+        } else if (base.getSize() == 1) {
+            final Summand s = base.getSummand(0);
+
+            final Expression.Builder result = new Expression.Builder(context, 1);
+            result.addSummand((GenericInteger) s.getCoefficient().pow(exponent), s.getLiteral().pow(exponent));
+            return result.build();
+        } else if (base.getSize() <= MULTINOMIAL_MAX_SIZE && base.literalLcm().getSize() >= base.getSize() - 1) {
+            // enough variables => (almost) all products of powers are different summands of the result, otherwise
+            // many combinations collapse into one summand (e.g. for univariate bases) and the expansion does extra work
+            return multinomial(base, exponent);
+        } else if (maxBitLength(base) >= BINARY_MIN_BIT_LENGTH) {
+            return binary(base, exponent);
+        } else {
+            return repeated(base, exponent);
+        }
+    }
+
+    @NotNull
+    private static Expression repeated(@NotNull Expression base, int exponent) {
+        Expression result = base;
+
+        for (int i = 1; i < exponent; i++) {
+            GenericUtils.checkInterruption();
+
+            result = result.multiply(base);
+        }
+
+        return result;
+    }
+
+    /**
+     * Left-to-right binary exponentiation
+     */
+    @NotNull
+    private static Expression binary(@NotNull Expression base, int exponent) {
+        Expression result = base;
+
+        for (int bit = Integer.highestOneBit(exponent) >>> 1; bit > 0; bit >>>= 1) {
+            GenericUtils.checkInterruption();
+
+            result = result.square();
+            if ((exponent & bit) != 0) {
+                result = result.multiply(base);
+            }
+        }
+
+        return result;
+    }
+
+    private static int maxBitLength(@NotNull Expression e) {
+        int result = 0;
+        for (Summand summand : e) {
+            final GenericInteger c = summand.getCoefficient();
+            if (!c.isSmall()) {
+                result = Math.max(result, c.getContent().bitLength());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * (a[0] + a[1] + ... + a[m-1])^n = sum(n! / (k[0]! * ... * k[m-1]!) * a[0]^k[0] * ... * a[m-1]^k[m-1]) over all
+     * k[0] + ... + k[m-1] = n
+     */
+    @NotNull
+    private static Expression multinomial(@NotNull Expression base, int exponent) {
+        final GenericContext context = base.getContext();
+        final int size = base.getSize();
+
+        // powers[i][k] = a[i]^k
+        final Summand[][] powers = new Summand[size][exponent + 1];
+        for (int i = 0; i < size; i++) {
+            final Summand s = base.getSummand(i);
+            powers[i][0] = Summand.newInstance(context.getOne());
+            powers[i][1] = s;
+            for (int k = 2; k <= exponent; k++) {
+                powers[i][k] = powers[i][k - 1].multiply(s);
+            }
+        }
+
+        // equal literals may be produced from different combinations of exponents
+        final Map<Literal, GenericInteger> result = new TreeMap<Literal, GenericInteger>();
+        expand(powers, 0, exponent, Summand.newInstance(context.getOne()), result);
+
+        final Expression.Builder b = new Expression.Builder(context, result.size());
+        for (Map.Entry<Literal, GenericInteger> entry : result.entrySet()) {
+            if (!entry.getValue().isZero()) {
+                b.addSummand(entry.getValue(), entry.getKey());
+            }
+        }
+        return b.build();
+    }
+
+    /**
+     * Distributes <var>exponent</var> between summands starting from <var>i</var>-th one
+     *
+     * @param product product of multinomial coefficient and powers of previous summands
+     */
+    private static void expand(@NotNull Summand[][] powers,
+                               int i,
+                               int exponent,
+                               @NotNull Summand product,
+                               @NotNull Map<Literal, GenericInteger> result) {
+        if (i == powers.length - 1) {
+            final Summand s = product.multiply(powers[i][exponent]);
+
+            final GenericInteger c = result.get(s.getLiteral());
+            result.put(s.getLiteral(), c == null ? s.getCoefficient() : c.add(s.getCoefficient()));
+        } else {
+            GenericUtils.checkInterruption();
+
+            // binomial = C(exponent, k)
+            GenericInteger binomial = product.getCoefficient().getContext().getOne();
+            for (int k = 0; k <= exponent; k++) {
+                final Summand s = powers[i][k].multiply(product);
+                expand(powers, i + 1, exponent - k, Summand.newInstance(s.getCoefficient().multiply(binomial), s.getLiteral()), result);
+
+                binomial = binomial.multiply(GenericInteger.newInstance(exponent - k, binomial.getContext())).divide(GenericInteger.newInstance(k + 1, binomial.getContext()));
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package jscl.math.generic.expression;
 
+import jscl.math.generic.GenericContext;
 import jscl.math.generic.GenericInteger;
-import jscl.util.MutableInt;
+import jscl.math.generic.GenericUtils;
+import jscl.math.generic.expression.literal.Literal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * User: serso
@@ -18,73 +20,287 @@ enum ExpressionSummizer {
 
     @NotNull
     public Expression sum(@NotNull Expression l, @NotNull Expression r) {
-        return this.sum(l, null, r, null);
+        return merge(l, r, false);
     }
 
-    public Expression sum(@NotNull Expression l, @Nullable Summand lMultiplier, @NotNull Expression r, @Nullable Summand rMultiplier) {
-        final Expression.Builder result = new Expression.Builder(l.getContext(), l.getSize() + r.getSize());
+    /**
+     * @return l - r, signs of summands of <var>r</var> are flipped during the merge
+     */
+    @NotNull
+    public Expression subtract(@NotNull Expression l, @NotNull Expression r) {
+        return merge(l, r, true);
+    }
 
-        final MutableInt li = new MutableInt(l.getSize() - 1);
-        final MutableInt ri = new MutableInt(r.getSize() - 1);
+    /**
+     * k-way merge of all <var>expressions</var>: heap holds current summand of each expression, summands with equal
+     * literals are combined as soon as they leave the heap => O(n * log(k)) comparisons where n is total number of
+     * summands
+     */
+    @NotNull
+    public Expression sumAll(@NotNull GenericContext context, @NotNull Collection<Expression> expressions) {
+        final Expression[] e = new Expression[expressions.size()];
+        int k = 0;
+        int n = 0;
+        for (Expression expression : expressions) {
+            if (expression.getSize() > 0) {
+                e[k++] = expression;
+                n += expression.getSize();
+            }
+        }
 
-        final List<Summand> lSummands = l.getSummands();
-        final List<Summand> rSummands = r.getSummands();
+        if (k == 0) {
+            return Expression.newEmpty(context);
+        } else if (k == 1) {
+            return e[0];
+        } else if (k == 2) {
+            return sum(e[0], e[1]);
+        }
 
-        Summand ls = getPrev(lSummands, li, lMultiplier);
-        Summand rs = getPrev(rSummands, ri, rMultiplier);
+        final Expression.Builder result = new Expression.Builder(context, n);
 
-        while (ls != null || rs != null) {
-            int c;
+        // entry (i, j) is j-th summand of i-th expression
+        final LiteralHeap heap = new LiteralHeap(k, true);
+        for (int i = 0; i < k; i++) {
+            heap.push(e[i].getLiteral(0), i, 0);
+        }
 
-            if (ls == null) {
-                c = 1;
-            } else if (rs == null) {
-                c = -1;
-            } else {
-                c = -ls.getLiteral().compareTo(rs.getLiteral());
+        combine(heap, e, true, result, context);
+        return result.build();
+    }
+
+    /**
+     * @param summands expression with summands in arbitrary order, equal literals might repeat
+     * @return the same sum with summands in ascending literal order, equal literals combined and zeros dropped
+     */
+    @NotNull
+    Expression normalize(@NotNull Expression summands) {
+        final int n = summands.getSize();
+        final Expression.Builder result = new Expression.Builder(summands.getContext(), n);
+
+        // entry (0, j) is j-th summand
+        final LiteralHeap heap = new LiteralHeap(n, true);
+        for (int j = 0; j < n; j++) {
+            heap.push(summands.getLiteral(j), 0, j);
+        }
+
+        combine(heap, new Expression[]{summands}, false, result, summands.getContext());
+        return result.build();
+    }
+
+    /**
+     * Pops all entries (i, j) of the heap adding j-th summand of i-th expression to <var>result</var>, summands with
+     * equal literals are combined
+     *
+     * @param advance push the next summand of the expression after each popped one
+     */
+    private static void combine(@NotNull LiteralHeap heap, @NotNull Expression[] e, boolean advance, @NotNull Expression.Builder result, @NotNull GenericContext context) {
+        while (!heap.isEmpty()) {
+            final Literal literal = heap.peekKey();
+
+            // coefficient is accumulated in long while possible
+            long small = 0L;
+            GenericInteger big = null;
+
+            do {
+                final int i = heap.peekI();
+                final int j = heap.peekJ();
+                heap.pop();
+
+                final Expression ei = e[i];
+                if (big == null && ei.isSmallCoefficient(j)) {
+                    final long b = ei.getSmallCoefficient(j);
+                    final long s = small + b;
+                    if (((small ^ s) & (b ^ s)) >= 0) {
+                        small = s;
+                    } else {
+                        big = context.newInteger(small).add(ei.getCoefficient(j));
+                    }
+                } else {
+                    if (big == null) {
+                        big = context.newInteger(small);
+                    }
+                    big = big.add(ei.getCoefficient(j));
+                }
+
+                if (advance && j + 1 < ei.getSize()) {
+                    heap.push(ei.getLiteral(j + 1), i, j + 1);
+                }
+            } while (!heap.isEmpty() && heap.peekKey().compareTo(literal) == 0);
+
+            if (big == null) {
+                if (small != 0L) {
+                    result.addSummand(small, literal);
+                }
+            } else if (!big.isZero()) {
+                result.addSummand(big, literal);
             }
+        }
+    }
 
-            if (c < 0) {
-                assert ls != null;
+    /**
+     * @return acc + m * e (or acc - m * e if <var>negate</var> is true). Multiplication by monomial keeps the order
+     *         of summands => summands of m * e are generated during the merge and m * e is never built
+     */
+    @NotNull
+    public Expression addMultiple(@NotNull Expression acc, @NotNull Expression e, @NotNull Summand m, boolean negate) {
+        final GenericInteger mc = negate ? m.getCoefficient().negate() : m.getCoefficient();
+        final int accSize = acc.getSize();
+        final int eSize = e.getSize();
 
-                result.addSummand(ls);
-                ls = getPrev(lSummands, li, lMultiplier);
-            } else if (c > 0) {
-                assert rs != null;
+        if (mc.isZero() || eSize == 0) {
+            return acc;
+        }
+
+        final Literal ml = m.getLiteral().getSize() == 0 ? null : m.getLiteral();
+        final boolean mSmall = mc.isSmall();
+        final long mv = mc.longValue();
+
+        final Expression.Builder result = new Expression.Builder(acc.getContext(), accSize + eSize);
+
+        int i = 0;
+        int j = 0;
+        Literal el = product(e, 0, ml);
+
+        while (i < accSize && el != null) {
+            final int c = acc.getLiteral(i).compareTo(el);
 
-                result.addSummand(rs);
-                rs = getPrev(rSummands, ri, rMultiplier);
+            if (c < 0) {
+                copySummand(result, acc, i++);
             } else {
-                assert rs != null;
-                assert ls != null;
+                final boolean small = mSmall && e.isSmallCoefficient(j) && !GenericUtils.multiplyOverflows(e.getSmallCoefficient(j), mv, e.getSmallCoefficient(j) * mv);
 
-                final GenericInteger coefficient = ls.getCoefficient().add(rs.getCoefficient());
-                if (!coefficient.isZero()) {
-                    // ls == rs => set any
-                    result.addSummand(coefficient, ls.getLiteral());
+                if (c > 0) {
+                    if (small) {
+                        result.addSummand(e.getSmallCoefficient(j) * mv, el);
+                    } else {
+                        result.addSummand(e.getCoefficient(j).multiply(mc), el);
+                    }
+                } else {
+                    if (small && acc.isSmallCoefficient(i)) {
+                        final long a = acc.getSmallCoefficient(i);
+                        final long b = e.getSmallCoefficient(j) * mv;
+                        final long s = a + b;
+                        if (((a ^ s) & (b ^ s)) >= 0) {
+                            if (s != 0L) {
+                                result.addSummand(s, el);
+                            }
+                        } else {
+                            result.addSummand(acc.getCoefficient(i).add(e.getCoefficient(j).multiply(mc)), el);
+                        }
+                    } else {
+                        final GenericInteger coefficient = acc.getCoefficient(i).add(e.getCoefficient(j).multiply(mc));
+                        if (!coefficient.isZero()) {
+                            result.addSummand(coefficient, el);
+                        }
+                    }
+                    i++;
                 }
 
-                ls = getPrev(lSummands, li, lMultiplier);
-                rs = getPrev(rSummands, ri, rMultiplier);
+                el = product(e, ++j, ml);
             }
         }
 
+        while (i < accSize) {
+            copySummand(result, acc, i++);
+        }
+
+        while (el != null) {
+            if (mSmall && e.isSmallCoefficient(j) && !GenericUtils.multiplyOverflows(e.getSmallCoefficient(j), mv, e.getSmallCoefficient(j) * mv)) {
+                result.addSummand(e.getSmallCoefficient(j) * mv, el);
+            } else {
+                result.addSummand(e.getCoefficient(j).multiply(mc), el);
+            }
+            el = product(e, ++j, ml);
+        }
+
         return result.build();
     }
 
     @Nullable
-    private Summand getPrev(@NotNull List<Summand> list, @NotNull MutableInt i, @Nullable Summand multiplier) {
-        int intValue = i.intValue();
-        if (intValue >= 0 ) {
-            final Summand result = list.get(intValue);
-            i.decrement();
-            if (multiplier != null) {
-                return result.multiply(multiplier);
+    private static Literal product(@NotNull Expression e, int j, @Nullable Literal m) {
+        if (j < e.getSize()) {
+            return m == null ? e.getLiteral(j) : e.getLiteral(j).multiply(m);
+        } else {
+            return null;
+        }
+    }
+
+    static void copySummand(@NotNull Expression.Builder result, @NotNull Expression e, int i) {
+        if (e.isSmallCoefficient(i)) {
+            result.addSummand(e.getSmallCoefficient(i), e.getLiteral(i));
+        } else {
+            result.addSummand(e.getCoefficient(i), e.getLiteral(i));
+        }
+    }
+
+    @NotNull
+    private static Expression merge(@NotNull Expression l, @NotNull Expression r, boolean negate) {
+        final int lSize = l.getSize();
+        final int rSize = r.getSize();
+
+        final Expression.Builder result = new Expression.Builder(l.getContext(), lSize + rSize);
+
+        // summands are kept in ascending literal order => merge from the beginning
+        int i = 0;
+        int j = 0;
+
+        while (i < lSize && j < rSize) {
+            final Literal ll = l.getLiteral(i);
+            final Literal rl = r.getLiteral(j);
+            final int c = ll.compareTo(rl);
+
+            if (c < 0) {
+                addSummand(result, l, i, false);
+                i++;
+            } else if (c > 0) {
+                addSummand(result, r, j, negate);
+                j++;
             } else {
-                return result;
+                if (l.isSmallCoefficient(i) && r.isSmallCoefficient(j)) {
+                    final long a = l.getSmallCoefficient(i);
+                    final long b = r.getSmallCoefficient(j);
+                    final long s = negate ? a - b : a + b;
+                    // overflow iff result has sign different from sign of both a and (-)b
+                    if (negate ? ((a ^ b) & (a ^ s)) >= 0 : ((a ^ s) & (b ^ s)) >= 0) {
+                        if (s != 0L) {
+                            result.addSummand(s, ll);
+                        }
+                    } else {
+                        final GenericInteger rc = r.getCoefficient(j);
+                        result.addSummand(negate ? l.getCoefficient(i).subtract(rc) : l.getCoefficient(i).add(rc), ll);
+                    }
+                } else {
+                    final GenericInteger rc = r.getCoefficient(j);
+                    final GenericInteger coefficient = negate ? l.getCoefficient(i).subtract(rc) : l.getCoefficient(i).add(rc);
+                    if (!coefficient.isZero()) {
+                        // ll == rl => set any
+                        result.addSummand(coefficient, ll);
+                    }
+                }
+
+                i++;
+                j++;
             }
+        }
+
+        while (i < lSize) {
+            addSummand(result, l, i++, false);
+        }
+
+        while (j < rSize) {
+            addSummand(result, r, j++, negate);
+        }
+
+        return result.build();
+    }
+
+    private static void addSummand(@NotNull Expression.Builder result, @NotNull Expression e, int i, boolean negate) {
+        if (e.isSmallCoefficient(i) && (!negate || e.getSmallCoefficient(i) != Long.MIN_VALUE)) {
+            final long c = e.getSmallCoefficient(i);
+            result.addSummand(negate ? -c : c, e.getLiteral(i));
         } else {
-            return null;
+            final GenericInteger c = e.getCoefficient(i);
+            result.addSummand(negate ? c.negate() : c, e.getLiteral(i));
         }
     }
 }
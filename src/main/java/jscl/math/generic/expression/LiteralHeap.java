@@ -0,0 +1,136 @@
+package jscl.math.generic.expression;
+
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Binary heap of literals where each entry carries two int indices (e.g. row and column of pairwise product or
+ * expression and summand positions).
+ * The heap is array-based in order not to create objects per entry.
+ */
+final class LiteralHeap {
+
+    @NotNull
+    private Literal[] keys;
+
+    @NotNull
+    private int[] is;
+
+    @NotNull
+    private int[] js;
+
+    private int size = 0;
+
+    // 1 if smallest literal must be on the top, -1 if greatest
+    private final int sign;
+
+    LiteralHeap(int initialCapacity, boolean ascending) {
+        final int capacity = Math.max(initialCapacity, 1);
+        this.keys = new Literal[capacity];
+        this.is = new int[capacity];
+        this.js = new int[capacity];
+        this.sign = ascending ? 1 : -1;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void push(@NotNull Literal key, int i, int j) {
+        if (size == keys.length) {
+            grow();
+        }
+
+        // sift up
+        int child = size++;
+        while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (compare(key, keys[parent]) >= 0) {
+                break;
+            }
+            keys[child] = keys[parent];
+            is[child] = is[parent];
+            js[child] = js[parent];
+            child = parent;
+        }
+
+        keys[child] = key;
+        is[child] = i;
+        js[child] = j;
+    }
+
+    @NotNull
+    Literal peekKey() {
+        assert size > 0;
+        return keys[0];
+    }
+
+    int peekI() {
+        assert size > 0;
+        return is[0];
+    }
+
+    int peekJ() {
+        assert size > 0;
+        return js[0];
+    }
+
+    /**
+     * Removes top of the heap, values of the top must be read before with peek methods
+     */
+    void pop() {
+        assert size > 0;
+
+        final int last = --size;
+        final Literal key = keys[last];
+        final int i = is[last];
+        final int j = js[last];
+        keys[last] = null;
+
+        if (last > 0) {
+            // sift down
+            int parent = 0;
+            int child;
+            while ((child = 2 * parent + 1) < last) {
+                if (child + 1 < last && compare(keys[child + 1], keys[child]) < 0) {
+                    child++;
+                }
+                if (compare(keys[child], key) >= 0) {
+                    break;
+                }
+                keys[parent] = keys[child];
+                is[parent] = is[child];
+                js[parent] = js[child];
+                parent = child;
+            }
+
+            keys[parent] = key;
+            is[parent] = i;
+            js[parent] = j;
+        }
+    }
+
+    private int compare(@NotNull Literal l, @NotNull Literal r) {
+        return sign * l.compareTo(r);
+    }
+
+    private void grow() {
+        final int capacity = keys.length * 2;
+
+        final Literal[] newKeys = new Literal[capacity];
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        keys = newKeys;
+
+        final int[] newIs = new int[capacity];
+        System.arraycopy(is, 0, newIs, 0, size);
+        is = newIs;
+
+        final int[] newJs = new int[capacity];
+        System.arraycopy(js, 0, newJs, 0, size);
+        js = newJs;
+    }
+}
@@ -0,0 +1,659 @@
+package jscl.math.generic.expression;
+
+import jscl.math.IntegerVariable;
+import jscl.math.Variable;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.GenericUtils;
+import jscl.math.generic.expression.literal.Literal;
+import jscl.math.generic.expression.literal.Productand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Modular GCD of multivariate polynomials with integer coefficients (Brown's algorithm with Zippel's sparse
+ * interpolation):
+ * <ol>
+ * <li>gcd is computed modulo several word-sized primes, for each prime variables are eliminated one by one by
+ * evaluation and the gcd is recovered by Newton interpolation (see {@link #gcd(ModularPolynomial, ModularPolynomial)}),
+ * only the first image of each interpolation is computed recursively, the others are assumed to have the same terms
+ * and their coefficients are solved from univariate images</li>
+ * <li>images are combined by Chinese remainder theorem until the result stabilizes and divides both arguments</li>
+ * </ol>
+ * Leading coefficient problem is solved by normalizing images with the gcd of leading coefficients, unlucky
+ * primes and evaluation points are detected by comparing leading monomials of the images.
+ * Cost of the algorithm depends on the degrees of the gcd and of the arguments and not on the size of the
+ * coefficients of intermediate remainders.
+ */
+enum ModularGcd {
+
+    instance;
+
+    // primes are less than 2^31 => product of two residues fits into long
+    private static final long FIRST_PRIME = Integer.MAX_VALUE;
+
+    // each prime adds at least PRIME_BITS to the modulus
+    private static final int PRIME_BITS = 30;
+
+    // skeletons with several terms in the leading group are interpolated densely if they are bigger, see sparseGcd
+    private static final int SPARSE_MAX_TERMS = 256;
+
+    /**
+     * @return gcd of two non-zero expressions, result is primitive part multiplied by gcd of contents and
+     * leading coefficient of primitive part is positive
+     */
+    @NotNull
+    public Expression gcd(@NotNull Expression l, @NotNull Expression r) {
+        final GenericContext context = l.getContext();
+
+        final Variable[] variables = toArray(l.literalLcm().lcm(r.literalLcm()).getVariables());
+
+        final GenericInteger lContent = l.getIntegerGcd();
+        final GenericInteger rContent = r.getIntegerGcd();
+        final GenericInteger content = lContent.gcd(rContent);
+
+        final Terms a = Terms.newInstance(l, lContent, variables);
+        final Terms b = Terms.newInstance(r, rContent, variables);
+
+        // gcd of leading coefficients is a multiple of leading coefficient of the gcd
+        final BigInteger lc = a.getLeadingCoefficient().gcd(b.getLeadingCoefficient());
+
+        // coefficients of lc / lc(gcd) * gcd are less than 2^boundBits / 2 => modulus of boundBits is enough if all
+        // primes are lucky
+        final int boundBits = lc.bitLength() + Math.min(a.getFactorBoundBits(), b.getFactorBoundBits()) + 1;
+
+        // bad primes divide leading coefficients, unlucky primes divide resultant of the cofactors
+        final int badBits = a.getLeadingCoefficient().bitLength() + b.getLeadingCoefficient().bitLength()
+                + a.getDegree() * b.getCoefficientBits() + b.getDegree() * a.getCoefficientBits();
+        final int maxPrimes = (boundBits + badBits) / PRIME_BITS + 2;
+
+        Terms result = null;
+        int[] resultLm = null;
+        BigInteger modulus = BigInteger.ONE;
+
+        long p = FIRST_PRIME;
+        for (int primes = 0; primes < maxPrimes; primes++) {
+            GenericUtils.checkInterruption();
+
+            p = previousPrime(p);
+
+            final BigInteger bigP = BigInteger.valueOf(p);
+            if (a.getLeadingCoefficient().mod(bigP).signum() == 0 || b.getLeadingCoefficient().mod(bigP).signum() == 0) {
+                // degree would drop
+                continue;
+            }
+
+            final ModularPolynomial g = gcd(a.mod(p), b.mod(p));
+            if (g.isConstant()) {
+                // polynomials are relatively prime
+                return Expression.newInstance(content);
+            }
+
+            final ModularPolynomial image = g.multiply(lc.mod(bigP).longValue());
+            final int c = result == null ? -1 : ModularPolynomial.compare(image.getLeadingExponents(), 0, resultLm, 0, variables.length);
+            if (c > 0) {
+                // unlucky prime
+                continue;
+            }
+
+            final Terms newResult;
+            if (c < 0) {
+                // first image or all previous primes were unlucky
+                newResult = Terms.combine(null, BigInteger.ONE, image);
+                resultLm = image.getLeadingExponents();
+                modulus = bigP;
+            } else {
+                newResult = Terms.combine(result, modulus, image);
+                modulus = modulus.multiply(bigP);
+            }
+
+            final boolean bounded = modulus.bitLength() > boundBits;
+            if (newResult.equals(result) || bounded) {
+                // result has stabilized or cannot grow any more => check
+                final Expression candidate = newResult.primitivePart().toExpression(variables, context);
+                if (ExpressionDivider.instance.isDivisor(candidate, l) && ExpressionDivider.instance.isDivisor(candidate, r)) {
+                    return candidate.multiply(content);
+                }
+            }
+
+            // bound is reached by unlucky primes only (their images have the same leading monomial) => start again
+            result = bounded ? null : newResult;
+        }
+
+        throw new ArithmeticException("Too many unlucky primes");
+    }
+
+    /**
+     * Brown's algorithm modulo p
+     *
+     * @return monic gcd of two polynomials
+     */
+    @NotNull
+    ModularPolynomial gcd(@NotNull ModularPolynomial a, @NotNull ModularPolynomial b) {
+        final long p = a.getP();
+        final int variables = a.getVariables();
+
+        if (a.isZero()) {
+            return b.monic();
+        } else if (b.isZero()) {
+            return a.monic();
+        } else if (variables == 1) {
+            return ModularPolynomial.fromUnivariate(ModularPolynomial.gcd(a.toUnivariate(), b.toUnivariate(), p), p);
+        }
+
+        final int last = variables - 1;
+
+        // content in the last variable
+        final long[] aContent = a.contentInLast();
+        final long[] bContent = b.contentInLast();
+        final long[] content = ModularPolynomial.gcd(aContent, bContent, p);
+
+        a = a.divideInLast(aContent);
+        b = b.divideInLast(bContent);
+
+        // gcd of leading coefficients (as polynomials in first variables) is a multiple of leading coefficient of the gcd
+        final long[] lc = ModularPolynomial.gcd(a.leadingCoefficientInLast(), b.leadingCoefficientInLast(), p);
+
+        // number of interpolation points needed
+        final int bound = ModularPolynomial.degree(lc) + Math.min(a.degree(last), b.degree(last));
+
+        ModularPolynomial h = null;
+        int[] hLm = null;
+        long[] modulus = null;
+
+        // the first image of the current interpolation, terms of other images are expected to be the same
+        ModularPolynomial skeleton = null;
+        final Random random = new Random(p);
+
+        for (long point = 0; point < p; point++) {
+            final long lcValue = ModularPolynomial.evaluate(lc, point, p);
+            if (lcValue == 0L) {
+                continue;
+            }
+
+            final ModularPolynomial aImage = a.evaluateLast(point);
+            final ModularPolynomial bImage = b.evaluateLast(point);
+
+            ModularPolynomial image = skeleton == null ? null : sparseGcd(aImage, bImage, skeleton, lcValue, random);
+            if (image == null) {
+                image = gcd(aImage, bImage);
+                if (image.isConstant()) {
+                    // primitive parts are relatively prime
+                    return ModularPolynomial.newConstant(p, last, 1L).extendInLast(content);
+                }
+                image = image.multiply(lcValue);
+            }
+
+            final int c = h == null ? -1 : ModularPolynomial.compare(image.getLeadingExponents(), 0, hLm, 0, last);
+            if (c > 0) {
+                // unlucky point
+                continue;
+            }
+
+            final long[] xMinusPoint = new long[]{ModularPolynomial.mod(-point, p), 1L};
+            if (c < 0) {
+                // first point or all previous points were unlucky
+                h = image.extendInLast(new long[]{1L});
+                hLm = image.getLeadingExponents();
+                modulus = xMinusPoint;
+                // univariate images are computed densely anyway
+                skeleton = last > 1 ? image : null;
+            } else {
+                // Newton interpolation: h = h + (image - h(point)) * modulus / modulus(point)
+                assert modulus != null;
+                final ModularPolynomial difference = image.subtract(h.evaluateLast(point));
+                if (!difference.isZero()) {
+                    final long inverse = ModularPolynomial.inverse(ModularPolynomial.evaluate(modulus, point, p), p);
+                    h = h.add(difference.multiply(inverse).extendInLast(modulus));
+                }
+                modulus = ModularPolynomial.multiply(modulus, xMinusPoint, p);
+            }
+
+            if (ModularPolynomial.degree(modulus) > bound) {
+                final ModularPolynomial candidate = h.divideInLast(h.contentInLast());
+                if (a.divide(candidate) != null && b.divide(candidate) != null) {
+                    return candidate.multiplyInLast(content).monic();
+                }
+
+                // some image was wrong (e.g. a term of the gcd has vanished at the skeleton's point) => start again
+                h = null;
+                skeleton = null;
+            }
+        }
+
+        throw new ArithmeticException("Not enough evaluation points modulo " + p);
+    }
+
+    /**
+     * Zippel's sparse interpolation: the gcd of <var>a</var> and <var>b</var> is assumed to have the same terms as
+     * <var>skeleton</var>, its coefficients are found from univariate gcds in the last variable for random values of
+     * other variables. Univariate gcds are monic => each of them has its own unknown scale which is found together
+     * with the coefficients (de Kleine, Monagan, Wittkopf), the leading coefficient is known.
+     *
+     * @return gcd of <var>a</var> and <var>b</var> normalized to the leading coefficient <var>lcValue</var> or null if
+     * it cannot be found this way (skeleton doesn't fit, unlucky values or too many terms), dense gcd should be
+     * computed then
+     */
+    @Nullable
+    private static ModularPolynomial sparseGcd(@NotNull ModularPolynomial a, @NotNull ModularPolynomial b, @NotNull ModularPolynomial skeleton, long lcValue, @NotNull Random random) {
+        final long p = a.getP();
+        final int last = a.getVariables() - 1;
+        final int size = skeleton.getSize();
+        final int lm = size - 1;
+        final int degree = skeleton.getExponent(lm, last);
+
+        // terms are grouped by degree in the last variable, each group gives one equation per univariate gcd
+        final int[] groupSizes = new int[degree + 1];
+        for (int s = 0; s < size; s++) {
+            groupSizes[skeleton.getExponent(s, last)]++;
+        }
+        int groups = 0;
+        int maxGroupSize = 0;
+        for (int d = 0; d < degree; d++) {
+            if (groupSizes[d] > 0) {
+                groups++;
+                maxGroupSize = Math.max(maxGroupSize, groupSizes[d]);
+            }
+        }
+
+        // the leading term alone in its group defines the scales => groups are independent, otherwise scales are
+        // unknowns of one system of (size - 1 + count) unknowns
+        final boolean scaled = groupSizes[degree] == 1;
+        if (!scaled && (groups == 0 || size > SPARSE_MAX_TERMS)) {
+            return null;
+        }
+
+        // one more univariate gcd than needed to detect wrong skeleton
+        final int count = 1 + (scaled ? maxGroupSize : Math.max((size + groups - 1) / groups, Math.max(maxGroupSize, groupSizes[degree])));
+
+        final long[][] monomials = new long[count][];
+        final long[][] images = new long[count][];
+        final long[] values = new long[last];
+        for (int j = 0; j < count; j++) {
+            for (int v = 0; v < last; v++) {
+                values[v] = 1L + (random.nextLong() >>> 1) % (p - 1L);
+            }
+
+            final long[] aj = a.evaluateExceptLast(values);
+            final long[] bj = b.evaluateExceptLast(values);
+            if (ModularPolynomial.degree(aj) != a.degree(last) || ModularPolynomial.degree(bj) != b.degree(last)) {
+                // leading coefficient has vanished
+                return null;
+            }
+
+            final long[] image = ModularPolynomial.gcd(aj, bj, p);
+            if (ModularPolynomial.degree(image) != degree) {
+                return null;
+            }
+            for (int d = 0; d < degree; d++) {
+                if (groupSizes[d] == 0 && image[d] != 0L) {
+                    return null;
+                }
+            }
+
+            monomials[j] = skeleton.evaluateMonomials(values);
+            images[j] = image;
+        }
+
+        final long[] coefficients = new long[size];
+        coefficients[lm] = lcValue;
+
+        if (scaled) {
+            // scale of j-th univariate gcd is the value of the leading term
+            final long[] scales = new long[count];
+            for (int j = 0; j < count; j++) {
+                scales[j] = lcValue * monomials[j][lm] % p;
+            }
+
+            for (int from = 0; from < lm; ) {
+                final int d = skeleton.getExponent(from, last);
+                int to = from;
+                while (to < lm && skeleton.getExponent(to, last) == d) {
+                    to++;
+                }
+
+                // sum of c[s] * m[j][s] for s in group = scale[j] * image[j][d]
+                final int unknowns = to - from;
+                final long[][] rows = new long[count][unknowns + 1];
+                for (int j = 0; j < count; j++) {
+                    System.arraycopy(monomials[j], from, rows[j], 0, unknowns);
+                    rows[j][unknowns] = scales[j] * images[j][d] % p;
+                }
+
+                final long[] solution = solve(rows, unknowns, p);
+                if (solution == null) {
+                    return null;
+                }
+                System.arraycopy(solution, 0, coefficients, from, unknowns);
+                from = to;
+            }
+        } else {
+            // sum of c[s] * m[j][s] for s in group - scale[j] * image[j][d] = 0 (leading term is moved to the right side)
+            final int unknowns = lm + count;
+            final long[][] rows = new long[count * (groups + 1)][unknowns + 1];
+            int r = 0;
+            for (int j = 0; j < count; j++) {
+                for (int from = 0; from < size; ) {
+                    final int d = skeleton.getExponent(from, last);
+                    int to = from;
+                    while (to < size && skeleton.getExponent(to, last) == d) {
+                        to++;
+                    }
+
+                    final long[] row = rows[r++];
+                    System.arraycopy(monomials[j], from, row, from, Math.min(to, lm) - from);
+                    row[lm + j] = ModularPolynomial.mod(-images[j][d], p);
+                    if (to == size) {
+                        row[unknowns] = ModularPolynomial.mod(-lcValue * monomials[j][lm], p);
+                    }
+                    from = to;
+                }
+            }
+
+            final long[] solution = solve(rows, unknowns, p);
+            if (solution == null) {
+                return null;
+            }
+            System.arraycopy(solution, 0, coefficients, 0, lm);
+        }
+
+        return skeleton.withCoefficients(coefficients);
+    }
+
+    /**
+     * Gauss-Jordan elimination modulo p, <var>rows</var> are modified
+     *
+     * @param rows    augmented matrix: coefficients of unknowns followed by the right side
+     * @param columns number of unknowns
+     * @return the only solution or null if the system is underdetermined or inconsistent
+     */
+    @Nullable
+    private static long[] solve(@NotNull long[][] rows, int columns, long p) {
+        int rank = 0;
+        for (int c = 0; c < columns; c++) {
+            int pivot = rank;
+            while (pivot < rows.length && rows[pivot][c] == 0L) {
+                pivot++;
+            }
+            if (pivot == rows.length) {
+                return null;
+            }
+
+            final long[] row = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = row;
+
+            final long inverse = ModularPolynomial.inverse(row[c], p);
+            for (int k = c; k <= columns; k++) {
+                row[k] = row[k] * inverse % p;
+            }
+
+            for (int i = 0; i < rows.length; i++) {
+                final long f = rows[i][c];
+                if (i != rank && f != 0L) {
+                    final long[] other = rows[i];
+                    for (int k = c; k <= columns; k++) {
+                        other[k] = ModularPolynomial.mod(other[k] - f * row[k] % p, p);
+                    }
+                }
+            }
+            rank++;
+        }
+
+        for (int i = rank; i < rows.length; i++) {
+            if (rows[i][columns] != 0L) {
+                return null;
+            }
+        }
+
+        final long[] result = new long[columns];
+        for (int c = 0; c < columns; c++) {
+            result[c] = rows[c][columns];
+        }
+        return result;
+    }
+
+    private static long previousPrime(long n) {
+        do {
+            n--;
+        } while (!GenericInteger.isPrime(n));
+        return n;
+    }
+
+    @NotNull
+    private static Variable[] toArray(@NotNull List<Variable> variables) {
+        return variables.toArray(new Variable[variables.size()]);
+    }
+
+    /**
+     * Polynomial with integer coefficients as exponent vectors over fixed variables, terms are stored in parallel
+     * arrays in the order of {@link ModularPolynomial}
+     */
+    private static final class Terms {
+
+        private final int variables;
+
+        // exponents of i-th term are exponents[i * variables, (i + 1) * variables)
+        @NotNull
+        private final int[] exponents;
+
+        @NotNull
+        private final BigInteger[] coefficients;
+
+        private Terms(int variables, @NotNull int[] exponents, @NotNull BigInteger[] coefficients) {
+            this.variables = variables;
+            this.exponents = exponents;
+            this.coefficients = coefficients;
+        }
+
+        @NotNull
+        static Terms newInstance(@NotNull Expression e, @NotNull GenericInteger content, @NotNull Variable[] variables) {
+            final int size = e.getSize();
+
+            final int[] exponents = new int[size * variables.length];
+            final BigInteger[] coefficients = new BigInteger[size];
+
+            final BigInteger bigContent = content.getContent();
+            for (int i = 0; i < size; i++) {
+                final Summand summand = e.getSummand(i);
+                toExponents(summand.getLiteral(), variables, exponents, i * variables.length);
+                coefficients[i] = summand.getCoefficient().getContent().divide(bigContent);
+            }
+
+            return new Terms(variables.length, exponents, coefficients);
+        }
+
+        /**
+         * @return maximum bit length of coefficients
+         */
+        int getCoefficientBits() {
+            int result = 0;
+            for (BigInteger c : coefficients) {
+                result = Math.max(result, c.bitLength());
+            }
+            return result;
+        }
+
+        /**
+         * @return sum of degrees in each variable
+         */
+        int getDegree() {
+            int result = 0;
+            for (int v = 0; v < variables; v++) {
+                int degree = 0;
+                for (int i = 0; i < coefficients.length; i++) {
+                    degree = Math.max(degree, exponents[i * variables + v]);
+                }
+                result += degree;
+            }
+            return result;
+        }
+
+        /**
+         * @return number of bits of the bound of the coefficients of any factor of this polynomial: by Gelfond's
+         * inequality each of them is less than e^d * ||f||_2 where d is the sum of degrees in each variable
+         */
+        int getFactorBoundBits() {
+            // e^d < 4^d, ||f||_2 < sqrt(terms) * max |c|
+            return getCoefficientBits() + 2 * getDegree() + (32 - Integer.numberOfLeadingZeros(coefficients.length)) / 2 + 1;
+        }
+
+        @NotNull
+        BigInteger getLeadingCoefficient() {
+            // summands are sorted by literal
+            return coefficients[coefficients.length - 1];
+        }
+
+        @NotNull
+        ModularPolynomial mod(long p) {
+            final BigInteger bigP = BigInteger.valueOf(p);
+
+            final long[] residues = new long[coefficients.length];
+            for (int i = 0; i < coefficients.length; i++) {
+                residues[i] = coefficients[i].mod(bigP).longValue();
+            }
+
+            // order of literals is the order of exponents
+            return ModularPolynomial.newInstance(p, variables, coefficients.length, exponents.clone(), residues);
+        }
+
+        /**
+         * @return polynomial which is congruent to <var>result</var> modulo <var>modulus</var> and to <var>image</var>
+         * modulo p, coefficients are in symmetric range
+         */
+        @NotNull
+        static Terms combine(@Nullable Terms result, @NotNull BigInteger modulus, @NotNull ModularPolynomial image) {
+            final long p = image.getP();
+            final int variables = image.getVariables();
+            final BigInteger bigP = BigInteger.valueOf(p);
+            final BigInteger newModulus = modulus.multiply(bigP);
+            final BigInteger halfModulus = newModulus.shiftRight(1);
+            final long inverse = ModularPolynomial.inverse(modulus.mod(bigP).longValue(), p);
+
+            final int rSize = result == null ? 0 : result.coefficients.length;
+            final int iSize = image.getSize();
+
+            final int[] exponents = new int[(rSize + iSize) * variables];
+            final BigInteger[] coefficients = new BigInteger[rSize + iSize];
+            int k = 0;
+
+            // merge of terms of result and image, missing coefficient is zero
+            int i = 0;
+            int j = 0;
+            while (i < rSize || j < iSize) {
+                final int[] e = j < iSize ? image.getExponents(j) : null;
+
+                final int c;
+                if (i == rSize) {
+                    c = 1;
+                } else if (j == iSize) {
+                    c = -1;
+                } else {
+                    c = ModularPolynomial.compare(result.exponents, i * variables, e, 0, variables);
+                }
+
+                final BigInteger u;
+                final long v;
+                if (c < 0) {
+                    System.arraycopy(result.exponents, i * variables, exponents, k * variables, variables);
+                    u = result.coefficients[i++];
+                    v = 0L;
+                } else {
+                    System.arraycopy(e, 0, exponents, k * variables, variables);
+                    u = c == 0 ? result.coefficients[i++] : BigInteger.ZERO;
+                    v = image.getCoefficient(j++);
+                }
+
+                // x = u + modulus * ((v - u) / modulus mod p)
+                final long t = ModularPolynomial.mod(v - u.mod(bigP).longValue(), p) * inverse % p;
+
+                BigInteger x = u.add(modulus.multiply(BigInteger.valueOf(t))).mod(newModulus);
+                if (x.compareTo(halfModulus) > 0) {
+                    x = x.subtract(newModulus);
+                }
+
+                if (x.signum() != 0) {
+                    coefficients[k++] = x;
+                }
+            }
+
+            return new Terms(variables, Arrays.copyOf(exponents, k * variables), Arrays.copyOf(coefficients, k));
+        }
+
+        /**
+         * @return terms divided by the gcd of coefficients, leading coefficient of the result is positive
+         */
+        @NotNull
+        Terms primitivePart() {
+            BigInteger content = BigInteger.ZERO;
+            for (BigInteger c : coefficients) {
+                content = content.gcd(c);
+            }
+
+            if (getLeadingCoefficient().signum() < 0) {
+                content = content.negate();
+            }
+
+            final BigInteger[] result = new BigInteger[coefficients.length];
+            for (int i = 0; i < coefficients.length; i++) {
+                result[i] = coefficients[i].divide(content);
+            }
+            return new Terms(variables, exponents, result);
+        }
+
+        @NotNull
+        Expression toExpression(@NotNull Variable[] variables, @NotNull GenericContext context) {
+            final Expression.Builder result = new Expression.Builder(context, coefficients.length);
+
+            // order of exponents is the same as order of literals
+            for (int i = 0; i < coefficients.length; i++) {
+                result.addSummand(context.newInteger(coefficients[i]), toLiteral(exponents, i * this.variables, variables));
+            }
+
+            return result.build();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            } else if (!(o instanceof Terms)) {
+                return false;
+            }
+
+            final Terms that = (Terms) o;
+            return Arrays.equals(exponents, that.exponents) && Arrays.equals(coefficients, that.coefficients);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(exponents) + Arrays.hashCode(coefficients);
+        }
+
+        private static void toExponents(@NotNull Literal literal, @NotNull Variable[] variables, @NotNull int[] result, int offset) {
+            int j = 0;
+            for (Productand productand : literal) {
+                while (IntegerVariable.compare(variables[j], productand.getVariable()) != 0) {
+                    j++;
+                }
+                result[offset + j] = productand.getExponent();
+            }
+        }
+
+        @NotNull
+        private static Literal toLiteral(@NotNull int[] exponents, int offset, @NotNull Variable[] variables) {
+            final Literal.Builder result = new Literal.Builder(variables.length);
+            for (int v = 0; v < variables.length; v++) {
+                if (exponents[offset + v] != 0) {
+                    result.addProductand(variables[v], exponents[offset + v]);
+                }
+            }
+            return result.build();
+        }
+    }
+}
@@ -0,0 +1,936 @@
+package jscl.math.generic.expression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Sparse multivariate polynomial with coefficients in Z/pZ (p < 2^31 => product of two coefficients fits into long).
+ * Terms are stored in parallel arrays sorted in ascending lexicographic order of exponents where the last variable
+ * is the most significant one (the same order as used for literals if variables are sorted): exponents of i-th term
+ * are exponents[i * variables, (i + 1) * variables).
+ * <p/>
+ * Univariate polynomials in the last variable are represented as dense arrays of coefficients (index = exponent)
+ * without leading zeros, zero polynomial is an empty array.
+ */
+final class ModularPolynomial {
+
+    // smaller ranges are sorted by insertion
+    private static final int INSERTION_SORT_MAX = 16;
+
+    private final long p;
+
+    private final int variables;
+
+    private final int size;
+
+    @NotNull
+    private final int[] exponents;
+
+    @NotNull
+    private final long[] coefficients;
+
+    /**
+     * @param exponents    exponents of terms (only first size * variables elements are used)
+     * @param coefficients non zero coefficients of terms (only first size elements are used)
+     */
+    private ModularPolynomial(long p, int variables, int size, @NotNull int[] exponents, @NotNull long[] coefficients) {
+        this.p = p;
+        this.variables = variables;
+        this.size = size;
+        this.exponents = exponents;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * @param exponents    exponents of terms in ascending lexicographic order
+     * @param coefficients coefficients of terms, zero coefficients are skipped
+     */
+    @NotNull
+    static ModularPolynomial newInstance(long p, int variables, int size, @NotNull int[] exponents, @NotNull long[] coefficients) {
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (coefficients[i] != 0L) {
+                if (k != i) {
+                    coefficients[k] = coefficients[i];
+                    System.arraycopy(exponents, i * variables, exponents, k * variables, variables);
+                }
+                k++;
+            }
+        }
+        return new ModularPolynomial(p, variables, k, exponents, coefficients);
+    }
+
+    /**
+     * @param coefficients coefficients of terms of this polynomial, zero coefficients are skipped
+     * @return polynomial with the same terms as this one but with other coefficients
+     */
+    @NotNull
+    ModularPolynomial withCoefficients(@NotNull long[] coefficients) {
+        assert coefficients.length == size;
+        return newInstance(p, variables, size, Arrays.copyOf(exponents, size * variables), coefficients);
+    }
+
+    @NotNull
+    static ModularPolynomial newConstant(long p, int variables, long c) {
+        c = mod(c, p);
+        if (c == 0L) {
+            return new ModularPolynomial(p, variables, 0, new int[0], new long[0]);
+        } else {
+            return new ModularPolynomial(p, variables, 1, new int[variables], new long[]{c});
+        }
+    }
+
+    /**
+     * @return negative value, zero or positive value if exponents of <var>l</var> are lexicographically less, equal or
+     * greater than exponents of <var>r</var> (the last exponent is the most significant one)
+     */
+    static int compare(@NotNull int[] l, int lOffset, @NotNull int[] r, int rOffset, int variables) {
+        for (int v = variables - 1; v >= 0; v--) {
+            final int le = l[lOffset + v];
+            final int re = r[rOffset + v];
+            if (le != re) {
+                return le < re ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           GETTERS
+    *
+    **********************************************************************
+    */
+
+    long getP() {
+        return p;
+    }
+
+    int getVariables() {
+        return variables;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getExponent(int i, int variable) {
+        return exponents[i * variables + variable];
+    }
+
+    @NotNull
+    int[] getExponents(int i) {
+        return Arrays.copyOfRange(exponents, i * variables, (i + 1) * variables);
+    }
+
+    long getCoefficient(int i) {
+        return coefficients[i];
+    }
+
+    boolean isZero() {
+        return size == 0;
+    }
+
+    boolean isConstant() {
+        if (size != 1) {
+            return false;
+        }
+        for (int v = 0; v < variables; v++) {
+            if (exponents[v] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    int[] getLeadingExponents() {
+        return getExponents(size - 1);
+    }
+
+    long getLeadingCoefficient() {
+        return coefficients[size - 1];
+    }
+
+    int degree(int variable) {
+        int result = 0;
+        for (int i = 0; i < size; i++) {
+            result = Math.max(result, exponents[i * variables + variable]);
+        }
+        return result;
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           ARITHMETIC
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    ModularPolynomial multiply(long c) {
+        c = mod(c, p);
+        if (c == 0L) {
+            return newConstant(p, variables, 0L);
+        }
+
+        final long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = coefficients[i] * c % p;
+        }
+        return new ModularPolynomial(p, variables, size, exponents, result);
+    }
+
+    @NotNull
+    ModularPolynomial monic() {
+        if (isZero()) {
+            return this;
+        } else {
+            return multiply(inverse(getLeadingCoefficient(), p));
+        }
+    }
+
+    @NotNull
+    ModularPolynomial add(@NotNull ModularPolynomial that) {
+        return addMultiplied(that, 1L);
+    }
+
+    @NotNull
+    ModularPolynomial subtract(@NotNull ModularPolynomial that) {
+        return addMultiplied(that, p - 1L);
+    }
+
+    /**
+     * @return this + c * that, terms are merged in one pass
+     */
+    @NotNull
+    private ModularPolynomial addMultiplied(@NotNull ModularPolynomial that, long c) {
+        final int[] resultExponents = new int[(this.size + that.size) * variables];
+        final long[] resultCoefficients = new long[this.size + that.size];
+
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < this.size || j < that.size) {
+            final int cmp;
+            if (i == this.size) {
+                cmp = 1;
+            } else if (j == that.size) {
+                cmp = -1;
+            } else {
+                cmp = compare(this.exponents, i * variables, that.exponents, j * variables, variables);
+            }
+
+            final long coefficient;
+            if (cmp < 0) {
+                System.arraycopy(this.exponents, i * variables, resultExponents, k * variables, variables);
+                coefficient = this.coefficients[i++];
+            } else if (cmp > 0) {
+                System.arraycopy(that.exponents, j * variables, resultExponents, k * variables, variables);
+                coefficient = that.coefficients[j++] * c % p;
+            } else {
+                System.arraycopy(this.exponents, i * variables, resultExponents, k * variables, variables);
+                coefficient = (this.coefficients[i++] + that.coefficients[j++] * c) % p;
+            }
+
+            if (coefficient != 0L) {
+                resultCoefficients[k++] = coefficient;
+            }
+        }
+
+        return new ModularPolynomial(p, variables, k, resultExponents, resultCoefficients);
+    }
+
+    /**
+     * Exact division by the heap of products of quotient terms and divisor terms (Johnson's division): terms of the
+     * remainder are generated in descending order and never stored.
+     *
+     * @return quotient of exact division or null if this polynomial is not divisible by <var>that</var>
+     */
+    @Nullable
+    ModularPolynomial divide(@NotNull ModularPolynomial that) {
+        assert !that.isZero();
+
+        final int n = that.size;
+        final int lm = (n - 1) * variables;
+        final long lcInverse = inverse(that.getLeadingCoefficient(), p);
+
+        // quotient terms in descending order
+        int[] qExponents = new int[Math.max(1, size) * variables];
+        long[] qCoefficients = new long[Math.max(1, size)];
+        int qSize = 0;
+
+        // heap of products q[i] * that[j]: each quotient term i has one product in the heap, j descends from n - 2
+        final ProductHeap heap = new ProductHeap(variables);
+
+        final int[] e = new int[variables];
+        int k = size - 1;
+        while (k >= 0 || !heap.isEmpty()) {
+            // the greatest remaining exponent
+            if (k >= 0 && (heap.isEmpty() || compare(exponents, k * variables, heap.keys, 0, variables) >= 0)) {
+                System.arraycopy(exponents, k * variables, e, 0, variables);
+            } else {
+                System.arraycopy(heap.keys, 0, e, 0, variables);
+            }
+
+            long c = 0L;
+            if (k >= 0 && compare(exponents, k * variables, e, 0, variables) == 0) {
+                c = coefficients[k--];
+            }
+
+            while (!heap.isEmpty() && compare(heap.keys, 0, e, 0, variables) == 0) {
+                final int i = heap.getI();
+                final int j = heap.getJ();
+                heap.pop();
+
+                c = mod(c - qCoefficients[i] * that.coefficients[j] % p, p);
+
+                if (j > 0) {
+                    heap.push(qExponents, i * variables, that.exponents, (j - 1) * variables, i, j - 1);
+                }
+            }
+
+            if (c != 0L) {
+                if (qSize == qCoefficients.length) {
+                    qCoefficients = Arrays.copyOf(qCoefficients, 2 * qSize);
+                    qExponents = Arrays.copyOf(qExponents, 2 * qSize * variables);
+                }
+
+                final int offset = qSize * variables;
+                for (int v = 0; v < variables; v++) {
+                    final int d = e[v] - that.exponents[lm + v];
+                    if (d < 0) {
+                        return null;
+                    }
+                    qExponents[offset + v] = d;
+                }
+                qCoefficients[qSize] = c * lcInverse % p;
+
+                if (n > 1) {
+                    heap.push(qExponents, offset, that.exponents, (n - 2) * variables, qSize, n - 2);
+                }
+                qSize++;
+            }
+        }
+
+        // quotient terms are generated in descending order
+        final int[] resultExponents = new int[qSize * variables];
+        final long[] resultCoefficients = new long[qSize];
+        for (int i = 0; i < qSize; i++) {
+            System.arraycopy(qExponents, i * variables, resultExponents, (qSize - 1 - i) * variables, variables);
+            resultCoefficients[qSize - 1 - i] = qCoefficients[i];
+        }
+        return new ModularPolynomial(p, variables, qSize, resultExponents, resultCoefficients);
+    }
+
+    /**
+     * Max heap of products keyed by sums of exponents, keys of the top entry are keys[0, variables)
+     */
+    private static final class ProductHeap {
+
+        private final int variables;
+
+        // keys[h * variables, (h + 1) * variables) = exponents of the product in heap position h
+        @NotNull
+        private int[] keys;
+
+        @NotNull
+        private int[] is;
+
+        @NotNull
+        private int[] js;
+
+        private int size = 0;
+
+        private ProductHeap(int variables) {
+            this.variables = variables;
+            this.keys = new int[16 * variables];
+            this.is = new int[16];
+            this.js = new int[16];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int getI() {
+            return is[0];
+        }
+
+        int getJ() {
+            return js[0];
+        }
+
+        void push(@NotNull int[] l, int lOffset, @NotNull int[] r, int rOffset, int i, int j) {
+            if (size == is.length) {
+                is = Arrays.copyOf(is, 2 * size);
+                js = Arrays.copyOf(js, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size * variables);
+            }
+
+            final int offset = size * variables;
+            for (int v = 0; v < variables; v++) {
+                keys[offset + v] = l[lOffset + v] + r[rOffset + v];
+            }
+            is[size] = i;
+            js[size] = j;
+
+            // sift up
+            int h = size++;
+            while (h > 0) {
+                final int parent = (h - 1) >>> 1;
+                if (compare(keys, parent * variables, keys, h * variables, variables) >= 0) {
+                    break;
+                }
+                swap(parent, h);
+                h = parent;
+            }
+        }
+
+        void pop() {
+            size--;
+            if (size > 0) {
+                swap(0, size);
+
+                // sift down
+                int h = 0;
+                while (true) {
+                    final int left = 2 * h + 1;
+                    if (left >= size) {
+                        break;
+                    }
+                    int child = left;
+                    if (left + 1 < size && compare(keys, (left + 1) * variables, keys, left * variables, variables) > 0) {
+                        child = left + 1;
+                    }
+                    if (compare(keys, h * variables, keys, child * variables, variables) >= 0) {
+                        break;
+                    }
+                    swap(h, child);
+                    h = child;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            int tmp = is[a];
+            is[a] = is[b];
+            is[b] = tmp;
+
+            tmp = js[a];
+            js[a] = js[b];
+            js[b] = tmp;
+
+            for (int v = 0; v < variables; v++) {
+                tmp = keys[a * variables + v];
+                keys[a * variables + v] = keys[b * variables + v];
+                keys[b * variables + v] = tmp;
+            }
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           LAST VARIABLE
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return polynomial in first (variables - 1) variables: value of this polynomial for last variable = point
+     */
+    @NotNull
+    ModularPolynomial evaluateLast(long point) {
+        final int last = variables - 1;
+        final int[] order = orderByHead();
+
+        final int[] resultExponents = new int[size * last];
+        final long[] resultCoefficients = new long[size];
+        int k = 0;
+
+        int i = 0;
+        while (i < size) {
+            // terms with the same head are adjacent in the order
+            final int first = order[i];
+            long c = 0L;
+            do {
+                final int t = order[i++];
+                c = (c + coefficients[t] * pow(point, exponents[t * variables + last], p)) % p;
+            } while (i < size && compare(exponents, order[i] * variables, exponents, first * variables, last) == 0);
+
+            if (c != 0L) {
+                System.arraycopy(exponents, first * variables, resultExponents, k * last, last);
+                resultCoefficients[k++] = c;
+            }
+        }
+
+        return new ModularPolynomial(p, last, k, resultExponents, resultCoefficients);
+    }
+
+    /**
+     * @return gcd of all coefficients in the last variable (monic)
+     */
+    @NotNull
+    long[] contentInLast() {
+        final int[] order = orderByHead();
+
+        long[] result = new long[0];
+        for (int i = 0; i < size; ) {
+            final int to = nextHead(order, i);
+            result = gcd(result, coefficientInLast(order, i, to), p);
+            if (result.length == 1) {
+                // constant => nothing to do
+                break;
+            }
+            i = to;
+        }
+        return result;
+    }
+
+    /**
+     * @return leading coefficient of this polynomial considered as polynomial in first (variables - 1) variables
+     * with coefficients being univariate polynomials in the last variable
+     */
+    @NotNull
+    long[] leadingCoefficientInLast() {
+        final int[] order = orderByHead();
+
+        int from = size - 1;
+        while (from > 0 && compare(exponents, order[from - 1] * variables, exponents, order[size - 1] * variables, variables - 1) == 0) {
+            from--;
+        }
+        return coefficientInLast(order, from, size);
+    }
+
+    @NotNull
+    ModularPolynomial divideInLast(@NotNull long[] u) {
+        final int[] order = orderByHead();
+
+        final HeadTerms result = new HeadTerms(variables, size);
+        for (int i = 0; i < size; ) {
+            final int to = nextHead(order, i);
+            final long[] q = divide(coefficientInLast(order, i, to), u, p);
+            assert q != null;
+            result.add(exponents, order[i] * variables, q);
+            i = to;
+        }
+        return result.build(p);
+    }
+
+    @NotNull
+    ModularPolynomial multiplyInLast(@NotNull long[] u) {
+        final int[] order = orderByHead();
+
+        final HeadTerms result = new HeadTerms(variables, size * u.length);
+        for (int i = 0; i < size; ) {
+            final int to = nextHead(order, i);
+            result.add(exponents, order[i] * variables, multiply(coefficientInLast(order, i, to), u, p));
+            i = to;
+        }
+        return result.build(p);
+    }
+
+    /**
+     * @return polynomial in (variables + 1) variables: this polynomial multiplied by univariate polynomial in new last variable
+     */
+    @NotNull
+    ModularPolynomial extendInLast(@NotNull long[] u) {
+        final int newVariables = variables + 1;
+
+        final int[] resultExponents = new int[size * u.length * newVariables];
+        final long[] resultCoefficients = new long[size * u.length];
+        int k = 0;
+
+        // new variable is the most significant one => terms of each power of it follow terms of this polynomial
+        for (int j = 0; j < u.length; j++) {
+            if (u[j] != 0L) {
+                for (int i = 0; i < size; i++) {
+                    System.arraycopy(exponents, i * variables, resultExponents, k * newVariables, variables);
+                    resultExponents[k * newVariables + variables] = j;
+                    resultCoefficients[k++] = coefficients[i] * u[j] % p;
+                }
+            }
+        }
+
+        return newInstance(p, newVariables, k, resultExponents, resultCoefficients);
+    }
+
+    /**
+     * @param values values of first (variables - 1) variables
+     * @return values of monomials of terms without the last variable (coefficients are not included)
+     */
+    @NotNull
+    long[] evaluateMonomials(@NotNull long[] values) {
+        final int last = variables - 1;
+
+        final long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            long m = 1L;
+            for (int v = 0; v < last; v++) {
+                final int e = exponents[i * variables + v];
+                if (e != 0) {
+                    m = m * pow(values[v], e, p) % p;
+                }
+            }
+            result[i] = m;
+        }
+        return result;
+    }
+
+    /**
+     * @param values values of first (variables - 1) variables
+     * @return univariate polynomial in the last variable: value of this polynomial for given values of other variables
+     */
+    @NotNull
+    long[] evaluateExceptLast(@NotNull long[] values) {
+        final int last = variables - 1;
+        final long[] monomials = evaluateMonomials(values);
+
+        final long[] result = new long[degree(last) + 1];
+        for (int i = 0; i < size; i++) {
+            final int e = exponents[i * variables + last];
+            result[e] = (result[e] + coefficients[i] * monomials[i]) % p;
+        }
+        return normalize(result);
+    }
+
+    /**
+     * @return univariate representation, valid only for polynomials in one variable
+     */
+    @NotNull
+    long[] toUnivariate() {
+        assert variables == 1;
+        if (isZero()) {
+            return new long[0];
+        }
+
+        final long[] result = new long[exponents[size - 1] + 1];
+        for (int i = 0; i < size; i++) {
+            result[exponents[i]] = coefficients[i];
+        }
+        return result;
+    }
+
+    @NotNull
+    static ModularPolynomial fromUnivariate(@NotNull long[] u, long p) {
+        final int[] exponents = new int[u.length];
+        final long[] coefficients = new long[u.length];
+        for (int j = 0; j < u.length; j++) {
+            exponents[j] = j;
+            coefficients[j] = u[j];
+        }
+        return newInstance(p, 1, u.length, exponents, coefficients);
+    }
+
+    /**
+     * @return univariate polynomial in the last variable built from terms order[from, to) which have the same head
+     */
+    @NotNull
+    private long[] coefficientInLast(@NotNull int[] order, int from, int to) {
+        // terms with the same head are ordered by the last exponent
+        final long[] result = new long[exponents[order[to - 1] * variables + variables - 1] + 1];
+        for (int i = from; i < to; i++) {
+            result[exponents[order[i] * variables + variables - 1]] = coefficients[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * @return end of the run of terms with the same head starting at <var>from</var>
+     */
+    private int nextHead(@NotNull int[] order, int from) {
+        int result = from + 1;
+        while (result < size && compare(exponents, order[result] * variables, exponents, order[from] * variables, variables - 1) == 0) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * @return indices of terms sorted by head (exponents of the first (variables - 1) variables), terms with the same
+     * head are sorted by the last exponent (merge sort is stable)
+     */
+    @NotNull
+    private int[] orderByHead() {
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = i;
+        }
+        sortByHead(result, new int[size], 0, size);
+        return result;
+    }
+
+    private void sortByHead(@NotNull int[] order, @NotNull int[] buffer, int from, int to) {
+        final int head = variables - 1;
+
+        if (to - from <= INSERTION_SORT_MAX) {
+            for (int i = from + 1; i < to; i++) {
+                final int t = order[i];
+                int j = i - 1;
+                while (j >= from && compare(exponents, order[j] * variables, exponents, t * variables, head) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = t;
+            }
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        sortByHead(order, buffer, from, middle);
+        sortByHead(order, buffer, middle, to);
+
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            if (j == to || (i < middle && compare(exponents, buffer[i] * variables, exponents, buffer[j] * variables, head) <= 0)) {
+                order[k] = buffer[i++];
+            } else {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * Terms given by heads in ascending order, each head with univariate polynomial in the last variable.
+     * Terms are sorted by the last exponent (counting sort) when polynomial is built.
+     */
+    private static final class HeadTerms {
+
+        private final int variables;
+
+        @NotNull
+        private int[] exponents;
+
+        @NotNull
+        private long[] coefficients;
+
+        private int size = 0;
+
+        private int degree = 0;
+
+        private HeadTerms(int variables, int capacity) {
+            this.variables = variables;
+            this.exponents = new int[Math.max(1, capacity) * variables];
+            this.coefficients = new long[Math.max(1, capacity)];
+        }
+
+        void add(@NotNull int[] head, int offset, @NotNull long[] u) {
+            for (int j = 0; j < u.length; j++) {
+                if (u[j] != 0L) {
+                    if (size == coefficients.length) {
+                        coefficients = Arrays.copyOf(coefficients, 2 * size);
+                        exponents = Arrays.copyOf(exponents, 2 * size * variables);
+                    }
+                    System.arraycopy(head, offset, exponents, size * variables, variables - 1);
+                    exponents[size * variables + variables - 1] = j;
+                    coefficients[size++] = u[j];
+                    degree = Math.max(degree, j);
+                }
+            }
+        }
+
+        @NotNull
+        ModularPolynomial build(long p) {
+            final int last = variables - 1;
+
+            // stable counting sort by the last exponent keeps heads ascending
+            final int[] starts = new int[degree + 2];
+            for (int i = 0; i < size; i++) {
+                starts[exponents[i * variables + last] + 1]++;
+            }
+            for (int d = 0; d <= degree; d++) {
+                starts[d + 1] += starts[d];
+            }
+
+            final int[] resultExponents = new int[size * variables];
+            final long[] resultCoefficients = new long[size];
+            for (int i = 0; i < size; i++) {
+                final int k = starts[exponents[i * variables + last]]++;
+                System.arraycopy(exponents, i * variables, resultExponents, k * variables, variables);
+                resultCoefficients[k] = coefficients[i];
+            }
+            return new ModularPolynomial(p, variables, size, resultExponents, resultCoefficients);
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           UNIVARIATE
+    *
+    **********************************************************************
+    */
+
+    @NotNull
+    static long[] normalize(@NotNull long[] u) {
+        int length = u.length;
+        while (length > 0 && u[length - 1] == 0L) {
+            length--;
+        }
+
+        if (length == u.length) {
+            return u;
+        } else {
+            final long[] result = new long[length];
+            System.arraycopy(u, 0, result, 0, length);
+            return result;
+        }
+    }
+
+    static int degree(@NotNull long[] u) {
+        return u.length - 1;
+    }
+
+    static long evaluate(@NotNull long[] u, long point, long p) {
+        long result = 0L;
+        for (int i = u.length - 1; i >= 0; i--) {
+            result = (result * point + u[i]) % p;
+        }
+        return result;
+    }
+
+    @NotNull
+    static long[] multiply(@NotNull long[] l, @NotNull long[] r, long p) {
+        if (l.length == 0 || r.length == 0) {
+            return new long[0];
+        }
+
+        final long[] result = new long[l.length + r.length - 1];
+        for (int i = 0; i < l.length; i++) {
+            if (l[i] != 0L) {
+                for (int j = 0; j < r.length; j++) {
+                    result[i + j] = (result[i + j] + l[i] * r[j]) % p;
+                }
+            }
+        }
+        return normalize(result);
+    }
+
+    @NotNull
+    static long[] monic(@NotNull long[] u, long p) {
+        if (u.length == 0) {
+            return u;
+        }
+
+        final long inverse = inverse(u[u.length - 1], p);
+        final long[] result = new long[u.length];
+        for (int i = 0; i < u.length; i++) {
+            result[i] = u[i] * inverse % p;
+        }
+        return result;
+    }
+
+    /**
+     * @return remainder of division of <var>l</var> by <var>r</var>, quotient is stored in <var>quotient</var> if not null
+     */
+    @NotNull
+    static long[] remainder(@NotNull long[] l, @NotNull long[] r, long p, @Nullable long[] quotient) {
+        assert r.length > 0;
+
+        final long[] result = l.clone();
+        final long inverse = inverse(r[r.length - 1], p);
+
+        for (int i = l.length - r.length; i >= 0; i--) {
+            final long c = result[i + r.length - 1] * inverse % p;
+            if (quotient != null) {
+                quotient[i] = c;
+            }
+            if (c != 0L) {
+                for (int j = 0; j < r.length; j++) {
+                    result[i + j] = mod(result[i + j] - c * r[j] % p, p);
+                }
+            }
+        }
+
+        return normalize(result);
+    }
+
+    /**
+     * @return quotient of exact division or null if <var>l</var> is not divisible by <var>r</var>
+     */
+    @Nullable
+    static long[] divide(@NotNull long[] l, @NotNull long[] r, long p) {
+        if (l.length < r.length) {
+            return l.length == 0 ? l : null;
+        }
+
+        final long[] quotient = new long[l.length - r.length + 1];
+        if (remainder(l, r, p, quotient).length == 0) {
+            return normalize(quotient);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return monic gcd
+     */
+    @NotNull
+    static long[] gcd(@NotNull long[] l, @NotNull long[] r, long p) {
+        while (r.length > 0) {
+            final long[] tmp = remainder(l, r, p, null);
+            l = r;
+            r = tmp;
+        }
+        return monic(l, p);
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           NUMBERS
+    *
+    **********************************************************************
+    */
+
+    static long mod(long a, long p) {
+        final long result = a % p;
+        return result < 0 ? result + p : result;
+    }
+
+    static long pow(long base, int exponent, long p) {
+        long result = 1L;
+        base = mod(base, p);
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result = result * base % p;
+            }
+            base = base * base % p;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    static long inverse(long a, long p) {
+        // extended Euclidean algorithm
+        long r0 = p;
+        long r1 = mod(a, p);
+        long t0 = 0L;
+        long t1 = 1L;
+
+        while (r1 != 0L) {
+            final long q = r0 / r1;
+
+            long tmp = r0 - q * r1;
+            r0 = r1;
+            r1 = tmp;
+
+            tmp = t0 - q * t1;
+            t0 = t1;
+            t1 = tmp;
+        }
+
+        if (r0 != 1L) {
+            throw new ArithmeticException("Not invertible: " + a + " mod " + p);
+        }
+
+        return mod(t0, p);
+    }
+}
@@ -7,6 +7,7 @@ import jscl.math.generic.NotIntegerException;
 import jscl.math.generic.NotVariableException;
 import jscl.math.generic.expression.literal.Literal;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +17,7 @@ import java.util.List;
  * Date: 2/18/12
  * Time: 10:56 PM
  */
-class Summand {
+public class Summand {
 
     @NotNull
     private final Literal literal;
@@ -31,13 +32,13 @@ class Summand {
     }
 
     @NotNull
-    static Summand newInstance(@NotNull GenericInteger coefficient,
-                               @NotNull Literal literal) {
+    public static Summand newInstance(@NotNull GenericInteger coefficient,
+                                      @NotNull Literal literal) {
         return new Summand(coefficient, literal);
     }
 
     @NotNull
-    static Summand newInstance(@NotNull GenericInteger coefficient) {
+    public static Summand newInstance(@NotNull GenericInteger coefficient) {
         return new Summand(coefficient, Literal.newEmpty());
     }
 
@@ -58,26 +59,34 @@ class Summand {
 
     @NotNull
     public GenericInteger integerValue() {
-        GenericInteger result;
-
-        if (this.literal.getDegree() == 0) {
-            result = this.coefficient;
+        final GenericInteger result = tryIntegerValue();
+        if (result != null) {
+            return result;
         } else {
-            throw new NotIntegerException();
+            throw NotIntegerException.instance;
         }
+    }
 
-        return result;
+    @Nullable
+    public GenericInteger tryIntegerValue() {
+        return this.literal.getDegree() == 0 ? this.coefficient : null;
     }
 
     @NotNull
     public Variable variableValue() {
-        if (coefficient.isOne()) {
-            return literal.variableValue();
+        final Variable result = tryVariableValue();
+        if (result != null) {
+            return result;
         } else {
-            throw new NotVariableException();
+            throw NotVariableException.instance;
         }
     }
 
+    @Nullable
+    public Variable tryVariableValue() {
+        return coefficient.isOne() ? literal.tryVariableValue() : null;
+    }
+
     @NotNull
     public List<Generic> productValue() {
         final List<Generic> result = literal.productValue();
@@ -21,33 +21,46 @@ import java.util.*;
  */
 public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, Iterable<Productand> {
 
-    private static final Literal EMPTY_LITERAL = new Literal(Collections.<Productand>emptyList());
+    private static final Literal EMPTY_LITERAL = new Literal(new Productand[0], 0);
 
-    @NotNull
-    private final List<Productand> productands;
+    // marker of literal which cannot be packed
+    private static final long[] NOT_PACKABLE = new long[0];
 
-    @NotNull
-    private final List<Variable> variables;
+    // productands sorted by variable (only first size elements are used, array might be longer),
+    // might be null if literal was created in packed form (will be restored on demand)
+    @Nullable
+    private volatile Productand[] productands;
+
+    // packed exponents (see VariableIndex), first element is epoch of the layout. Null if literal is not yet packed
+    @Nullable
+    private volatile long[] packed;
+
+    @Nullable
+    private VariableIndex index;
 
     private final int degree;
 
+    private final int size;
+
     @Override
     public Iterator<Productand> iterator() {
-        return productands.iterator();
+        return getProductands().iterator();
     }
 
     public Variable variableValue() {
-        int size = getSize();
-        if (size == 0) {
-            throw new NotVariableException();
-        } else if (size == 1) {
-            final Productand p = productands.get(0);
-            return p.variableValue();
+        final Variable result = tryVariableValue();
+        if (result != null) {
+            return result;
         } else {
-            throw new NotVariableException();
+            throw NotVariableException.instance;
         }
     }
 
+    @Nullable
+    public Variable tryVariableValue() {
+        return getSize() == 1 ? getProductand(0).tryVariableValue() : null;
+    }
+
 
 
 
@@ -61,17 +74,24 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
 
     public static class Builder extends ImmutableObjectBuilder<Literal> {
 
-        private final List<Productand> productands;
+        @NotNull
+        private Productand[] productands;
+
+        private int size = 0;
 
         public Builder(int initialCapacity) {
-            this.productands = new ArrayList<Productand>(initialCapacity);
+            this.productands = new Productand[initialCapacity];
         }
 
         public void addProductand(@NotNull Productand p) {
             if (isLocked()) {
                 throw new IllegalStateException("Cannot add productand to already created expression!");
             }
-            this.productands.add(p);
+
+            if (size == productands.length) {
+                productands = Arrays.copyOf(productands, Math.max(4, 2 * size));
+            }
+            this.productands[size++] = p;
         }
 
         public void addProductand(@NotNull Variable variable, int exponent) {
@@ -84,12 +104,16 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
 
         @NotNull
         public Literal build0() {
-            // avoid not used memory
-            if (productands instanceof ArrayList) {
-                ((ArrayList) productands).trimToSize();
+            if (size == 0) {
+                return EMPTY_LITERAL;
             }
 
-            return new Literal(productands);
+            // array is shrunk in place (literal uses only first size elements), copy only if too much memory is wasted
+            if (size < productands.length / 2) {
+                productands = Arrays.copyOf(productands, size);
+            }
+
+            return new Literal(productands, size);
         }
     }
 
@@ -105,19 +129,94 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
         return b.build();
     }
 
-    private Literal(@NotNull List<Productand> productands) {
+    private Literal(@NotNull Productand[] productands, int size) {
         this.productands = productands;
-        this.variables = new ArrayList<Variable>(productands.size());
+        this.size = size;
 
         int degree = 0;
-        for (Productand productand : productands) {
-            degree += productand.getExponent();
-            variables.add(productand.getVariable());
+        for (int i = 0; i < size; i++) {
+            degree += productands[i].getExponent();
         }
 
         this.degree = degree;
     }
 
+    private Literal(@NotNull VariableIndex index, @NotNull long[] packed, int degree) {
+        this.index = index;
+        this.packed = packed;
+        this.degree = degree;
+        this.size = VariableIndex.countNonZero(packed);
+    }
+
+    @NotNull
+    static Literal newPacked(@NotNull VariableIndex index, @NotNull long[] packed, int degree) {
+        return new Literal(index, packed, degree);
+    }
+
+    /*
+   * *********************************************************************
+   *
+   *                         PACKED FORM
+   *
+   * *********************************************************************
+    */
+
+    @Nullable
+    VariableIndex getIndex() {
+        VariableIndex result = index;
+        if (result == null && size > 0) {
+            final Productand[] localProductands = productands;
+            assert localProductands != null;
+            // do not care about synchronization: all variables share the same context
+            index = result = localProductands[0].getVariable().getContext().getVariableIndex();
+        }
+        return result;
+    }
+
+    /**
+     * @return exponents packed against current layout of variable index or null if literal cannot be packed.
+     * Must not be called for empty literal
+     */
+    @Nullable
+    long[] getPacked() {
+        assert size > 0;
+
+        final VariableIndex index = getIndex();
+        assert index != null;
+
+        final long[] localPacked = packed;
+        if (localPacked == NOT_PACKABLE) {
+            return null;
+        } else if (localPacked != null && localPacked[0] == index.getCurrentLayout().epoch) {
+            return localPacked;
+        } else {
+            // not packed yet or packed against stale layout
+            final Productand[] localProductands = getProductandsArray();
+
+            final VariableIndex.Layout layout = index.register(localProductands, size);
+            long[] result = layout == null ? null : VariableIndex.pack(localProductands, size, layout);
+
+            packed = result == null ? NOT_PACKABLE : result;
+            return result;
+        }
+    }
+
+    /**
+     * @return backing array of productands, only first {@link #getSize()} elements must be used
+     */
+    @NotNull
+    Productand[] getProductandsArray() {
+        Productand[] result = productands;
+        if (result == null) {
+            final long[] localPacked = packed;
+            final VariableIndex localIndex = index;
+            assert localPacked != null && localIndex != null;
+
+            productands = result = VariableIndex.unpack(localPacked, localIndex.getLayout(localPacked[0]), size);
+        }
+        return result;
+    }
+
     /*
    * *********************************************************************
    *
@@ -128,21 +227,30 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
 
     @NotNull
     public Productand getProductand(int i) {
-        return productands.get(i);
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+        }
+        return getProductandsArray()[i];
     }
 
     @NotNull
     public List<Variable> getVariables() {
-        return Collections.unmodifiableList(variables);
+        final Productand[] localProductands = getProductandsArray();
+
+        final List<Variable> result = new ArrayList<Variable>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(localProductands[i].getVariable());
+        }
+        return Collections.unmodifiableList(result);
     }
 
     @NotNull
     public List<Productand> getProductands() {
-        return Collections.unmodifiableList(productands);
+        return Collections.unmodifiableList(Arrays.asList(getProductandsArray()).subList(0, size));
     }
 
     public int getSize() {
-        return this.productands.size();
+        return this.size;
     }
 
     @NotNull
@@ -150,8 +258,40 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
         return LiteralMultiplicator.instance.multiply(this, that);
     }
 
+    /**
+     * @return literal with all exponents multiplied by <var>exponent</var>
+     * @throws ArithmeticException if some exponent overflows
+     */
+    @NotNull
+    public Literal pow(int exponent) {
+        if (exponent == 0 || size == 0) {
+            return newEmpty();
+        } else if (exponent == 1) {
+            return this;
+        } else {
+            final Builder result = new Builder(size);
+            for (Productand productand : getProductands()) {
+                result.addProductand(productand.getVariable(), Math.multiplyExact(productand.getExponent(), exponent));
+            }
+            return result.build();
+        }
+    }
+
     @NotNull
     public Literal divide(@NotNull Literal that) throws NotDivisibleException {
+        final Literal result = tryDivide(that);
+        if (result != null) {
+            return result;
+        } else {
+            throw new NotDivisibleException();
+        }
+    }
+
+    /**
+     * @return quotient or null if this literal is not divisible by <var>that</var>
+     */
+    @Nullable
+    public Literal tryDivide(@NotNull Literal that) {
         return LiteralDivider.instance.divide(this, that);
     }
 
@@ -169,7 +309,7 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
     public List<Generic> productValue() throws NotProductException {
         final List<Generic> result = new ArrayList<Generic>(getSize());
 
-        for (Productand productand : productands) {
+        for (Productand productand : getProductands()) {
             result.add(productand.asGeneric());
         }
 
@@ -269,7 +409,7 @@ public class Literal implements Comparable, ToMathMlWritable, ToJavaWritable, It
     public Map<Variable, Generic> content(@NotNull Converter<Transformable, Generic> c) {
         final Map<Variable, Generic> result = new TreeMap<Variable, Generic>();
 
-        for (Productand productand : productands) {
+        for (Productand productand : getProductands()) {
             final Variable variable = productand.getVariable();
             if (!result.containsKey(variable)) {
                 result.put(variable, c.convert(variable));
@@ -1,6 +1,6 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.util.MutableInt;
+import jscl.math.IntegerVariable;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Comparator;
@@ -15,33 +15,50 @@ enum LiteralComparator implements Comparator<Literal> {
     instance;
 
     public int compare(@NotNull Literal l, @NotNull Literal r) {
-        final MutableInt li = new MutableInt(l.getSize() - 1);
-        final MutableInt ri = new MutableInt(r.getSize() - 1);
-
-        Productand lp = LiteralUtils.getPrev(l, li);
-        Productand rp = LiteralUtils.getPrev(r, ri);
-
-        while (lp != null || rp != null) {
-            int c = LiteralUtils.compare(lp, rp);
+        if (l.getSize() == 0 || r.getSize() == 0) {
+            return l.getSize() == 0 ? (r.getSize() == 0 ? 0 : -1) : 1;
+        }
 
-            if (c == 0) {
+        final long[] rPacked = r.getPacked();
+        final long[] lPacked = LiteralUtils.getPacked(l, r, rPacked);
+        if (lPacked != null) {
+            assert rPacked != null;
+            // the greatest variable is in the highest bits of the first word
+            for (int i = 1; i < lPacked.length; i++) {
+                if (lPacked[i] != rPacked[i]) {
+                    return lPacked[i] < rPacked[i] ? -1 : 1;
+                }
+            }
+            return 0;
+        }
 
-                assert lp != null;
-                assert rp != null;
+        final Productand[] lp = l.getProductandsArray();
+        final Productand[] rp = r.getProductandsArray();
 
-                if (lp.getExponent() < rp.getExponent()) {
-                    return -1;
-                } else if (lp.getExponent() > rp.getExponent()) {
-                    return 1;
-                } else {
-                    lp = LiteralUtils.getPrev(l, li);
-                    rp = LiteralUtils.getPrev(r, ri);
-                }
+        // lexicographic order on exponents starting from the greatest variable:
+        // missing variable has zero exponent => literal which has run out of productands is less
+        int i = l.getSize() - 1;
+        int j = r.getSize() - 1;
+        while (i >= 0 && j >= 0) {
+            final int c = IntegerVariable.compare(lp[i].getVariable(), rp[j].getVariable());
+            if (c != 0) {
+                return c < 0 ? -1 : 1;
+            }
 
-            } else {
-                return c;
+            final int le = lp[i].getExponent();
+            final int re = rp[j].getExponent();
+            if (le != re) {
+                return le < re ? -1 : 1;
             }
 
+            i--;
+            j--;
+        }
+
+        if (i >= 0) {
+            return 1;
+        } else if (j >= 0) {
+            return -1;
         }
 
         return 0;
@@ -1,8 +1,8 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.math.NotDivisibleException;
-import jscl.util.MutableInt;
+import jscl.math.IntegerVariable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * User: serso
@@ -13,47 +13,91 @@ enum LiteralDivider {
 
     instance;
 
-    @NotNull
-    public Literal divide(@NotNull Literal l, @NotNull Literal r) throws NotDivisibleException {
-        final Literal.Builder result = new Literal.Builder(l.getSize() + r.getSize());
+    /**
+     * @return quotient or null if <var>l</var> is not divisible by <var>r</var>
+     */
+    @Nullable
+    public Literal divide(@NotNull Literal l, @NotNull Literal r) {
+        if (r.getSize() == 0) {
+            return l;
+        } else if (l.getSize() == 0) {
+            return null;
+        }
 
-        final MutableInt li = new MutableInt();
-        final MutableInt ri = new MutableInt();
+        final long[] rPacked = r.getPacked();
+        final long[] lPacked = LiteralUtils.getPacked(l, r, rPacked);
+        if (lPacked != null) {
+            assert rPacked != null;
 
-        Productand lp = LiteralUtils.getNext(l, li);
-        Productand rp = LiteralUtils.getNext(r, ri);
+            final long[] result = new long[lPacked.length];
+            result[0] = lPacked[0];
 
-        while (lp != null || rp != null) {
-            final int c = LiteralUtils.compare(lp, rp);
+            boolean empty = true;
+            for (int i = 1; i < lPacked.length; i++) {
+                // guard bit stays set in every field where dividend's exponent is not less than divisor's one
+                final long difference = (lPacked[i] | VariableIndex.GUARDS) - rPacked[i];
+                if ((difference & VariableIndex.GUARDS) != VariableIndex.GUARDS) {
+                    return null;
+                }
+                result[i] = difference & ~VariableIndex.GUARDS;
+                empty &= result[i] == 0L;
+            }
 
-            if (c < 0) {
-                // dividend has more elements than divisor => just add
-                assert lp != null;
+            if (empty) {
+                return Literal.newEmpty();
+            } else {
+                final VariableIndex index = l.getIndex();
+                assert index != null;
+                return Literal.newPacked(index, result, l.getDegree() - r.getDegree());
+            }
+        }
 
-                result.addProductand(lp);
+        final Productand[] lp = l.getProductandsArray();
+        final Productand[] rp = r.getProductandsArray();
+        final int lSize = l.getSize();
+        final int rSize = r.getSize();
+
+        if (rSize > lSize) {
+            // divisor has more variables than dividend => cannot divide
+            return null;
+        }
 
-                lp = LiteralUtils.getNext(l, li);
+        final Literal.Builder result = new Literal.Builder(lSize);
+
+        int i = 0;
+        int j = 0;
+        while (i < lSize && j < rSize) {
+            final int c = IntegerVariable.compare(lp[i].getVariable(), rp[j].getVariable());
+
+            if (c < 0) {
+                // dividend has more elements than divisor => just add
+                result.addProductand(lp[i++]);
             } else if (c > 0) {
                 // divisor has some element left => cannot divide
-                throw new NotDivisibleException();
+                return null;
             } else {
-                assert rp != null;
-                assert lp != null;
-
-                int s = lp.getExponent() - rp.getExponent();
+                final int s = lp[i].getExponent() - rp[j].getExponent();
                 if (s < 0) {
-                    throw new NotDivisibleException();
-                } else if (s == 0) {
-                    // no need to add productand as it equals to 1
-                } else {
-                    result.addProductand(lp);
+                    return null;
+                } else if (s > 0) {
+                    result.addProductand(lp[i].getVariable(), s);
                 }
+                // s == 0: no need to add productand as it equals to 1
 
-                lp = LiteralUtils.getNext(l, li);
-                rp = LiteralUtils.getNext(r, ri);
+                i++;
+                j++;
             }
         }
 
+        if (j < rSize) {
+            // divisor has some element left => cannot divide
+            return null;
+        }
+
+        while (i < lSize) {
+            result.addProductand(lp[i++]);
+        }
+
         return result.build();
     }
 
@@ -1,6 +1,6 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.util.MutableInt;
+import jscl.math.IntegerVariable;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -14,31 +14,56 @@ enum LiteralGcd {
 
     @NotNull
     public Literal gcd(@NotNull Literal l, @NotNull Literal r) {
-        final Literal.Builder result = new Literal.Builder(Math.min(l.getSize(), r.getSize()));
+        if (l.getSize() == 0 || r.getSize() == 0) {
+            return Literal.newEmpty();
+        }
 
-        final MutableInt li = new MutableInt();
-        final MutableInt ri = new MutableInt();
+        final long[] rPacked = r.getPacked();
+        final long[] lPacked = LiteralUtils.getPacked(l, r, rPacked);
+        if (lPacked != null) {
+            assert rPacked != null;
 
-        Productand lp = LiteralUtils.getNext(l, li);
-        Productand rp = LiteralUtils.getNext(r, ri);
+            final long[] result = new long[lPacked.length];
+            result[0] = lPacked[0];
 
-        while (lp != null || rp != null) {
-            final int c = LiteralUtils.compare(lp, rp);
+            boolean empty = true;
+            for (int i = 1; i < lPacked.length; i++) {
+                // min of exponents field by field
+                final long ge = LiteralUtils.greaterOrEqualMask(lPacked[i], rPacked[i]);
+                result[i] = (rPacked[i] & ge) | (lPacked[i] & ~ge);
+                empty &= result[i] == 0L;
+            }
 
-            if (c < 0) {
-                lp = LiteralUtils.getNext(l, li);
-            } else if (c > 0) {
-                rp = LiteralUtils.getNext(r, ri);
+            if (empty) {
+                return Literal.newEmpty();
             } else {
-                assert lp != null;
-                assert rp != null;
+                final VariableIndex index = l.getIndex();
+                assert index != null;
+                return Literal.newPacked(index, result, LiteralUtils.degree(result));
+            }
+        }
+
+        final Productand[] lp = l.getProductandsArray();
+        final Productand[] rp = r.getProductandsArray();
+        final int lSize = l.getSize();
+        final int rSize = r.getSize();
 
-                int minExponent = Math.min(lp.getExponent(), rp.getExponent());
+        final Literal.Builder result = new Literal.Builder(Math.min(lSize, rSize));
 
-                result.addProductand(lp.getVariable(), minExponent);
+        // only common variables are in the result
+        int i = 0;
+        int j = 0;
+        while (i < lSize && j < rSize) {
+            final int c = IntegerVariable.compare(lp[i].getVariable(), rp[j].getVariable());
 
-                lp = LiteralUtils.getNext(l, li);
-                rp = LiteralUtils.getNext(r, ri);
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                result.addProductand(lp[i].getExponent() <= rp[j].getExponent() ? lp[i] : rp[j]);
+                i++;
+                j++;
             }
         }
 
@@ -1,6 +1,6 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.util.MutableInt;
+import jscl.math.IntegerVariable;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -14,40 +14,68 @@ enum LiteralLcm {
 
     @NotNull
     public Literal lcm(@NotNull Literal l, @NotNull Literal r) {
-        final Literal.Builder result = new Literal.Builder(l.getSize() + r.getSize());
-
-        MutableInt li = new MutableInt();
-        MutableInt ri = new MutableInt();
-
-        Productand lp = LiteralUtils.getNext(l, li);
-        Productand rp = LiteralUtils.getNext(r, ri);
+        if (l.getSize() == 0) {
+            return r;
+        } else if (r.getSize() == 0) {
+            return l;
+        }
 
-        while (lp != null || rp != null) {
-            int c = LiteralUtils.compare(lp, rp);
+        final long[] rPacked = r.getPacked();
+        final long[] lPacked = LiteralUtils.getPacked(l, r, rPacked);
+        if (lPacked != null) {
+            assert rPacked != null;
 
-            if (c < 0) {
-                assert lp != null;
+            final long[] result = new long[lPacked.length];
+            result[0] = lPacked[0];
 
-                result.addProductand(lp);
-                lp = LiteralUtils.getNext(l, li);
-            } else if (c > 0) {
-                assert rp != null;
+            boolean empty = true;
+            for (int i = 1; i < lPacked.length; i++) {
+                // max of exponents field by field
+                final long ge = LiteralUtils.greaterOrEqualMask(lPacked[i], rPacked[i]);
+                result[i] = (lPacked[i] & ge) | (rPacked[i] & ~ge);
+                empty &= result[i] == 0L;
+            }
 
-                result.addProductand(rp);
-                rp = LiteralUtils.getNext(r, ri);
+            if (empty) {
+                return Literal.newEmpty();
             } else {
-                assert lp != null;
-                assert rp != null;
+                final VariableIndex index = l.getIndex();
+                assert index != null;
+                return Literal.newPacked(index, result, LiteralUtils.degree(result));
+            }
+        }
 
-                int maxExponent = Math.max(lp.getExponent(), rp.getExponent());
+        final Productand[] lp = l.getProductandsArray();
+        final Productand[] rp = r.getProductandsArray();
+        final int lSize = l.getSize();
+        final int rSize = r.getSize();
 
-                result.addProductand(lp.getVariable(), maxExponent);
+        final Literal.Builder result = new Literal.Builder(lSize + rSize);
 
-                lp = LiteralUtils.getNext(l, li);
-                rp = LiteralUtils.getNext(r, ri);
+        int i = 0;
+        int j = 0;
+        while (i < lSize && j < rSize) {
+            final int c = IntegerVariable.compare(lp[i].getVariable(), rp[j].getVariable());
+
+            if (c < 0) {
+                result.addProductand(lp[i++]);
+            } else if (c > 0) {
+                result.addProductand(rp[j++]);
+            } else {
+                result.addProductand(lp[i].getExponent() >= rp[j].getExponent() ? lp[i] : rp[j]);
+                i++;
+                j++;
             }
         }
 
+        while (i < lSize) {
+            result.addProductand(lp[i++]);
+        }
+
+        while (j < rSize) {
+            result.addProductand(rp[j++]);
+        }
+
         return result.build();
     }
 }
@@ -1,6 +1,6 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.util.MutableInt;
+import jscl.math.IntegerVariable;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -14,38 +14,65 @@ enum LiteralMultiplicator {
 
     @NotNull
     public Literal multiply(@NotNull Literal l, @NotNull Literal r) {
-        final Literal.Builder result = new Literal.Builder(l.getSize() + r.getSize());
+        if (l.getSize() == 0) {
+            return r;
+        } else if (r.getSize() == 0) {
+            return l;
+        }
 
-        final MutableInt li = new MutableInt();
-        final MutableInt ri = new MutableInt();
+        final long[] rPacked = r.getPacked();
+        final long[] lPacked = LiteralUtils.getPacked(l, r, rPacked);
+        if (lPacked != null) {
+            assert rPacked != null;
 
-        Productand lp = LiteralUtils.getNext(l, li);
-        Productand rp = LiteralUtils.getNext(r, ri);
+            final long[] result = new long[lPacked.length];
+            result[0] = lPacked[0];
 
-        while (lp != null || rp != null) {
-            final int c = LiteralUtils.compare(lp, rp);
+            long overflow = 0L;
+            for (int i = 1; i < lPacked.length; i++) {
+                result[i] = lPacked[i] + rPacked[i];
+                overflow |= result[i];
+            }
 
-            if (c < 0) {
-                assert lp != null;
+            if ((overflow & VariableIndex.GUARDS) == 0L) {
+                final VariableIndex index = l.getIndex();
+                assert index != null;
+                return Literal.newPacked(index, result, l.getDegree() + r.getDegree());
+            }
+            // else: some exponent doesn't fit into packed field => wide form
+        }
 
-                result.addProductand(lp);
-                lp = LiteralUtils.getNext(l, li);
-            } else if (c > 0) {
-                assert rp != null;
+        final Productand[] lp = l.getProductandsArray();
+        final Productand[] rp = r.getProductandsArray();
+        final int lSize = l.getSize();
+        final int rSize = r.getSize();
 
-                result.addProductand(rp);
-                rp = LiteralUtils.getNext(r, ri);
-            } else {
-                assert lp != null;
-                assert rp != null;
+        final Literal.Builder result = new Literal.Builder(lSize + rSize);
 
-                result.addProductand(lp.getVariable(), lp.getExponent() + rp.getExponent());
+        int i = 0;
+        int j = 0;
+        while (i < lSize && j < rSize) {
+            final int c = IntegerVariable.compare(lp[i].getVariable(), rp[j].getVariable());
 
-                lp = LiteralUtils.getNext(l, li);
-                rp = LiteralUtils.getNext(r, ri);
+            if (c < 0) {
+                result.addProductand(lp[i++]);
+            } else if (c > 0) {
+                result.addProductand(rp[j++]);
+            } else {
+                result.addProductand(lp[i].getVariable(), lp[i].getExponent() + rp[j].getExponent());
+                i++;
+                j++;
             }
         }
 
+        while (i < lSize) {
+            result.addProductand(lp[i++]);
+        }
+
+        while (j < rSize) {
+            result.addProductand(rp[j++]);
+        }
+
         return result.build();
     }
 }
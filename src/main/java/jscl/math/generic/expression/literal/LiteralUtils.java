@@ -1,6 +1,5 @@
 package jscl.math.generic.expression.literal;
 
-import jscl.util.MutableInt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -11,32 +10,56 @@ import org.jetbrains.annotations.Nullable;
  */
 class LiteralUtils {
 
+    private LiteralUtils() {
+        throw new AssertionError();
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           PACKED LITERALS
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return packed exponents of <var>l</var> which can be used together with <var>rPacked</var>
+     * (same variable index and same layout) or null if packed form cannot be used
+     */
     @Nullable
-    static Productand getNext(@NotNull Literal l,
-                              @NotNull MutableInt i) {
-        int iInt = i.intValue();
-        final Productand result = iInt < l.getSize() ? l.getProductand(iInt) : null;
-        i.increment();
+    static long[] getPacked(@NotNull Literal l, @NotNull Literal r, @Nullable long[] rPacked) {
+        if (rPacked == null || l.getIndex() != r.getIndex()) {
+            return null;
+        }
+
+        long[] result = l.getPacked();
+        if (result != null && result[0] != rPacked[0]) {
+            // layout might be changed while packing r => try once more
+            result = l.getPacked();
+            if (result != null && result[0] != rPacked[0]) {
+                result = null;
+            }
+        }
         return result;
     }
 
-    static int compare(@Nullable Productand lp, @Nullable Productand rp) {
-        int c;
-        if (lp == null) {
-            c = 1;
-        } else if (rp == null) {
-            c = -1;
-        } else {
-            c = lp.getVariable().compareTo(rp.getVariable());
+    static int degree(@NotNull long[] packed) {
+        int result = 0;
+        for (int i = 1; i < packed.length; i++) {
+            long word = packed[i];
+            while (word != 0L) {
+                result += (int) (word & VariableIndex.FIELD_MASK);
+                word >>>= VariableIndex.FIELD_BITS;
+            }
         }
-        return c;
+        return result;
     }
 
-    @Nullable
-    public static Productand getPrev(@NotNull Literal l, @NotNull MutableInt i) {
-        int iInt = i.intValue();
-        final Productand result = iInt > 0 ? l.getProductand(iInt) : null;
-        i.decrement();
-        return result;
+    /**
+     * @return mask with all bits set in the fields where exponent of <var>l</var> is not less than exponent of <var>r</var>
+     */
+    static long greaterOrEqualMask(long l, long r) {
+        final long difference = (l | VariableIndex.GUARDS) - r;
+        return ((difference & VariableIndex.GUARDS) >>> (VariableIndex.FIELD_BITS - 1)) * VariableIndex.FIELD_MASK;
     }
 }
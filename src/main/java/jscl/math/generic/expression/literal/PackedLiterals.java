@@ -0,0 +1,173 @@
+package jscl.math.generic.expression.literal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Exponents of several literals packed against one layout of {@link VariableIndex} and stored in one array:
+ * k-th literal occupies words [k * width, (k + 1) * width) (epoch word is not stored).
+ * <p/>
+ * Packed literals can be used as keys of hash tables: product of literals is word-wise sum of their keys and order
+ * of keys (see {@link #compare(long[], int, long[], int, int)}) is the order of literals.
+ */
+public final class PackedLiterals {
+
+    @NotNull
+    private final VariableIndex index;
+
+    private final long epoch;
+
+    private final int width;
+
+    @NotNull
+    private final long[] words;
+
+    private PackedLiterals(@NotNull VariableIndex index, long epoch, int width, @NotNull long[] words) {
+        this.index = index;
+        this.epoch = epoch;
+        this.width = width;
+        this.words = words;
+    }
+
+    /**
+     * Packs first <var>lSize</var> literals of <var>l</var> followed by first <var>rSize</var> literals of <var>r</var>
+     *
+     * @return packed literals or null if some literal cannot be packed or if all literals are empty
+     */
+    @Nullable
+    public static PackedLiterals pack(@NotNull Literal[] l, int lSize, @NotNull Literal[] r, int rSize) {
+        // layout might be changed while packing => second attempt packs against the layout with all variables
+        for (int attempt = 0; attempt < 2; attempt++) {
+            VariableIndex index = null;
+            long epoch = -1L;
+            boolean sameLayout = true;
+
+            final long[][] packed = new long[lSize + rSize][];
+            for (int k = 0; k < packed.length; k++) {
+                final Literal literal = k < lSize ? l[k] : r[k - lSize];
+                if (literal.getSize() > 0) {
+                    final VariableIndex literalIndex = literal.getIndex();
+                    if (index == null) {
+                        index = literalIndex;
+                    } else if (index != literalIndex) {
+                        return null;
+                    }
+
+                    packed[k] = literal.getPacked();
+                    if (packed[k] == null) {
+                        return null;
+                    }
+
+                    if (epoch < 0) {
+                        epoch = packed[k][0];
+                    } else {
+                        sameLayout &= epoch == packed[k][0];
+                    }
+                }
+            }
+
+            if (index == null) {
+                return null;
+            }
+
+            if (sameLayout) {
+                final int width = index.getLayout(epoch).words;
+
+                final long[] words = new long[packed.length * width];
+                for (int k = 0; k < packed.length; k++) {
+                    if (packed[k] != null) {
+                        System.arraycopy(packed[k], 1, words, k * width, width);
+                    }
+                    // else: empty literal => all exponents are zero
+                }
+
+                return new PackedLiterals(index, epoch, width, words);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return number of words of one packed literal
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return words of all packed literals, see {@link #getOffset(int)}
+     */
+    @NotNull
+    public long[] getWords() {
+        return words;
+    }
+
+    /**
+     * @return offset of the first word of k-th literal in {@link #getWords()}
+     */
+    public int getOffset(int k) {
+        return k * width;
+    }
+
+    /**
+     * @return maximum exponent of each field over all packed literals from <var>from</var> (inclusive) to
+     *         <var>to</var> (exclusive), one element per field starting from the highest field of the first word
+     */
+    @NotNull
+    public int[] getMaxExponents(int from, int to) {
+        final int[] result = new int[width * VariableIndex.FIELDS_PER_WORD];
+        for (int k = from; k < to; k++) {
+            for (int w = 0; w < width; w++) {
+                final long word = words[k * width + w];
+                for (int f = 0; f < VariableIndex.FIELDS_PER_WORD; f++) {
+                    final int exponent = (int) ((word >>> ((VariableIndex.FIELDS_PER_WORD - 1 - f) * VariableIndex.FIELD_BITS)) & VariableIndex.FIELD_MASK);
+                    final int i = w * VariableIndex.FIELDS_PER_WORD + f;
+                    result[i] = Math.max(result[i], exponent);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return maximum exponent which can be stored in one field
+     */
+    public static int getMaxFieldExponent() {
+        return VariableIndex.MAX_EXPONENT;
+    }
+
+    /**
+     * @return literal with exponents packed in <var>width</var> words of <var>key</var> starting from
+     *         <var>offset</var>, exponents must not have guard bits set
+     */
+    @NotNull
+    public Literal toLiteral(@NotNull long[] key, int offset) {
+        final long[] packed = new long[width + 1];
+        packed[0] = epoch;
+
+        boolean empty = true;
+        for (int w = 0; w < width; w++) {
+            packed[w + 1] = key[offset + w];
+            empty &= packed[w + 1] == 0L;
+        }
+
+        return empty ? Literal.newEmpty() : Literal.newPacked(index, packed, LiteralUtils.degree(packed));
+    }
+
+    /**
+     * @return comparison of literals packed in words of <var>l</var> and <var>r</var> starting from
+     *         <var>lOffset</var> and <var>rOffset</var> (consistent with {@link Literal#compareTo(Literal)})
+     */
+    public static int compare(@NotNull long[] l, int lOffset, @NotNull long[] r, int rOffset, int width) {
+        for (int w = 0; w < width; w++) {
+            final long lw = l[lOffset + w];
+            final long rw = r[rOffset + w];
+            if (lw != rw) {
+                // guard bits are not set => words are non-negative
+                return lw < rw ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+}
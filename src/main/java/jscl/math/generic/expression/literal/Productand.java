@@ -5,6 +5,7 @@ import jscl.math.Variable;
 import jscl.math.generic.Generic;
 import jscl.math.generic.NotVariableException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * User: serso
@@ -47,10 +48,15 @@ public class Productand {
         if ( exponent == 1 ) {
             return variable;
         } else {
-            throw new NotVariableException();
+            throw NotVariableException.instance;
         }
     }
 
+    @Nullable
+    public Variable tryVariableValue() {
+        return exponent == 1 ? variable : null;
+    }
+
     @NotNull
     public Generic asGeneric() {
         if (exponent == 0) {
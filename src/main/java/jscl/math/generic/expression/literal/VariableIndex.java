@@ -0,0 +1,255 @@
+package jscl.math.generic.expression.literal;
+
+import jscl.math.IntegerVariable;
+import jscl.math.Variable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Context-wide index of variables used for packed representation of literals.
+ * <p/>
+ * Each variable known to the index has a slot, slots follow variable order. Exponents of a literal are packed into
+ * long words: each exponent takes {@link #FIELD_BITS} bits where the highest bit is a guard bit (always zero in a valid
+ * monomial), exponent of the greatest variable goes to the highest field of the first word.
+ * This way comparison of two literals is a comparison of words, multiplication is word addition (guard bit set =>
+ * overflow) and divisibility test is subtraction of words with guard bits set in the minuend.
+ * <p/>
+ * Adding new variable might shift slots of existing variables => every set of slots is stored as {@link Layout} with
+ * its own epoch, packed literal keeps epoch of the layout in its first word and is repacked if the layout is stale.
+ */
+public final class VariableIndex {
+
+    static final int FIELD_BITS = 16;
+
+    static final int FIELDS_PER_WORD = Long.SIZE / FIELD_BITS;
+
+    static final int MAX_EXPONENT = (1 << (FIELD_BITS - 1)) - 1;
+
+    static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+    // guard bit of each field
+    static final long GUARDS = 0x8000800080008000L;
+
+    // lowest bit of each field
+    static final long ONES = GUARDS >>> (FIELD_BITS - 1);
+
+    // literals are not packed if there are too many variables: packed literals would be too long
+    public static final int MAX_VARIABLES = 32;
+
+    /**
+     * Immutable set of slots
+     */
+    static final class Layout {
+
+        final int epoch;
+
+        // sorted variables, index in array = slot
+        @NotNull
+        final Variable[] variables;
+
+        // number of words needed to store exponents of all variables (epoch word is not counted)
+        final int words;
+
+        private Layout(int epoch, @NotNull Variable[] variables) {
+            this.epoch = epoch;
+            this.variables = variables;
+            this.words = (variables.length + FIELDS_PER_WORD - 1) / FIELDS_PER_WORD;
+        }
+
+        /**
+         * @return slot of the variable or negative value if variable is not in the layout
+         */
+        int slot(@NotNull Variable variable) {
+            int low = 0;
+            int high = variables.length - 1;
+
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int c = IntegerVariable.compare(variables[middle], variable);
+                if (c < 0) {
+                    low = middle + 1;
+                } else if (c > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+
+            return -(low + 1);
+        }
+
+        // position of the field in packed array (first element is epoch)
+        int word(int slot) {
+            return 1 + (variables.length - 1 - slot) / FIELDS_PER_WORD;
+        }
+
+        int shift(int slot) {
+            return (FIELDS_PER_WORD - 1 - (variables.length - 1 - slot) % FIELDS_PER_WORD) * FIELD_BITS;
+        }
+    }
+
+    @NotNull
+    private volatile Layout[] layouts = new Layout[]{new Layout(0, new Variable[0])};
+
+    @NotNull
+    Layout getCurrentLayout() {
+        final Layout[] localLayouts = layouts;
+        return localLayouts[localLayouts.length - 1];
+    }
+
+    @NotNull
+    Layout getLayout(long epoch) {
+        return layouts[(int) epoch];
+    }
+
+    public int getSize() {
+        return getCurrentLayout().variables.length;
+    }
+
+    /**
+     * Adds variables of the productands to the index (if they are not yet there)
+     *
+     * @param productands productands sorted by variable
+     * @param size        number of productands
+     * @return layout which contains all the variables or null if index is full or some variable cannot be indexed
+     */
+    @Nullable
+    Layout register(@NotNull Productand[] productands, int size) {
+        // integer variables (primes of factorizations) precede other variables => only the first one is checked.
+        // Each of them would take a slot forever and would change the layout => all literals would be repacked
+        if (size > 0 && productands[0].getVariable() instanceof IntegerVariable) {
+            return null;
+        }
+
+        Layout result = getCurrentLayout();
+        if (contains(result, productands, size)) {
+            return result;
+        }
+
+        synchronized (this) {
+            result = getCurrentLayout();
+            if (contains(result, productands, size)) {
+                return result;
+            }
+
+            final Variable[] variables = merge(result.variables, productands, size);
+            if (variables.length > MAX_VARIABLES) {
+                return null;
+            }
+
+            result = new Layout(layouts.length, variables);
+
+            final Layout[] newLayouts = new Layout[layouts.length + 1];
+            System.arraycopy(layouts, 0, newLayouts, 0, layouts.length);
+            newLayouts[layouts.length] = result;
+            layouts = newLayouts;
+
+            return result;
+        }
+    }
+
+    private static boolean contains(@NotNull Layout layout, @NotNull Productand[] productands, int size) {
+        for (int i = 0; i < size; i++) {
+            if (layout.slot(productands[i].getVariable()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static Variable[] merge(@NotNull Variable[] variables, @NotNull Productand[] productands, int size) {
+        final Variable[] result = new Variable[variables.length + size];
+
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < variables.length || j < size) {
+            final int c;
+            if (i == variables.length) {
+                c = 1;
+            } else if (j == size) {
+                c = -1;
+            } else {
+                c = IntegerVariable.compare(variables[i], productands[j].getVariable());
+            }
+
+            if (c < 0) {
+                result[k++] = variables[i++];
+            } else if (c > 0) {
+                result[k++] = productands[j++].getVariable();
+            } else {
+                result[k++] = variables[i++];
+                j++;
+            }
+        }
+
+        if (k == result.length) {
+            return result;
+        } else {
+            final Variable[] tmp = new Variable[k];
+            System.arraycopy(result, 0, tmp, 0, k);
+            return tmp;
+        }
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           PACKING
+    *
+    **********************************************************************
+    */
+
+    /**
+     * @return packed exponents or null if some exponent doesn't fit into field
+     */
+    @Nullable
+    static long[] pack(@NotNull Productand[] productands, int size, @NotNull Layout layout) {
+        final long[] result = new long[1 + layout.words];
+        result[0] = layout.epoch;
+
+        for (int i = 0; i < size; i++) {
+            final Productand productand = productands[i];
+            final int exponent = productand.getExponent();
+            if (exponent < 0 || exponent > MAX_EXPONENT) {
+                return null;
+            }
+
+            final int slot = layout.slot(productand.getVariable());
+            assert slot >= 0;
+
+            result[layout.word(slot)] |= ((long) exponent) << layout.shift(slot);
+        }
+
+        return result;
+    }
+
+    @NotNull
+    static Productand[] unpack(@NotNull long[] packed, @NotNull Layout layout, int size) {
+        final Productand[] result = new Productand[size];
+
+        int i = 0;
+        for (int slot = 0; slot < layout.variables.length; slot++) {
+            final int exponent = (int) ((packed[layout.word(slot)] >>> layout.shift(slot)) & FIELD_MASK);
+            if (exponent != 0) {
+                result[i++] = Productand.newInstance(layout.variables[slot], exponent);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return number of non-zero fields in packed exponents
+     */
+    static int countNonZero(@NotNull long[] packed) {
+        int result = 0;
+        for (int i = 1; i < packed.length; i++) {
+            final long word = packed[i];
+            // guard bit of the field is set if any bit of the field is set
+            result += Long.bitCount((((word & ~GUARDS) + ~GUARDS) | word) & GUARDS);
+        }
+        return result;
+    }
+}
@@ -1,11 +1,25 @@
 package jscl.math.generic;
 
+import jscl.JsclMathContext;
 import jscl.JsclMathContextImpl;
+import jscl.NumeralBase;
+import jscl.math.IntegerVariable;
 import jscl.math.NotDivisibleException;
+import jscl.math.Variable;
+import jscl.math.generic.expression.Expression;
+import jscl.math.generic.expression.TestVariable;
+import jscl.math.generic.expression.literal.Literal;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * User: serso
@@ -119,6 +133,17 @@ public class GenericIntegerTest {
         Assert.assertEquals(context.newInteger(expected), context.newInteger(l).divide(context.newInteger(r)));
     }
 
+    @Test
+    public void testTryDivide() throws Exception {
+        Assert.assertEquals(context.newInteger(21), context.newInteger(42).tryDivide(context.newInteger(2)));
+        Assert.assertNull(context.newInteger(1).tryDivide(context.newInteger(2)));
+        Assert.assertNull(context.newInteger(-2).tryDivide(context.newInteger(3)));
+
+        final BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(Long.MIN_VALUE).tryDivide(context.newInteger(-1)));
+        Assert.assertNull(context.newInteger(min.negate()).tryDivide(context.newInteger(Long.MAX_VALUE)));
+    }
+
 
     @Test
     public void testDivideAndRemainder() throws Exception {
@@ -198,6 +223,39 @@ public class GenericIntegerTest {
         Assert.assertEquals(context.newInteger(expected), context.newInteger(l).negate());
     }
 
+    @Test
+    public void testOverflow() throws Exception {
+        final BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        final BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+
+        Assert.assertEquals(context.newInteger(max.add(BigInteger.ONE)), context.newInteger(Long.MAX_VALUE).add(context.newInteger(1)));
+        Assert.assertEquals(context.newInteger(min.subtract(BigInteger.ONE)), context.newInteger(Long.MIN_VALUE).subtract(context.newInteger(1)));
+        Assert.assertEquals(context.newInteger(max.multiply(max)), context.newInteger(Long.MAX_VALUE).multiply(context.newInteger(Long.MAX_VALUE)));
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(Long.MIN_VALUE).negate());
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(Long.MIN_VALUE).divide(context.newInteger(-1)));
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(Long.MIN_VALUE).gcd(context.newInteger(0)));
+        Assert.assertEquals(context.newInteger(BigInteger.valueOf(3).pow(50)), context.newInteger(3).pow(50));
+
+        // results next to the long boundaries
+        Assert.assertEquals(context.newInteger(max.add(BigInteger.ONE)), context.newInteger(Long.MAX_VALUE).subtract(context.newInteger(-1)));
+        Assert.assertEquals(context.newInteger(Long.MIN_VALUE), context.newInteger(Long.MIN_VALUE + 1).add(context.newInteger(-1)));
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(Long.MIN_VALUE).multiply(context.newInteger(-1)));
+        Assert.assertEquals(context.newInteger(Long.MIN_VALUE), context.newInteger(1L << 62).multiply(context.newInteger(-2)));
+        Assert.assertEquals(context.newInteger(min.negate()), context.newInteger(1L << 62).multiply(context.newInteger(2)));
+        Assert.assertEquals(context.newInteger(-Long.MAX_VALUE), context.newInteger(Long.MAX_VALUE).negate());
+        Assert.assertEquals(context.newInteger(BigInteger.valueOf(3).pow(39)), context.newInteger(3).pow(39));
+        Assert.assertEquals(context.newInteger(BigInteger.valueOf(-3).pow(40)), context.newInteger(-3).pow(40));
+        Assert.assertTrue(((GenericInteger) context.newInteger(-2).pow(63)).isSmall());
+        Assert.assertEquals(context.newInteger(Long.MIN_VALUE), context.newInteger(-2).pow(63));
+
+        // back to long after big integer arithmetic
+        final GenericInteger big = context.newInteger(Long.MAX_VALUE).add(context.newInteger(1));
+        Assert.assertFalse(big.isSmall());
+        Assert.assertTrue(big.subtract(context.newInteger(1)).isSmall());
+        Assert.assertTrue(big.subtract(big).isZero());
+        Assert.assertTrue(big.divide(big).isOne());
+    }
+
     @Test
     public void testSignum() throws Exception {
 
@@ -240,7 +298,137 @@ public class GenericIntegerTest {
 
     @Test
     public void testFactorize() throws Exception {
+        Assert.assertEquals(context.newInteger(0), context.newInteger(0).factorize());
+        Assert.assertEquals(context.newInteger(-1), context.newInteger(-1).factorize());
+
+        // -360 = -2^3 * 3^2 * 5
+        final Expression e = (Expression) context.newInteger(-360).factorize();
+        Assert.assertEquals(1, e.getSize());
+        Assert.assertEquals(context.newInteger(-1), e.getCoefficient(0));
+        final Literal l = e.getLiteral(0);
+        Assert.assertEquals(3, l.getSize());
+        final long[] primes = {2L, 3L, 5L};
+        final int[] exponents = {3, 2, 1};
+        for (int i = 0; i < l.getSize(); i++) {
+            Assert.assertEquals(context.newInteger(primes[i]), ((IntegerVariable) l.getProductand(i).getVariable()).getValue());
+            Assert.assertEquals(exponents[i], l.getProductand(i).getExponent());
+        }
 
+        // primes are not added to the index of variables, integer variables precede all other variables
+        final int indexSize = context.getVariableIndex().getSize();
+        final Expression factors = (Expression) context.newInteger(2L * 3 * 1000003).factorize();
+        Assert.assertEquals(factors.square(), factors.multiply(factors));
+        Assert.assertEquals(indexSize, context.getVariableIndex().getSize());
+
+        final TestVariable x = new TestVariable("0", context);
+        final Variable p = factors.getLiteral(0).getProductand(0).getVariable();
+        Assert.assertTrue(IntegerVariable.compare(p, x) < 0);
+        Assert.assertTrue(IntegerVariable.compare(x, p) > 0);
+        Assert.assertEquals(factors.multiply(x.asGeneric()), x.asGeneric().multiply(factors));
+
+        final Random random = new Random(42L);
+        final List<BigInteger> values = new ArrayList<BigInteger>();
+        for (int bits = 2; bits < 100; bits += 7) {
+            values.add(new BigInteger(bits, random).negate());
+        }
+        // powers, factors which are found by rho and by elliptic curves
+        values.add(BigInteger.probablePrime(40, random).pow(3).multiply(BigInteger.valueOf(2 * 3 * 3)));
+        values.add(BigInteger.probablePrime(31, random).multiply(BigInteger.probablePrime(31, random)));
+        values.add(BigInteger.probablePrime(50, random).multiply(BigInteger.probablePrime(60, random)));
+        values.add(BigInteger.probablePrime(60, random).multiply(BigInteger.probablePrime(64, random)));
+
+        for (BigInteger value : values) {
+            for (ForkJoinPool pool : Arrays.asList(null, ForkJoinPool.commonPool())) {
+                final IntegerFactorization f = IntegerFactorizer.instance.factorize(value, pool);
+
+                BigInteger product = BigInteger.valueOf(f.getSignum());
+                for (int i = 0; i < f.getSize(); i++) {
+                    Assert.assertTrue(f.getPrime(i).isProbablePrime(64));
+                    Assert.assertTrue(i == 0 || f.getPrime(i - 1).compareTo(f.getPrime(i)) < 0);
+                    product = product.multiply(f.getPrime(i).pow(f.getExponent(i)));
+                }
+                Assert.assertEquals(value, product);
+            }
+        }
+    }
+
+    @Test
+    public void testFactorizeInterruption() throws Exception {
+        // factors of 30 digits take elliptic curves much longer than the test waits
+        final Random random = new Random(42L);
+        final BigInteger value = BigInteger.probablePrime(100, random).multiply(BigInteger.probablePrime(100, random));
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (final ForkJoinPool p : Arrays.asList(null, pool)) {
+                final List<Throwable> errors = new ArrayList<Throwable>();
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            IntegerFactorizer.instance.factorize(value, p);
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        }
+                    }
+                });
+                thread.start();
+
+                Thread.sleep(200);
+                thread.interrupt();
+                thread.join(10000);
+
+                Assert.assertFalse(thread.isAlive());
+                Assert.assertEquals(1, errors.size());
+                Assert.assertTrue(errors.get(0) instanceof GenericInterruptedException);
+            }
+
+            // workers have been stopped too
+            pool.shutdown();
+            Assert.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIsPrime() throws Exception {
+        for (int n = -10; n < 10000; n++) {
+            Assert.assertEquals(String.valueOf(n), n > 1 && BigInteger.valueOf(n).isProbablePrime(64), context.newInteger(n).isPrime());
+        }
+
+        // Carmichael number and strong pseudoprimes to several small bases
+        Assert.assertFalse(GenericInteger.isPrime(561L));
+        Assert.assertFalse(GenericInteger.isPrime(3215031751L));
+        Assert.assertFalse(GenericInteger.isPrime(3825123056546413051L));
+        Assert.assertTrue(GenericInteger.isPrime(Long.MAX_VALUE - 24));
+
+        // 2^64 - 59 is the greatest prime less than 2^64
+        Assert.assertTrue(context.newInteger(new BigInteger("18446744073709551557")).isPrime());
+        Assert.assertFalse(context.newInteger(new BigInteger("18446744073709551615")).isPrime());
+
+        // Mersenne numbers: 2^89 - 1 is prime, 2^67 - 1 = 193707721 * 761838257287
+        Assert.assertTrue(context.newInteger(BigInteger.ONE.shiftLeft(89).subtract(BigInteger.ONE)).isPrime());
+        Assert.assertFalse(context.newInteger(BigInteger.ONE.shiftLeft(67).subtract(BigInteger.ONE)).isPrime());
+        Assert.assertFalse(context.newInteger(BigInteger.ONE.shiftLeft(89).subtract(BigInteger.ONE).negate()).isPrime());
+
+        final Random random = new Random(42L);
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger p = BigInteger.probablePrime(2 + random.nextInt(200), random);
+            final BigInteger q = BigInteger.probablePrime(2 + random.nextInt(100), random);
+            Assert.assertTrue(context.newInteger(p).isPrime());
+            Assert.assertFalse(context.newInteger(p.multiply(q)).isPrime());
+        }
+    }
+
+    @Test
+    public void testPhi() throws Exception {
+        Assert.assertEquals(context.newInteger(12), context.newInteger(36).phi());
+        Assert.assertEquals(context.newInteger(96), context.newInteger(97).phi());
+        Assert.assertEquals(context.newInteger(1), context.newInteger(1).phi());
+
+        Assert.assertEquals(Arrays.asList(context.newInteger(3), context.newInteger(5)), context.newInteger(7).primitiveRoots());
+        Assert.assertEquals(Collections.<GenericInteger>emptyList(), context.newInteger(8).primitiveRoots());
     }
 
     @Test
@@ -275,12 +463,19 @@ public class GenericIntegerTest {
 
     @Test
     public void testIntegerValue() throws Exception {
+        final GenericInteger integer = context.newInteger(5);
+        Assert.assertTrue(integer.isInteger());
+        Assert.assertSame(integer, integer.tryIntegerValue());
 
+        Assert.assertEquals(integer, Rational.newInstance(10, 2, context).tryIntegerValue());
+        Assert.assertNull(Rational.newInstance(5, 2, context).tryIntegerValue());
+        Assert.assertFalse(Rational.newInstance(5, 2, context).isInteger());
     }
 
     @Test
     public void testVariableValue() throws Exception {
-
+        Assert.assertFalse(context.newInteger(5).isVariable());
+        Assert.assertNull(context.newInteger(5).tryVariableValue());
     }
 
     @Test
@@ -322,4 +517,115 @@ public class GenericIntegerTest {
     public void testToMathML() throws Exception {
 
     }
+
+    @Test
+    public void testCache() throws Exception {
+        final GenericContextImpl context = new GenericContextImpl(JsclMathContextImpl.defaultInstance(), -16, 16, 4);
+
+        Assert.assertSame(context.getZero(), context.newInteger(0));
+        Assert.assertSame(context.getOne(), context.newInteger(BigInteger.ONE));
+        Assert.assertSame(context.getMinusOne(), context.newInteger(-1));
+        Assert.assertSame(context.newInteger(16), context.newInteger(16));
+        Assert.assertEquals(context.newInteger(17), context.newInteger(17));
+
+        final BigInteger big = BigInteger.ONE.shiftLeft(100);
+        final GenericInteger first = context.newInteger(big);
+        Assert.assertSame(first, context.newInteger(new BigInteger(big.toString())));
+
+        final GenericIntegerCache cache = context.getIntegerCache();
+        Assert.assertEquals(4, cache.getInternCapacity());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testProductAll() throws Exception {
+        final List<GenericInteger> factors = new ArrayList<GenericInteger>();
+        BigInteger expected = BigInteger.ONE;
+        for (int i = 1; i <= 40; i++) {
+            final long factor = i % 2 == 0 ? (long) i * Integer.MAX_VALUE : -i;
+            factors.add(context.newInteger(factor));
+            expected = expected.multiply(BigInteger.valueOf(factor));
+        }
+
+        Assert.assertEquals(context.newInteger(expected), GenericInteger.productAll(context, factors));
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assert.assertEquals(context.newInteger(expected), GenericInteger.productAll(context, factors, pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(context.getOne(), GenericInteger.productAll(context, Collections.<GenericInteger>emptyList()));
+    }
+
+    @Test
+    public void testNttMultiply() throws Exception {
+        // all multiplications of big integers are done by NTT
+        final GenericContext nttContext = new GenericContextImpl(JsclMathContextImpl.defaultInstance(), -128, 1024, 256, null, GenericContextImpl.DEFAULT_PARALLEL_MULTIPLICATION_THRESHOLD, 0);
+
+        final Random random = new Random(42L);
+        for (int i = 0; i < 50; i++) {
+            BigInteger l = new BigInteger(64 + random.nextInt(20000), random);
+            BigInteger r = i % 5 == 0 ? BigInteger.ONE.shiftLeft(64 + random.nextInt(20000)).subtract(BigInteger.ONE) : new BigInteger(64 + random.nextInt(20000), random);
+            if (random.nextBoolean()) {
+                l = l.negate();
+            }
+
+            Assert.assertEquals(l.multiply(r), nttContext.newInteger(l).multiply(nttContext.newInteger(r)).getContent());
+            Assert.assertEquals(l.multiply(l), nttContext.newInteger(l).multiply(nttContext.newInteger(l)).getContent());
+        }
+
+        final BigInteger base = new BigInteger("-123456789012345678901234567890");
+        Assert.assertEquals(base.pow(77), nttContext.newInteger(base).pow(77).integerValue().getContent());
+        Assert.assertEquals(base.shiftLeft(10).pow(30), nttContext.newInteger(base.shiftLeft(10)).pow(30).integerValue().getContent());
+    }
+
+    @Test
+    public void testFormatAndParse() throws Exception {
+        final Random random = new Random(42L);
+        for (NumeralBase numeralBase : NumeralBase.values()) {
+            for (int i = 0; i < 10; i++) {
+                BigInteger value = new BigInteger(64 + random.nextInt(50000), random);
+                if (random.nextBoolean()) {
+                    value = value.negate();
+                }
+
+                final String formatted = context.format(value, numeralBase);
+                Assert.assertEquals(value.toString(numeralBase.getRadix()).toUpperCase(), formatted);
+                Assert.assertEquals(context.newInteger(value), context.newInteger(formatted, numeralBase));
+                Assert.assertEquals(context.newInteger(value), context.newInteger(formatted.toLowerCase(), numeralBase));
+            }
+        }
+
+        // leading zeros of lower halves
+        final BigInteger value = BigInteger.TEN.pow(10000).add(BigInteger.ONE);
+        Assert.assertEquals(value.toString(), context.format(value, NumeralBase.dec));
+        Assert.assertEquals(context.newInteger(value), context.newInteger(value.toString(), NumeralBase.dec));
+
+        // values which fit into long are formatted by math context, others by BigInteger
+        final JsclMathContext mathContext = JsclMathContextImpl.defaultInstance();
+        final BigInteger longMax = BigInteger.valueOf(Long.MAX_VALUE);
+        final BigInteger longMin = BigInteger.valueOf(Long.MIN_VALUE);
+        for (NumeralBase numeralBase : NumeralBase.values()) {
+            Assert.assertEquals(mathContext.format(mathContext.fromLong(Long.MAX_VALUE), numeralBase), context.format(longMax, numeralBase));
+            Assert.assertEquals(mathContext.format(mathContext.fromLong(Long.MIN_VALUE), numeralBase), context.format(longMin, numeralBase));
+
+            final BigInteger above = longMax.add(BigInteger.ONE);
+            Assert.assertEquals(above.toString(numeralBase.getRadix()).toUpperCase(), context.format(above, numeralBase));
+            final BigInteger below = longMin.subtract(BigInteger.ONE);
+            Assert.assertEquals(below.toString(numeralBase.getRadix()).toUpperCase(), context.format(below, numeralBase));
+        }
+        Assert.assertEquals(mathContext.format(mathContext.fromLong(Long.MAX_VALUE)), context.format(longMax));
+        Assert.assertEquals(longMax.add(BigInteger.ONE).toString(mathContext.getNumeralBase().getRadix()).toUpperCase(), context.format(longMax.add(BigInteger.ONE)));
+
+        Assert.assertEquals(context.newInteger(-255), context.newInteger("-ff", NumeralBase.hex));
+        Assert.assertEquals(context.newInteger(5), context.newInteger("+101", NumeralBase.bin));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseIllegalDigit() throws Exception {
+        context.newInteger("12a", NumeralBase.dec);
+    }
 }
@@ -1,11 +1,26 @@
 package jscl.math.generic.expression;
 
 import jscl.JsclMathContextImpl;
+import jscl.math.generic.DivisionResult;
+import jscl.math.generic.Generic;
 import jscl.math.generic.GenericContext;
 import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.GenericInteger;
+import jscl.math.generic.GenericInterruptedException;
+import jscl.math.generic.Rational;
+import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static jscl.math.generic.expression.TestVariable.monomial;
+
 /**
  * User: serso
  * Date: 3/3/12
@@ -22,4 +37,408 @@ public class ExpressionTest {
         Assert.assertEquals("1.0", one.toString());
         Assert.assertEquals("2.0", one.add(one).toString());
     }
+
+    @Test
+    public void testMixedTypes() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final Generic two = context.newInteger(2);
+        final Generic xPlusTwo = x.asGeneric().add(Expression.newInstance(context.newInteger(2)));
+
+        Assert.assertEquals(xPlusTwo, two.add(x.asGeneric()));
+        Assert.assertEquals(xPlusTwo, x.asGeneric().add(two));
+        Assert.assertEquals(monomial(2L, x, 1), two.multiply(x.asGeneric()));
+        Assert.assertEquals(monomial(-1L, x, 1).add(Expression.newInstance(context.newInteger(2))), two.subtract(x.asGeneric()));
+        Assert.assertEquals(0, two.compareTo(Expression.newInstance(context.newInteger(2))));
+        Assert.assertEquals(x.asGeneric(), monomial(2L, x, 1).divide(two));
+
+        final Rational half = Rational.newInstance(1, 2, context);
+        Assert.assertEquals(Rational.newInstance(5, 2, context), two.add(half));
+        Assert.assertEquals(context.newInteger(1), half.multiply(two));
+    }
+
+    @Test
+    public void testScalar() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final GenericInteger min = context.newInteger(Long.MIN_VALUE);
+        final Expression e = monomial(Long.MIN_VALUE, x, 1).add(Expression.newInstance(context.newInteger(3)));
+
+        // -x * Long.MIN_VALUE overflows long
+        Assert.assertEquals(monomial(1L, x, 1).multiply(min).negate(), e.negate().subtract(context.newInteger(-3)));
+        Assert.assertEquals(monomial(Long.MIN_VALUE, x, 1), e.subtract(context.newInteger(3)));
+        Assert.assertEquals(1, e.subtract(context.newInteger(3)).getSize());
+        Assert.assertEquals(e.multiply(Expression.newInstance(context.newInteger(2))), e.multiply(context.newInteger(2)));
+        Assert.assertEquals(0, e.subtract(e).getSize());
+        Assert.assertEquals(0, e.multiply(context.getZero()).getSize());
+    }
+
+    @Test
+    public void testFused() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        final Expression acc = monomial(3L, x, 2).add(monomial(-1L, y, 1));
+        final Expression e = monomial(1L, x, 1).add(monomial(2L, y, 1));
+        final Expression f = monomial(1L, x, 1).subtract(monomial(5L, x, 1, y, 1));
+        final Summand m = monomial(-3L, x, 1).getSummand(0);
+
+        Assert.assertEquals(acc.add(e.multiply(monomial(-3L, x, 1))), acc.addMultiple(e, m));
+        Assert.assertEquals(acc.subtract(e.multiply(monomial(-3L, x, 1))), acc.subtractMultiple(e, m));
+        Assert.assertEquals(acc.add(e.multiply(f)), acc.addProduct(e, f));
+        Assert.assertEquals(acc.subtract(e.multiply(f)), acc.subtractProduct(e, f));
+
+        // x^2 terms cancel
+        Assert.assertEquals(monomial(-1L, y, 1).subtract(monomial(6L, x, 1, y, 1)), acc.addMultiple(e, m));
+    }
+
+    @Test
+    public void testAccumulator() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+
+        // 1 + x + ... + x^99 - (x + ... + x^98)
+        final ExpressionAccumulator acc = new ExpressionAccumulator(context);
+        for (int i = 0; i < 100; i++) {
+            final Expression e = i == 0 ? Expression.newInstance(context.newInteger(1)) : monomial(1L, x, i);
+            acc.add(e);
+        }
+        for (int i = 1; i < 99; i++) {
+            acc.add(monomial(-1L, x, i).getSummand(0));
+        }
+
+        Assert.assertEquals(monomial(1L, x, 99).add(Expression.newInstance(context.newInteger(1))), acc.build());
+        Assert.assertEquals(0, acc.build().getSize());
+
+        // unsorted summands with repeated literals and coefficients which overflow long
+        final List<Expression> summands = new ArrayList<Expression>();
+        for (int i = 0; i < 300; i++) {
+            final Expression e = monomial(i % 2 == 0 ? Long.MAX_VALUE : -i, x, 1 + (i * 7) % 13);
+            summands.add(e);
+            acc.add(e.getSummand(0));
+        }
+        Assert.assertEquals(Expression.sumAll(context, summands), acc.build());
+    }
+
+    @Test
+    public void testSumAll() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        final Expression a = monomial(1L, x, 2).add(monomial(Long.MAX_VALUE, y, 1));
+        final Expression b = monomial(-1L, x, 2).add(monomial(1L, x, 1));
+        final Expression c = monomial(Long.MAX_VALUE, y, 1).add(monomial(3L, x, 1, y, 1));
+
+        Assert.assertEquals(a.add(b).add(c), Expression.sumAll(context, Arrays.asList(a, b, c)));
+        Assert.assertEquals(Expression.newEmpty(context), Expression.sumAll(context, Arrays.asList(a, a.negate(), b, b.negate())));
+        Assert.assertEquals(0, Expression.sumAll(context, Collections.<Expression>emptyList()).getSize());
+    }
+
+    @Test
+    public void testProductAll() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        final List<Expression> factors = new ArrayList<Expression>();
+        Expression expected = Expression.newInstance(context.getOne());
+        for (int i = 1; i <= 9; i++) {
+            final Expression factor = monomial(1L, x, 1).add(monomial(i, y, i % 3 + 1));
+            factors.add(factor);
+            expected = expected.multiply(factor);
+        }
+
+        Assert.assertEquals(expected, Expression.productAll(context, factors));
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assert.assertEquals(expected, Expression.productAll(context, factors, pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(Expression.newInstance(context.getOne()), Expression.productAll(context, Collections.<Expression>emptyList()));
+    }
+
+    @Test
+    public void testMultiply() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        final Expression one = Expression.newInstance(context.newInteger(1));
+
+        // (x + 1) * (x - 1) = x^2 - 1
+        final Expression xPlusOne = x.asGeneric().add(one);
+        final Expression xMinusOne = x.asGeneric().subtract(one);
+        Assert.assertEquals(monomial(1L, x, 2).subtract(one), xPlusOne.multiply(xMinusOne));
+
+        // (x + y + 1) * (x^2 - 2*x*y + 3*y^2 - 5) compared with sum of summand products
+        final Expression l = xPlusOne.add(y.asGeneric());
+        final Expression r = monomial(1L, x, 2).add(monomial(-2L, x, 1, y, 1)).add(monomial(3L, y, 2)).add(Expression.newInstance(context.newInteger(-5)));
+
+        Assert.assertEquals(naiveMultiply(l, r), l.multiply(r));
+        Assert.assertEquals(naiveMultiply(r, l), l.multiply(r));
+        Assert.assertEquals(naiveMultiply(r, r), r.multiply(r));
+        Assert.assertEquals(naiveMultiply(l, l), l.square());
+        Assert.assertEquals(monomial(1L, x, 2), x.asGeneric().square());
+
+        Assert.assertTrue(l.multiply(Expression.newEmpty(context)).isZero());
+    }
+
+    @Test
+    public void testMultiplyParallel() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // every product is computed in parallel
+            final GenericContext parallelContext = new GenericContextImpl(JsclMathContextImpl.defaultInstance(), -128, 1024, 256, pool, 1, GenericContextImpl.DEFAULT_NTT_MULTIPLICATION_THRESHOLD);
+
+            final TestVariable x = new TestVariable("x", parallelContext);
+            final TestVariable y = new TestVariable("y", parallelContext);
+
+            final Expression one = Expression.newInstance(parallelContext.getOne());
+            final Expression big = Expression.newInstance(parallelContext.newInteger(BigInteger.ONE.shiftLeft(100)));
+
+            final Expression l = x.asGeneric().add(y.asGeneric()).add(one).pow(15);
+            final Expression r = x.asGeneric().subtract(monomial(2L, y, 1)).add(big).pow(12);
+
+            Assert.assertEquals(ExpressionMultiplicator.instance.multiplyAdd(null, l, r, false), l.multiply(r));
+            Assert.assertEquals(ExpressionMultiplicator.instance.multiplyAdd(null, l, r.negate(), false), r.negate().multiply(l));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMultiplyParallelInterruption() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final GenericContext parallelContext = new GenericContextImpl(JsclMathContextImpl.defaultInstance(), -128, 1024, 256, pool, 1, GenericContextImpl.DEFAULT_NTT_MULTIPLICATION_THRESHOLD);
+
+            final TestVariable x = new TestVariable("x", parallelContext);
+            final TestVariable y = new TestVariable("y", parallelContext);
+
+            // sparse operands => neither Kronecker substitution nor hash table is used
+            Expression sum = Expression.newEmpty(parallelContext);
+            for (int i = 1; i <= 300; i++) {
+                sum = sum.add(monomial(i, x, i * i, y, i * 7919 % 10007));
+            }
+            final Expression l = sum;
+            final Expression r = sum.add(monomial(1L, y, 20000));
+
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            l.multiply(r);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+            thread.start();
+
+            Thread.sleep(100);
+            thread.interrupt();
+            thread.join(10000);
+
+            Assert.assertFalse(thread.isAlive());
+            Assert.assertEquals(1, errors.size());
+            Assert.assertTrue(errors.get(0) instanceof GenericInterruptedException);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testProductAllInterruption() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final TestVariable x = new TestVariable("x", context);
+            final TestVariable y = new TestVariable("y", context);
+
+            // sparse factors => each multiplication of the first level takes a while
+            final List<Expression> factors = new ArrayList<Expression>();
+            for (int k = 0; k < 4; k++) {
+                Expression sum = Expression.newEmpty(context);
+                for (int i = 1; i <= 1500; i++) {
+                    sum = sum.add(monomial(i + k, x, i * i + k, y, (i * 7919 + k) % 10007));
+                }
+                factors.add(sum);
+            }
+
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Expression.productAll(context, factors, pool);
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+            thread.start();
+
+            Thread.sleep(100);
+            thread.interrupt();
+            // the caller doesn't wait for the level to complete
+            thread.join(1000);
+
+            Assert.assertFalse(thread.isAlive());
+            Assert.assertEquals(1, errors.size());
+            Assert.assertTrue(errors.get(0) instanceof GenericInterruptedException);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMultiplyDense() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        // dense polynomials: (x + y + 1)^n has all monomials of total degree <= n, coefficients overflow long
+        final Expression one = Expression.newInstance(context.getOne());
+        final Expression l = x.asGeneric().add(y.asGeneric()).add(one).pow(40);
+        final Expression r = x.asGeneric().subtract(monomial(3L, y, 1)).subtract(one).pow(45);
+
+        final Expression expected = ExpressionMultiplicator.instance.multiplyAdd(null, l, r, false);
+        Assert.assertEquals(expected, l.multiplyDense(r));
+        Assert.assertEquals(expected, l.multiply(r));
+
+        // all summands cancel
+        Assert.assertEquals(0, l.multiplyDense(r).add(r.negate().multiplyDense(l)).getSize());
+
+        // falls back to heap multiplication: exponents don't fit into packed fields
+        final Expression h = monomial(1L, x, 20000).add(one);
+        Assert.assertEquals(naiveMultiply(h, h.negate()), h.multiplyDense(h.negate()));
+    }
+
+    @Test
+    public void testMultiplyKronecker() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+        final TestVariable z = new TestVariable("z", context);
+
+        final Expression one = Expression.newInstance(context.getOne());
+        final Expression l = x.asGeneric().add(y.asGeneric()).add(one).pow(30);
+        final Expression r = x.asGeneric().subtract(monomial(3L, y, 1)).subtract(one).pow(35);
+
+        final Expression expected = ExpressionMultiplicator.instance.multiplyAdd(null, l, r, false);
+        Assert.assertEquals(expected, l.multiplyKronecker(r));
+        Assert.assertEquals(expected, l.multiply(r));
+
+        // negative digits and coefficients which don't fit into long
+        final Expression m = l.multiply(context.newInteger(Long.MIN_VALUE)).add(z.asGeneric());
+        Assert.assertEquals(ExpressionMultiplicator.instance.multiplyAdd(null, m, r, false), m.multiplyKronecker(r));
+        Assert.assertEquals(0, m.multiplyKronecker(r).add(r.negate().multiplyKronecker(m)).getSize());
+
+        Assert.assertEquals(naiveMultiply(z.asGeneric().add(one), z.asGeneric()), z.asGeneric().add(one).multiplyKronecker(z.asGeneric()));
+        Assert.assertEquals(r.multiply(context.newInteger(-5)), r.multiplyKronecker(Expression.newInstance(context.newInteger(-5))));
+    }
+
+    @Test
+    public void testMultiplyLargeExponents() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        // exponents which don't fit into packed form
+        final Expression l = monomial(2L, x, 30000, y, 1).add(monomial(1L, y, 2));
+        final Expression r = monomial(3L, x, 30000).add(monomial(1L, y, 40000));
+
+        final Expression expected = monomial(6L, x, 60000, y, 1)
+                .add(monomial(3L, x, 30000, y, 2))
+                .add(monomial(2L, x, 30000, y, 40001))
+                .add(monomial(1L, y, 40002));
+        Assert.assertEquals(expected, l.multiply(r));
+        Assert.assertEquals(expected, naiveMultiply(l, r));
+    }
+
+    @Test
+    public void testGcd() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+        final TestVariable z = new TestVariable("z", context);
+
+        final Expression one = Expression.newInstance(context.newInteger(1));
+        final Expression two = Expression.newInstance(context.newInteger(2));
+
+        // gcd(3 * (x + y) * (x - 1), 6 * (x + y) * (y + 2)) = 3 * (x + y)
+        final Expression xPlusY = x.asGeneric().add(y.asGeneric());
+        final Expression l = xPlusY.multiply(x.asGeneric().subtract(one)).multiply(context.newInteger(3));
+        final Expression r = xPlusY.multiply(y.asGeneric().add(two)).multiply(context.newInteger(6));
+        Assert.assertEquals(xPlusY.multiply(context.newInteger(3)), l.gcd(r));
+
+        // coprime
+        Assert.assertEquals(one, x.asGeneric().add(one).gcd(y.asGeneric().add(one)));
+
+        // gcd(x^2*y*z^3 - z, x*y*z^2 - 1) = x*y*z^2 - 1 (common factor with all variables)
+        final Expression g = monomial(1L, x, 1, y, 1, z, 2).subtract(one);
+        Assert.assertEquals(g, g.multiply(monomial(1L, x, 1, z, 1)).gcd(g.multiply(z.asGeneric().add(monomial(5L, y, 3)))));
+    }
+
+    @Test
+    public void testDivideAndRemainder() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+
+        final Expression one = Expression.newInstance(context.newInteger(1));
+
+        // (x^2 - 1) / (x + 1) = x - 1
+        final Expression xPlusOne = x.asGeneric().add(one);
+        DivisionResult qr = monomial(1L, x, 2).subtract(one).divideAndRemainder(xPlusOne);
+        Assert.assertEquals(x.asGeneric().subtract(one), qr.getQuotient());
+        Assert.assertTrue(qr.getRemainder().isZero());
+
+        final Expression l = monomial(3L, x, 3, y, 1).add(monomial(-2L, x, 1, y, 2)).add(monomial(7L, y, 3)).add(one);
+        final Expression r = monomial(2L, x, 1, y, 1).add(monomial(-1L, y, 1)).add(Expression.newInstance(context.newInteger(5)));
+        qr = l.divideAndRemainder(r);
+        Assert.assertEquals(l, ((Expression) qr.getQuotient()).multiply(r).add((Expression) qr.getRemainder()));
+
+        // 2^(3 - 1 + 1) * (3*x^3*y + x - 1) = q * (2*x + y) + s, s doesn't depend on x
+        final Expression a = monomial(3L, x, 3, y, 1).add(x.asGeneric()).subtract(one);
+        final Expression b = monomial(2L, x, 1).add(y.asGeneric());
+        final DivisionResult<Expression> pqr = a.pseudoDivideAndRemainder(b, x);
+        Assert.assertEquals(a.multiply(context.newInteger(8)), pqr.getQuotient().multiply(b).add(pqr.getRemainder()));
+        Assert.assertEquals(0, ExpressionDivider.degree(pqr.getRemainder(), x));
+    }
+
+    @Test
+    public void testPow() throws Exception {
+        final TestVariable x = new TestVariable("x", context);
+        final TestVariable y = new TestVariable("y", context);
+        final TestVariable z = new TestVariable("z", context);
+
+        final Expression one = Expression.newInstance(context.newInteger(1));
+
+        // binomial, multinomial with cancellations and binary exponentiation paths
+        final Expression[] bases = new Expression[]{
+                monomial(-3L, x, 2, y, 1),
+                x.asGeneric().subtract(one),
+                x.asGeneric().add(y.asGeneric()).subtract(monomial(2L, x, 1, y, 1)),
+                monomial(1L, x, 2).subtract(monomial(1L, x, 1, y, 1)).add(monomial(1L, y, 2)).add(z.asGeneric()).add(one),
+                monomial(2L, x, 3).add(monomial(-1L, x, 1, z, 2)).add(monomial(5L, y, 2)).add(y.asGeneric()).add(z.asGeneric()).subtract(one),
+                monomial(2L, x, 3).add(monomial(-1L, x, 1, z, 2)).add(monomial(5L, y, 2)).add(y.asGeneric()).add(z.asGeneric()).multiply(GenericInteger.newInstance(BigInteger.ONE.shiftLeft(3000), context)).subtract(one)
+        };
+
+        for (Expression base : bases) {
+            Expression expected = one;
+            for (int exponent = 0; exponent < 8; exponent++) {
+                Assert.assertEquals(expected, base.pow(exponent));
+                expected = naiveMultiply(expected, base);
+            }
+        }
+    }
+
+    @NotNull
+    private static Expression naiveMultiply(@NotNull Expression l, @NotNull Expression r) {
+        Expression result = Expression.newEmpty(context);
+        for (Summand ls : l) {
+            for (Summand rs : r) {
+                final Expression.Builder b = new Expression.Builder(context, 1);
+                b.addSummand(ls.multiply(rs));
+                result = result.add(b.build());
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,106 @@
+package jscl.math.generic.expression;
+
+import jscl.math.NotIntegrableException;
+import jscl.math.Variable;
+import jscl.math.generic.Generic;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.expression.literal.Literal;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Simple named variable for tests: variables are ordered by name
+ */
+public class TestVariable extends Variable {
+
+    public TestVariable(@NotNull String name, @NotNull GenericContext context) {
+        super(name, context);
+    }
+
+    @Override
+    public Generic antiDerivative(Variable variable) throws NotIntegrableException {
+        throw new NotIntegrableException(asGeneric(), variable);
+    }
+
+    @NotNull
+    @Override
+    public Generic derivative(Variable variable) {
+        return isIdentity(variable) ? getContext().getOne() : getContext().getZero();
+    }
+
+    @Override
+    public Generic substitute(Variable variable, Generic generic) {
+        return isIdentity(variable) ? generic : asGeneric();
+    }
+
+    @Override
+    public boolean isConstant(@NotNull Variable variable) {
+        return !isIdentity(variable);
+    }
+
+    @Override
+    public int compareTo(@NotNull Variable variable) {
+        return getName().compareTo(variable.getName());
+    }
+
+    @NotNull
+    @Override
+    public Variable newInstance() {
+        return new TestVariable(getName(), getContext());
+    }
+
+    @NotNull
+    @Override
+    public Expression asGeneric() {
+        return monomial(1L, this, 1);
+    }
+
+    @NotNull
+    @Override
+    public Generic expand() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic factorize() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic elementary() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic simplify() {
+        return asGeneric();
+    }
+
+    @NotNull
+    @Override
+    public Generic numeric() {
+        return asGeneric();
+    }
+
+    /**
+     * @return coefficient * v[0] ^ exponents[0] * v[1] ^ exponents[1] * ..., variables must be given in ascending order
+     */
+    @NotNull
+    public static Expression monomial(long coefficient, @NotNull Object... variablesAndExponents) {
+        GenericContext context = null;
+
+        final Literal.Builder l = new Literal.Builder(variablesAndExponents.length / 2);
+        for (int i = 0; i < variablesAndExponents.length; i += 2) {
+            final Variable v = (Variable) variablesAndExponents[i];
+            context = v.getContext();
+            l.addProductand(v, (Integer) variablesAndExponents[i + 1]);
+        }
+
+        assert context != null;
+        final Expression.Builder result = new Expression.Builder(context, 1);
+        result.addSummand(context.newInteger(coefficient), l.build());
+        return result.build();
+    }
+}
@@ -0,0 +1,277 @@
+package jscl.math.generic.expression.literal;
+
+import jscl.JsclMathContextImpl;
+import jscl.math.generic.GenericContext;
+import jscl.math.generic.GenericContextImpl;
+import jscl.math.generic.expression.TestVariable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Packed operations on literals must give the same results as operations on productands: each literal is built twice,
+ * in a context where it is packed and in a context where the variable index is full (=> wide form only)
+ */
+public class LiteralTest {
+
+    private static final String[] NAMES = {"a", "b", "c", "d", "e", "f", "g", "h"};
+
+    private static final int MAX = VariableIndex.MAX_EXPONENT;
+
+    // exponents around the guard bit: MAX / 2 + MAX / 2 + 1 = MAX, (MAX / 2 + 1) * 2 = MAX + 1
+    private static final int[] EXPONENTS = {0, 0, 1, 2, 3, MAX / 2, MAX / 2 + 1, MAX - 1, MAX};
+
+    @Test
+    public void testPackedAndWide() throws Exception {
+        final GenericContext packedContext = newContext();
+        final GenericContext wideContext = newWideContext();
+
+        final Random random = new Random(7);
+        for (int k = 0; k < 2000; k++) {
+            final int[] l = randomExponents(random);
+            final int[] r = randomExponents(random);
+
+            final Literal pl = literal(packedContext, l);
+            final Literal pr = literal(packedContext, r);
+            if (pl.getSize() > 0) {
+                Assert.assertNotNull(pl.getPacked());
+            }
+            if (pr.getSize() > 0) {
+                Assert.assertNotNull(pr.getPacked());
+            }
+
+            final Literal wl = literal(wideContext, l);
+            final Literal wr = literal(wideContext, r);
+            if (wl.getSize() > 0) {
+                Assert.assertNull(wl.getPacked());
+            }
+
+            assertOperations(pl, pr, wl, wr);
+        }
+    }
+
+    @Test
+    public void testGuardBits() throws Exception {
+        final GenericContext packedContext = newContext();
+        final GenericContext wideContext = newWideContext();
+
+        // sum fits into field
+        assertOperations(packedContext, wideContext, new int[]{MAX / 2, 0, 1}, new int[]{MAX / 2 + 1, 1, MAX - 1});
+        // sum of exponents of a overflows the field
+        assertOperations(packedContext, wideContext, new int[]{MAX / 2 + 1, 0, 0, 0, 0, 0, 0, 0}, new int[]{MAX / 2 + 1, 0, 0, 0, 0, 0, 0, 1});
+        // sum of exponents of h overflows the field
+        assertOperations(packedContext, wideContext, new int[]{0, 0, 0, 0, 1, 0, 0, MAX}, new int[]{0, 0, 0, 0, MAX, 0, 0, 1});
+        // equal exponents at the maximum
+        assertOperations(packedContext, wideContext, new int[]{MAX, MAX, MAX}, new int[]{MAX, MAX, MAX});
+
+        // exponent above the maximum cannot be packed
+        final Literal big = literal(packedContext, new int[]{MAX + 1});
+        Assert.assertNull(big.getPacked());
+        assertOperations(packedContext, wideContext, new int[]{MAX + 1, 2}, new int[]{MAX, 1});
+
+        final Literal product = literal(packedContext, new int[]{MAX}).multiply(literal(packedContext, new int[]{1}));
+        Assert.assertEquals("(a)^" + (MAX + 1), product.toString());
+        Assert.assertNull(product.getPacked());
+    }
+
+    @Test
+    public void testLayoutChange() throws Exception {
+        final GenericContext packedContext = newContext();
+        final GenericContext wideContext = newWideContext();
+        final VariableIndex index = packedContext.getVariableIndex();
+
+        // a and c are packed, b is inserted between them later => slot of c is shifted
+        final int[] old = {2, 0, MAX};
+        final Literal oldLiteral = literal(packedContext, old);
+        final long[] oldPacked = oldLiteral.getPacked();
+        Assert.assertNotNull(oldPacked);
+        final long oldEpoch = oldPacked[0];
+
+        final int[] young = {1, 3, 1};
+        final Literal youngLiteral = literal(packedContext, young);
+        final long[] youngPacked = youngLiteral.getPacked();
+        Assert.assertNotNull(youngPacked);
+        Assert.assertTrue(youngPacked[0] != oldEpoch);
+        Assert.assertEquals(index.getCurrentLayout().epoch, youngPacked[0]);
+
+        assertOperations(oldLiteral, youngLiteral, literal(wideContext, old), literal(wideContext, young));
+        assertOperations(youngLiteral, oldLiteral, literal(wideContext, young), literal(wideContext, old));
+
+        // old literal is repacked against the new layout
+        final long[] repacked = oldLiteral.getPacked();
+        Assert.assertNotNull(repacked);
+        Assert.assertEquals(index.getCurrentLayout().epoch, repacked[0]);
+        Assert.assertEquals("(a)^2*(c)^" + MAX, oldLiteral.toString());
+
+        // quotient is created in packed form
+        final Literal quotient = literal(packedContext, new int[]{4, 0, MAX}).tryDivide(literal(packedContext, new int[]{2}));
+        Assert.assertNotNull(quotient);
+        Assert.assertEquals(0, quotient.compareTo(oldLiteral));
+        Assert.assertEquals(oldLiteral.toString(), quotient.toString());
+    }
+
+    @Test
+    public void testTooManyVariables() throws Exception {
+        final GenericContext context = newContext();
+        final GenericContext wideContext = newWideContext();
+
+        // 20 + 20 variables don't fit into the index
+        final Literal first = range(context, 0, 20, 1);
+        final Literal second = range(context, 20, 40, 2);
+        Assert.assertNotNull(first.getPacked());
+        Assert.assertNull(second.getPacked());
+        Assert.assertEquals(20, context.getVariableIndex().getSize());
+
+        assertOperations(first, second, range(wideContext, 0, 20, 1), range(wideContext, 20, 40, 2));
+
+        final Literal product = first.multiply(second);
+        Assert.assertEquals(40, product.getSize());
+        Assert.assertEquals(first.toString(), product.tryDivide(second).toString());
+        Assert.assertEquals(second.toString(), product.tryDivide(first).toString());
+        Assert.assertEquals(0, first.gcd(second).getSize());
+        Assert.assertEquals(product.toString(), first.lcm(second).toString());
+
+        // literal of known variables is still packed
+        final Literal known = range(context, 5, 15, MAX);
+        Assert.assertNotNull(known.getPacked());
+        assertOperations(known, first, range(wideContext, 5, 15, MAX), range(wideContext, 0, 20, 1));
+    }
+
+    @Test
+    public void testIndexLimit() throws Exception {
+        final GenericContext context = newContext();
+        final GenericContext wideContext = newWideContext();
+        final VariableIndex index = context.getVariableIndex();
+
+        // plain comparison of literals registers variables in the index, one new variable per step
+        Literal previous = range(context, 0, 1, 1);
+        for (int i = 1; i < VariableIndex.MAX_VARIABLES + 8; i++) {
+            final Literal current = range(context, i, i + 1, 2).multiply(previous);
+            Assert.assertTrue(current.compareTo(previous) != 0);
+
+            if (i < VariableIndex.MAX_VARIABLES) {
+                Assert.assertNotNull(current.getPacked());
+                Assert.assertEquals(i + 1, index.getSize());
+            } else {
+                // index is full => new literals are kept in wide form, index doesn't grow anymore
+                Assert.assertNull(current.getPacked());
+                Assert.assertEquals(VariableIndex.MAX_VARIABLES, index.getSize());
+            }
+
+            final Literal wideCurrent = range(wideContext, i, i + 1, 2).multiply(wideLiteral(wideContext, previous));
+            assertOperations(current, previous, wideCurrent, wideLiteral(wideContext, previous));
+            assertOperations(range(context, 0, i, 3), current, range(wideContext, 0, i, 3), wideCurrent);
+            previous = current;
+        }
+
+        // literals of registered variables are still packed
+        final Literal known = range(context, 3, VariableIndex.MAX_VARIABLES, 1);
+        Assert.assertNotNull(known.getPacked());
+        assertOperations(known, previous, range(wideContext, 3, VariableIndex.MAX_VARIABLES, 1), wideLiteral(wideContext, previous));
+    }
+
+    /*
+    **********************************************************************
+    *
+    *                           HELPERS
+    *
+    **********************************************************************
+    */
+
+    private static void assertOperations(@NotNull GenericContext packedContext, @NotNull GenericContext wideContext, @NotNull int[] l, @NotNull int[] r) {
+        assertOperations(literal(packedContext, l), literal(packedContext, r), literal(wideContext, l), literal(wideContext, r));
+    }
+
+    private static void assertOperations(@NotNull Literal pl, @NotNull Literal pr, @NotNull Literal wl, @NotNull Literal wr) {
+        final String message = pl + " and " + pr;
+
+        Assert.assertEquals(message, Integer.signum(wl.compareTo(wr)), Integer.signum(pl.compareTo(pr)));
+        Assert.assertEquals(message, Integer.signum(wr.compareTo(wl)), Integer.signum(pr.compareTo(pl)));
+        Assert.assertEquals(message, wl.multiply(wr).toString(), pl.multiply(pr).toString());
+        Assert.assertEquals(message, toString(wl.tryDivide(wr)), toString(pl.tryDivide(pr)));
+        Assert.assertEquals(message, toString(wr.tryDivide(wl)), toString(pr.tryDivide(pl)));
+        Assert.assertEquals(message, wl.gcd(wr).toString(), pl.gcd(pr).toString());
+        Assert.assertEquals(message, wl.lcm(wr).toString(), pl.lcm(pr).toString());
+
+        final Literal product = pl.multiply(pr);
+        Assert.assertEquals(message, pl.getDegree() + pr.getDegree(), product.getDegree());
+        Assert.assertEquals(message, pl.toString(), toString(product.tryDivide(pr)));
+    }
+
+    @Nullable
+    private static String toString(@Nullable Literal literal) {
+        return literal == null ? null : literal.toString();
+    }
+
+    @NotNull
+    private static GenericContext newContext() {
+        return new GenericContextImpl(JsclMathContextImpl.defaultInstance());
+    }
+
+    /**
+     * @return context where index is filled with other variables => literals of {@link #NAMES} cannot be packed
+     */
+    @NotNull
+    private static GenericContext newWideContext() {
+        final GenericContext result = newContext();
+
+        final Literal.Builder filler = new Literal.Builder(VariableIndex.MAX_VARIABLES);
+        for (int i = 0; i < VariableIndex.MAX_VARIABLES; i++) {
+            filler.addProductand(new TestVariable(String.format("z%02d", i), result), 1);
+        }
+        Assert.assertNotNull(filler.build().getPacked());
+
+        return result;
+    }
+
+    /**
+     * @param exponents exponents of variables {@link #NAMES}
+     */
+    @NotNull
+    private static Literal literal(@NotNull GenericContext context, @NotNull int[] exponents) {
+        final Literal.Builder result = new Literal.Builder(exponents.length);
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i] != 0) {
+                result.addProductand(new TestVariable(NAMES[i], context), exponents[i]);
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * @return v[from]^exponent * ... * v[to - 1]^exponent
+     */
+    @NotNull
+    private static Literal range(@NotNull GenericContext context, int from, int to, int exponent) {
+        final Literal.Builder result = new Literal.Builder(to - from);
+        for (int i = from; i < to; i++) {
+            result.addProductand(new TestVariable(String.format("v%02d", i), context), exponent);
+        }
+        return result.build();
+    }
+
+    /**
+     * @return copy of <var>literal</var> of {@link #range(GenericContext, int, int, int)} variables in <var>context</var>
+     */
+    @NotNull
+    private static Literal wideLiteral(@NotNull GenericContext context, @NotNull Literal literal) {
+        final Literal.Builder result = new Literal.Builder(literal.getSize());
+        for (int i = 0; i < literal.getSize(); i++) {
+            final Productand p = literal.getProductand(i);
+            result.addProductand(new TestVariable(p.getVariable().getName(), context), p.getExponent());
+        }
+        return result.build();
+    }
+
+    @NotNull
+    private static int[] randomExponents(@NotNull Random random) {
+        final int[] result = new int[1 + random.nextInt(NAMES.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = EXPONENTS[random.nextInt(EXPONENTS.length)];
+        }
+        return result;
+    }
+}